@@ -53,6 +53,13 @@ public class UserAccount {
     @Column(length = 120)
     private String lastKnownIp;
 
+    /**
+     * Storage tier selecting how the user's files are protected
+     * (storage.redundancy.tiers); null uses the default.
+     */
+    @Column(length = 40)
+    private String storageTier;
+
     private LocalDateTime lastLoginAt;
 
     @Column(nullable = false, updatable = false)
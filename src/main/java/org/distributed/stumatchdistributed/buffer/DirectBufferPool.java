@@ -0,0 +1,172 @@
+package org.distributed.stumatchdistributed.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared pool of reusable direct ByteBuffers for chunk I/O.
+ *
+ * Chunk reads and copies need multi-megabyte buffers; allocating a fresh one per
+ * chunk (and per replica) puts heavy pressure on the GC. Buffers are grouped in
+ * power-of-two size classes from 4 KB to 16 MB and recycled:
+ * - {@link #acquire(int)} hands out a buffer of the smallest fitting class
+ * - {@link PooledBuffer#close()} returns it for reuse
+ * - The pool retains at most {@code buffer.pool.max-mb} (default 128) megabytes of
+ *   idle buffers; beyond that, released buffers are left to the GC
+ * - Requests above the largest class get an unpooled buffer (counted as a miss)
+ *
+ * Only scratch buffers whose contents are used up before release are pooled, such
+ * as the virtual disk's compaction copy buffer. Bytes that end up in a gRPC message
+ * (chunk payloads, stream frames, {@code VirtualDisk.readFile} results, the
+ * coordinator's file chunks) are not: gRPC may hold a message after onNext without
+ * telling when it is done, so a recycled buffer could be overwritten while still
+ * being sent. Those paths read once into a heap array and wrap it without further
+ * copies instead.
+ *
+ * Leak detection (system property {@code buffer.pool.leak-detection=true}, or DEBUG
+ * logging for this class) records where each buffer was acquired and reports buffers
+ * that became unreachable without being released. Leaked buffers are not reused.
+ *
+ * Design Pattern: Object Pool, Singleton (one pool per JVM: coordinator or node)
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public final class DirectBufferPool {
+    private static final Logger log = LoggerFactory.getLogger(DirectBufferPool.class);
+
+    private static final int MIN_CLASS_SHIFT = 12;  // 4 KB
+    private static final int MAX_CLASS_SHIFT = 24;  // 16 MB
+    private static final Cleaner LEAK_CLEANER = Cleaner.create();
+
+    private static final DirectBufferPool SHARED = new DirectBufferPool(
+            Long.getLong("buffer.pool.max-mb", 128) * 1024 * 1024,
+            Boolean.getBoolean("buffer.pool.leak-detection") || log.isDebugEnabled());
+
+    private final ConcurrentLinkedDeque<ByteBuffer>[] free;
+    private final long maxRetainedBytes;
+    private final boolean leakDetection;
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    /**
+     * Pool counters since the JVM started.
+     *
+     * @param hits Acquisitions served by a recycled buffer
+     * @param misses Acquisitions that had to allocate
+     * @param outstanding Buffers acquired and not yet released
+     * @param retainedBytes Bytes of idle buffers kept for reuse
+     * @param leaks Buffers garbage-collected without release (leak detection only)
+     */
+    public record Stats(long hits, long misses, long outstanding, long retainedBytes, long leaks) {}
+
+    @SuppressWarnings("unchecked")
+    DirectBufferPool(long maxRetainedBytes, boolean leakDetection) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.leakDetection = leakDetection;
+        this.free = new ConcurrentLinkedDeque[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    public static DirectBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Acquires a direct buffer with room for {@code size} bytes.
+     * The buffer's position is 0 and its limit is {@code size}; its capacity may be larger.
+     * Must be released with {@link PooledBuffer#close()}, typically via try-with-resources.
+     */
+    public PooledBuffer acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative buffer size: " + size);
+        }
+        int sizeClass = sizeClass(size);
+
+        ByteBuffer buffer = sizeClass < free.length ? free[sizeClass].pollFirst() : null;
+        if (buffer != null) {
+            retainedBytes.addAndGet(-buffer.capacity());
+            hits.increment();
+        } else {
+            int capacity = sizeClass < free.length ? 1 << (sizeClass + MIN_CLASS_SHIFT) : size;
+            buffer = ByteBuffer.allocateDirect(capacity);
+            misses.increment();
+        }
+        buffer.clear().limit(size);
+        outstanding.incrementAndGet();
+
+        PooledBuffer pooled = new PooledBuffer(this, buffer);
+        if (leakDetection) {
+            pooled.trackLeaks(LEAK_CLEANER, new LeakReport(this, new Throwable("Buffer acquired here")));
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns a buffer for reuse. Called once per acquisition by {@link PooledBuffer}.
+     */
+    void release(ByteBuffer buffer) {
+        outstanding.decrementAndGet();
+        int sizeClass = sizeClass(buffer.capacity());
+        if (sizeClass >= free.length || buffer.capacity() != 1 << (sizeClass + MIN_CLASS_SHIFT)) {
+            return;
+        }
+        if (retainedBytes.addAndGet(buffer.capacity()) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-buffer.capacity());
+            return;
+        }
+        free[sizeClass].offerFirst(buffer);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), outstanding.get(), retainedBytes.get(), leaks.sum());
+    }
+
+    /**
+     * Index of the smallest class holding {@code size} bytes ({@code free.length} if none does).
+     */
+    private int sizeClass(int size) {
+        if (size <= 1 << MIN_CLASS_SHIFT) {
+            return 0;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return Math.min(shift, MAX_CLASS_SHIFT + 1) - MIN_CLASS_SHIFT;
+    }
+
+    /**
+     * Runs when a tracked PooledBuffer becomes unreachable, or (as a no-op) when it is released.
+     * Must not reference the PooledBuffer itself.
+     */
+    static final class LeakReport implements Runnable {
+        private final DirectBufferPool pool;
+        private final Throwable acquiredAt;
+        volatile boolean released;
+
+        LeakReport(DirectBufferPool pool, Throwable acquiredAt) {
+            this.pool = pool;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public void run() {
+            if (released) {
+                return;
+            }
+            pool.leaks.increment();
+            pool.outstanding.decrementAndGet();
+            log.warn("⚠️ Pooled buffer was garbage-collected without being released", acquiredAt);
+        }
+    }
+}
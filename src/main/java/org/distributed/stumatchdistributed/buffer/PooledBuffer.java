@@ -0,0 +1,52 @@
+package org.distributed.stumatchdistributed.buffer;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A direct buffer borrowed from a {@link DirectBufferPool}.
+ *
+ * The buffer must not be used (nor any view of it kept) after {@link #close()},
+ * since the pool hands it to the next caller. Closing twice is harmless.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public final class PooledBuffer implements AutoCloseable {
+    private final DirectBufferPool pool;
+    private final ByteBuffer buffer;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private DirectBufferPool.LeakReport leakReport;
+    private Cleaner.Cleanable cleanable;
+
+    PooledBuffer(DirectBufferPool pool, ByteBuffer buffer) {
+        this.pool = pool;
+        this.buffer = buffer;
+    }
+
+    void trackLeaks(Cleaner cleaner, DirectBufferPool.LeakReport report) {
+        this.leakReport = report;
+        this.cleanable = cleaner.register(this, report);
+    }
+
+    /**
+     * The borrowed buffer: position 0 and limit = requested size when acquired.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        if (cleanable != null) {
+            leakReport.released = true;
+            cleanable.clean();
+        }
+        pool.release(buffer);
+    }
+}
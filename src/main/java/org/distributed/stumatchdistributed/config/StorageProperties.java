@@ -1,9 +1,13 @@
 package org.distributed.stumatchdistributed.config;
 
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+import org.distributed.stumatchdistributed.node.DurabilityMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "storage")
@@ -19,6 +23,47 @@ public class StorageProperties {
      */
     private String userDir = "users";
 
+    /**
+     * How uploaded files are cut into chunks before distribution.
+     */
+    private Chunking chunking = new Chunking();
+
+    /**
+     * How uploaded files are protected against node loss (replication or erasure coding).
+     */
+    private Redundancy redundancy = new Redundancy();
+
+    /**
+     * How nodes are chosen for chunks and replicas.
+     */
+    private Placement placement = new Placement();
+
+    /**
+     * Write budget of spawned storage nodes in megabits per second, shared by all
+     * transfers on a node. 0 (default) writes at disk speed; set it to emulate a
+     * bandwidth budget, e.g. in staging.
+     */
+    private int nodeThrottleMbps = 0;
+
+    /**
+     * When spawned storage nodes acknowledge chunk writes: NONE, FSYNC_PER_CHUNK
+     * or GROUP_COMMIT (default, forces shared by concurrent writes).
+     */
+    private DurabilityMode nodeDurability = DurabilityMode.GROUP_COMMIT;
+
+    /**
+     * How long a node's group commit batch waits for more writes, in microseconds.
+     * Tune with the batch size and latency histograms in the node status.
+     */
+    private long nodeGroupCommitWindowUs = 2000;
+
+    /**
+     * Files the background worker distributes at once. Small files are one chunk
+     * each, so this is also how many small chunks can meet in a node's batch;
+     * transfers are still bounded by the shared transfer pool.
+     */
+    private int distributionConcurrency = 32;
+
     public Path getBaseDir() {
         return baseDir;
     }
@@ -35,8 +80,244 @@ public class StorageProperties {
         this.userDir = userDir;
     }
 
+    public Chunking getChunking() {
+        return chunking;
+    }
+
+    public void setChunking(Chunking chunking) {
+        this.chunking = chunking;
+    }
+
+    public Redundancy getRedundancy() {
+        return redundancy;
+    }
+
+    public void setRedundancy(Redundancy redundancy) {
+        this.redundancy = redundancy;
+    }
+
+    public Placement getPlacement() {
+        return placement;
+    }
+
+    public void setPlacement(Placement placement) {
+        this.placement = placement;
+    }
+
+    public int getNodeThrottleMbps() {
+        return nodeThrottleMbps;
+    }
+
+    public void setNodeThrottleMbps(int nodeThrottleMbps) {
+        this.nodeThrottleMbps = nodeThrottleMbps;
+    }
+
+    public DurabilityMode getNodeDurability() {
+        return nodeDurability;
+    }
+
+    public void setNodeDurability(DurabilityMode nodeDurability) {
+        this.nodeDurability = nodeDurability;
+    }
+
+    public long getNodeGroupCommitWindowUs() {
+        return nodeGroupCommitWindowUs;
+    }
+
+    public void setNodeGroupCommitWindowUs(long nodeGroupCommitWindowUs) {
+        this.nodeGroupCommitWindowUs = nodeGroupCommitWindowUs;
+    }
+
+    public int getDistributionConcurrency() {
+        return distributionConcurrency;
+    }
+
+    public void setDistributionConcurrency(int distributionConcurrency) {
+        this.distributionConcurrency = distributionConcurrency;
+    }
+
     public Path userDisksPath() {
         return baseDir.resolve(userDir);
     }
-}
 
+    public static class Chunking {
+
+        public enum Mode {
+            /** Cut every chunk-size bytes. */
+            FIXED,
+            /** Cut where a rolling hash of the content matches (dedup-friendly). */
+            CONTENT_DEFINED
+        }
+
+        private Mode mode = Mode.FIXED;
+
+        /**
+         * Content-defined chunking sizes, in kilobytes.
+         */
+        private int minSizeKb = 512;
+        private int avgSizeKb = 2048;
+        private int maxSizeKb = 8192;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getMinSizeKb() {
+            return minSizeKb;
+        }
+
+        public void setMinSizeKb(int minSizeKb) {
+            this.minSizeKb = minSizeKb;
+        }
+
+        public int getAvgSizeKb() {
+            return avgSizeKb;
+        }
+
+        public void setAvgSizeKb(int avgSizeKb) {
+            this.avgSizeKb = avgSizeKb;
+        }
+
+        public int getMaxSizeKb() {
+            return maxSizeKb;
+        }
+
+        public void setMaxSizeKb(int maxSizeKb) {
+            this.maxSizeKb = maxSizeKb;
+        }
+    }
+
+    public static class Placement {
+
+        public enum Strategy {
+            /** Next node in turn (original behaviour). */
+            ROUND_ROBIN,
+            /** Random node weighted by free space. */
+            CAPACITY_WEIGHTED,
+            /** Fewer in-flight transfers of two random nodes. */
+            POWER_OF_TWO_CHOICES,
+            /** Lower in-flight x EWMA latency of two random nodes. */
+            LATENCY_AWARE,
+            /** Next node clockwise from the chunk ID on a capacity-weighted hash ring. */
+            CONSISTENT_HASH
+        }
+
+        private Strategy strategy = Strategy.LATENCY_AWARE;
+
+        /**
+         * Nodes at or above this utilization receive no new chunks while any node below it is left.
+         */
+        private double fullThresholdPercent = 90.0;
+
+        /**
+         * Virtual nodes per 10 GB of node capacity on the consistent-hash ring.
+         * More points spread data more evenly at the cost of a larger ring.
+         */
+        private int virtualNodes = 160;
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public double getFullThresholdPercent() {
+            return fullThresholdPercent;
+        }
+
+        public void setFullThresholdPercent(double fullThresholdPercent) {
+            this.fullThresholdPercent = fullThresholdPercent;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+    }
+
+    public static class Redundancy {
+
+        /**
+         * Default for files whose owner has no tier mapped below.
+         */
+        private RedundancyScheme.Mode mode = RedundancyScheme.Mode.REPLICATION;
+
+        private int replicationFactor = 2;
+
+        /**
+         * Reed-Solomon shards per chunk; 4 + 2 stores 1.5x the data and survives two lost nodes.
+         */
+        private int dataShards = 4;
+        private int parityShards = 2;
+
+        /**
+         * Mode per user storage tier, e.g. {@code storage.redundancy.tiers.cold=erasure_coding}.
+         */
+        private Map<String, RedundancyScheme.Mode> tiers = new HashMap<>();
+
+        /**
+         * Scheme for a mode, with the configured replica and shard counts.
+         */
+        public RedundancyScheme schemeFor(RedundancyScheme.Mode mode) {
+            return mode == RedundancyScheme.Mode.ERASURE_CODING
+                    ? RedundancyScheme.erasureCoded(dataShards, parityShards)
+                    : RedundancyScheme.replication(replicationFactor);
+        }
+
+        /**
+         * Mode for a user tier; the default mode if the tier is null or not mapped.
+         */
+        public RedundancyScheme.Mode modeForTier(String tier) {
+            return tier != null ? tiers.getOrDefault(tier, mode) : mode;
+        }
+
+        public RedundancyScheme.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(RedundancyScheme.Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getReplicationFactor() {
+            return replicationFactor;
+        }
+
+        public void setReplicationFactor(int replicationFactor) {
+            this.replicationFactor = replicationFactor;
+        }
+
+        public int getDataShards() {
+            return dataShards;
+        }
+
+        public void setDataShards(int dataShards) {
+            this.dataShards = dataShards;
+        }
+
+        public int getParityShards() {
+            return parityShards;
+        }
+
+        public void setParityShards(int parityShards) {
+            this.parityShards = parityShards;
+        }
+
+        public Map<String, RedundancyScheme.Mode> getTiers() {
+            return tiers;
+        }
+
+        public void setTiers(Map<String, RedundancyScheme.Mode> tiers) {
+            this.tiers = tiers;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.distributed.stumatchdistributed.erasure;
+
+/**
+ * Arithmetic in GF(2^8), the field Reed-Solomon shards are computed in.
+ *
+ * Elements are bytes; addition is XOR and multiplication uses log/exp tables
+ * over the primitive polynomial x^8 + x^4 + x^3 + x^2 + 1 (0x11D) with generator 2.
+ * A full 256 x 256 product table (64 KB) serves the encoding inner loop, so
+ * multiplying a shard byte is one array lookup.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class GaloisField {
+
+    private static final int PRIMITIVE_POLYNOMIAL = 0x11D;
+
+    private static final int[] EXP = new int[512];
+    private static final int[] LOG = new int[256];
+
+    /** MULTIPLY[a][b] = a * b */
+    static final byte[][] MULTIPLY = new byte[256][256];
+
+    static {
+        int x = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = x;
+            LOG[x] = i;
+            x <<= 1;
+            if (x >= 256) {
+                x ^= PRIMITIVE_POLYNOMIAL;
+            }
+        }
+        // Doubled so exp(log a + log b) needs no modulo
+        for (int i = 255; i < EXP.length; i++) {
+            EXP[i] = EXP[i - 255];
+        }
+        for (int a = 0; a < 256; a++) {
+            for (int b = 0; b < 256; b++) {
+                MULTIPLY[a][b] = (byte) multiply(a, b);
+            }
+        }
+    }
+
+    private GaloisField() {
+    }
+
+    static int multiply(int a, int b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        return EXP[LOG[a] + LOG[b]];
+    }
+
+    static int inverse(int a) {
+        if (a == 0) {
+            throw new ArithmeticException("0 has no inverse in GF(256)");
+        }
+        return EXP[255 - LOG[a]];
+    }
+
+    /**
+     * a^n, with 0^0 = 1.
+     */
+    static int power(int a, int n) {
+        if (n == 0) {
+            return 1;
+        }
+        if (a == 0) {
+            return 0;
+        }
+        return EXP[(LOG[a] * n) % 255];
+    }
+
+    /**
+     * Product of two matrices of field elements.
+     */
+    static int[][] multiply(int[][] left, int[][] right) {
+        int rows = left.length;
+        int inner = right.length;
+        int columns = right[0].length;
+        int[][] product = new int[rows][columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int value = 0;
+                for (int i = 0; i < inner; i++) {
+                    value ^= multiply(left[r][i], right[i][c]);
+                }
+                product[r][c] = value;
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Inverse of a square matrix by Gauss-Jordan elimination.
+     *
+     * @throws IllegalArgumentException if the matrix is singular
+     */
+    static int[][] invert(int[][] matrix) {
+        int n = matrix.length;
+        int[][] work = new int[n][2 * n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(matrix[r], 0, work[r], 0, n);
+            work[r][n + r] = 1;
+        }
+
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            while (pivot < n && work[pivot][column] == 0) {
+                pivot++;
+            }
+            if (pivot == n) {
+                throw new IllegalArgumentException("Matrix is singular");
+            }
+            int[] swap = work[pivot];
+            work[pivot] = work[column];
+            work[column] = swap;
+
+            int scale = inverse(work[column][column]);
+            for (int c = 0; c < 2 * n; c++) {
+                work[column][c] = multiply(work[column][c], scale);
+            }
+            for (int r = 0; r < n; r++) {
+                int factor = work[r][column];
+                if (r != column && factor != 0) {
+                    for (int c = 0; c < 2 * n; c++) {
+                        work[r][c] ^= multiply(factor, work[column][c]);
+                    }
+                }
+            }
+        }
+
+        int[][] inverse = new int[n][n];
+        for (int r = 0; r < n; r++) {
+            System.arraycopy(work[r], n, inverse[r], 0, n);
+        }
+        return inverse;
+    }
+}
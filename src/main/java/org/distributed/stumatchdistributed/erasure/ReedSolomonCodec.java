@@ -0,0 +1,208 @@
+package org.distributed.stumatchdistributed.erasure;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+/**
+ * Systematic Reed-Solomon erasure code over GF(256): k data shards + m parity shards.
+ *
+ * A chunk is cut into k equally sized data shards (the last one zero-padded) and
+ * m parity shards are computed from them. Any k of the k + m shards are enough to
+ * rebuild the chunk, so a chunk whose shards sit on distinct nodes survives the
+ * loss of m nodes while using (k + m) / k times its size, e.g. 1.5x for 4 + 2,
+ * against 2x for two replicas that survive a single loss.
+ *
+ * Encoding matrix: a (k + m) x k Vandermonde matrix multiplied by the inverse of
+ * its top k x k square. The top rows become the identity (data shards are the
+ * chunk itself) and every k rows stay invertible.
+ *
+ * Instances are immutable and thread-safe.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public final class ReedSolomonCodec {
+
+    /** Upper bound on k + m: the code needs a distinct field element per shard. */
+    public static final int MAX_TOTAL_SHARDS = 256;
+
+    private final int dataShards;
+    private final int parityShards;
+    private final int[][] encodingMatrix;
+    private final byte[][][] parityTables;
+
+    /**
+     * @param dataShards Number of data shards (k), at least 1
+     * @param parityShards Number of parity shards (m), at least 1
+     * @throws IllegalArgumentException if k or m is out of range
+     */
+    public ReedSolomonCodec(int dataShards, int parityShards) {
+        if (dataShards < 1 || parityShards < 1 || dataShards + parityShards > MAX_TOTAL_SHARDS) {
+            throw new IllegalArgumentException("Invalid Reed-Solomon shard counts: " + dataShards + " + " + parityShards);
+        }
+        this.dataShards = dataShards;
+        this.parityShards = parityShards;
+
+        int totalShards = dataShards + parityShards;
+        int[][] vandermonde = new int[totalShards][dataShards];
+        for (int r = 0; r < totalShards; r++) {
+            for (int c = 0; c < dataShards; c++) {
+                vandermonde[r][c] = GaloisField.power(r, c);
+            }
+        }
+        int[][] top = new int[dataShards][];
+        System.arraycopy(vandermonde, 0, top, 0, dataShards);
+        this.encodingMatrix = GaloisField.multiply(vandermonde, GaloisField.invert(top));
+
+        this.parityTables = new byte[parityShards][dataShards][];
+        for (int p = 0; p < parityShards; p++) {
+            for (int c = 0; c < dataShards; c++) {
+                parityTables[p][c] = GaloisField.MULTIPLY[encodingMatrix[dataShards + p][c]];
+            }
+        }
+    }
+
+    public int getDataShards() {
+        return dataShards;
+    }
+
+    public int getParityShards() {
+        return parityShards;
+    }
+
+    public int getTotalShards() {
+        return dataShards + parityShards;
+    }
+
+    /**
+     * Size of each shard of a chunk.
+     */
+    public int shardSize(long chunkSize) {
+        return (int) ((chunkSize + dataShards - 1) / dataShards);
+    }
+
+    /**
+     * Cuts a chunk into data shards and computes the parity shards.
+     *
+     * @return k + m shards of {@link #shardSize(long)} bytes, data shards first
+     */
+    public byte[][] encode(ByteString chunk) {
+        int shardSize = shardSize(chunk.size());
+        byte[][] shards = new byte[getTotalShards()][shardSize];
+        for (int d = 0; d < dataShards; d++) {
+            int start = d * shardSize;
+            int length = Math.max(0, Math.min(shardSize, chunk.size() - start));
+            chunk.copyTo(shards[d], start, 0, length);
+        }
+
+        byte[][] parity = new byte[parityShards][];
+        System.arraycopy(shards, dataShards, parity, 0, parityShards);
+        mix(parityTables, shards, parity, shardSize);
+        return shards;
+    }
+
+    /**
+     * Rebuilds a chunk from any k of its shards.
+     *
+     * The shard arrays become part of the returned ByteString and must not be
+     * modified afterwards.
+     *
+     * @param shards k + m entries in shard order; null marks a missing shard
+     * @param chunkSize Size of the original chunk
+     * @return the chunk
+     * @throws IllegalArgumentException if fewer than k shards are present or their sizes differ
+     */
+    public ByteString decode(byte[][] shards, long chunkSize) {
+        if (shards.length != getTotalShards()) {
+            throw new IllegalArgumentException("Expected " + getTotalShards() + " shards, got " + shards.length);
+        }
+        int shardSize = shardSize(chunkSize);
+        int[] present = new int[dataShards];
+        int found = 0;
+        for (int i = 0; i < shards.length && found < dataShards; i++) {
+            if (shards[i] != null) {
+                if (shards[i].length != shardSize) {
+                    throw new IllegalArgumentException("Shard " + i + " has " + shards[i].length
+                            + " bytes, expected " + shardSize);
+                }
+                present[found++] = i;
+            }
+        }
+        if (found < dataShards) {
+            throw new IllegalArgumentException("Need " + dataShards + " shards to decode, only " + found + " present");
+        }
+
+        byte[][] data = new byte[dataShards][];
+        if (present[dataShards - 1] != dataShards - 1) {
+            reconstructData(shards, present, data, shardSize);
+        } else {
+            System.arraycopy(shards, 0, data, 0, dataShards);
+        }
+
+        ByteString chunk = ByteString.EMPTY;
+        for (byte[] shard : data) {
+            chunk = chunk.concat(UnsafeByteOperations.unsafeWrap(shard));
+        }
+        return chunk.substring(0, (int) chunkSize);
+    }
+
+    /**
+     * Solves for the data shards from the k present shards: their rows of the
+     * encoding matrix, inverted, map the present shards back to the data.
+     */
+    private void reconstructData(byte[][] shards, int[] present, byte[][] data, int shardSize) {
+        int[][] rows = new int[dataShards][];
+        byte[][] inputs = new byte[dataShards][];
+        for (int i = 0; i < dataShards; i++) {
+            rows[i] = encodingMatrix[present[i]];
+            inputs[i] = shards[present[i]];
+        }
+        int[][] decodingMatrix = GaloisField.invert(rows);
+
+        int missing = 0;
+        for (int d = 0; d < dataShards; d++) {
+            if (shards[d] == null) {
+                missing++;
+            }
+        }
+        byte[][][] tables = new byte[missing][dataShards][];
+        byte[][] outputs = new byte[missing][];
+        int output = 0;
+        for (int d = 0; d < dataShards; d++) {
+            if (shards[d] != null) {
+                data[d] = shards[d];
+                continue;
+            }
+            for (int c = 0; c < dataShards; c++) {
+                tables[output][c] = GaloisField.MULTIPLY[decodingMatrix[d][c]];
+            }
+            outputs[output] = new byte[shardSize];
+            data[d] = outputs[output];
+            output++;
+        }
+        mix(tables, inputs, outputs, shardSize);
+    }
+
+    /**
+     * outputs[o] = sum over c of tables[o][c] * inputs[c], byte by byte.
+     * The input loop is outside the byte loop so each pass streams through one
+     * input and one output array.
+     */
+    private static void mix(byte[][][] tables, byte[][] inputs, byte[][] outputs, int length) {
+        for (int o = 0; o < outputs.length; o++) {
+            byte[] out = outputs[o];
+            byte[] table = tables[o][0];
+            byte[] in = inputs[0];
+            for (int i = 0; i < length; i++) {
+                out[i] = table[in[i] & 0xFF];
+            }
+            for (int c = 1; c < tables[o].length; c++) {
+                table = tables[o][c];
+                in = inputs[c];
+                for (int i = 0; i < length; i++) {
+                    out[i] ^= table[in[i] & 0xFF];
+                }
+            }
+        }
+    }
+}
@@ -7,41 +7,189 @@ import java.util.*;
  * Represents how file chunks are distributed across nodes.
  * Provides a mapping of node IDs to the chunks they store.
  *
+ * Thread-safe: replicas of different chunks are recorded concurrently
+ * by the parallel distribution engine.
+ *
+ * Also records the file's layout (which chunk holds which byte range) and
+ * which chunks were not transferred because the cluster already held them.
+ * Erasure-coded chunks are placed as shards: each shard is recorded under its
+ * shard ID ({@link RedundancyScheme#shardId}) like a chunk of its own.
+ *
  * @author Your Name
- * @version 1.0
+ * @version 1.3
  */
 public class ChunkDistribution {
+
+    /**
+     * One chunk of the file, in file order.
+     */
+    public record ChunkRef(int index, String chunkId, long offset, long sizeBytes) {}
+
     private final Map<String, List<String>> nodeToChunks;
+    private final Map<String, Set<String>> chunkToNodes;
     private final String fileName;
-    private final int totalChunks;
+    private int totalChunks;
+
+    // chunkId -> (nodeId -> transfer time in ms), in completion order
+    private final Map<String, Map<String, Long>> chunkTimings;
+    // chunkId -> failure reasons of replicas that could not be stored
+    private final Map<String, List<String>> failedReplicas;
+    private final Set<String> underReplicatedChunks;
+    private final List<ChunkRef> layout;
+    private final Set<String> deduplicatedChunks;
+    // chunkId -> coding of its shards, for chunks stored erasure-coded
+    private final Map<String, RedundancyScheme> erasureCodedChunks;
+    private long layoutBytes;
+    private long distributionTimeMs;
+    private RedundancyScheme redundancy;
 
     public ChunkDistribution(String fileName, int totalChunks) {
         this.fileName = fileName;
         this.totalChunks = totalChunks;
         this.nodeToChunks = new HashMap<>();
+        this.chunkToNodes = new HashMap<>();
+        this.chunkTimings = new LinkedHashMap<>();
+        this.failedReplicas = new LinkedHashMap<>();
+        this.underReplicatedChunks = new LinkedHashSet<>();
+        this.layout = new ArrayList<>();
+        this.deduplicatedChunks = new LinkedHashSet<>();
+        this.erasureCodedChunks = new HashMap<>();
+    }
+
+    /**
+     * Appends the next chunk of the file to the layout. Called in file order.
+     */
+    public synchronized void recordLayout(String chunkId, long sizeBytes) {
+        layout.add(new ChunkRef(layout.size(), chunkId, layoutBytes, sizeBytes));
+        layoutBytes += sizeBytes;
+    }
+
+    /**
+     * Marks a chunk whose content was already stored in the cluster, so no transfer took place.
+     */
+    public synchronized void markDeduplicated(String chunkId) {
+        deduplicatedChunks.add(chunkId);
+    }
+
+    /**
+     * Marks a chunk that is stored as erasure-coded shards instead of replicas.
+     */
+    public synchronized void markErasureCoded(String chunkId, RedundancyScheme coding) {
+        erasureCodedChunks.put(chunkId, coding);
     }
 
     /**
      * Records that a chunk has been stored on a specific node.
      */
-    public void addChunkToNode(String nodeId, String chunkId) {
+    public synchronized void addChunkToNode(String nodeId, String chunkId) {
         nodeToChunks.computeIfAbsent(nodeId, k -> new ArrayList<>()).add(chunkId);
+        chunkToNodes.computeIfAbsent(chunkId, k -> new LinkedHashSet<>()).add(nodeId);
+    }
+
+    /**
+     * Records that a chunk has been stored on a node, with its transfer time.
+     */
+    public synchronized void addChunkToNode(String nodeId, String chunkId, long transferTimeMs) {
+        addChunkToNode(nodeId, chunkId);
+        chunkTimings.computeIfAbsent(chunkId, k -> new LinkedHashMap<>()).put(nodeId, transferTimeMs);
+    }
+
+    /**
+     * Records a replica transfer that failed.
+     */
+    public synchronized void recordFailedReplica(String chunkId, String nodeId, String reason) {
+        failedReplicas.computeIfAbsent(chunkId, k -> new ArrayList<>()).add(nodeId + ": " + reason);
+    }
+
+    /**
+     * Marks a chunk that ended up with fewer replicas than requested.
+     */
+    public synchronized void markUnderReplicated(String chunkId) {
+        underReplicatedChunks.add(chunkId);
     }
 
     /**
      * Returns an unmodifiable view of the distribution.
      */
-    public Map<String, List<String>> getDistribution() {
-        return Collections.unmodifiableMap(nodeToChunks);
+    public synchronized Map<String, List<String>> getDistribution() {
+        return Collections.unmodifiableMap(new HashMap<>(nodeToChunks));
+    }
+
+    /**
+     * Returns per-chunk, per-node transfer times in milliseconds.
+     */
+    public synchronized Map<String, Map<String, Long>> getChunkTimings() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(chunkTimings));
+    }
+
+    public synchronized Map<String, List<String>> getFailedReplicas() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failedReplicas));
+    }
+
+    public synchronized Set<String> getUnderReplicatedChunks() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(underReplicatedChunks));
+    }
+
+    public synchronized List<ChunkRef> getLayout() {
+        return List.copyOf(layout);
+    }
+
+    public synchronized Set<String> getDeduplicatedChunks() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(deduplicatedChunks));
+    }
+
+    /**
+     * Nodes holding a replica of the given chunk.
+     */
+    public synchronized Set<String> getReplicaNodes(String chunkId) {
+        return new LinkedHashSet<>(chunkToNodes.getOrDefault(chunkId, Set.of()));
+    }
+
+    /**
+     * Coding of a chunk's shards, or null if the chunk was not stored erasure-coded.
+     */
+    public synchronized RedundancyScheme getErasureCoding(String chunkId) {
+        return erasureCodedChunks.get(chunkId);
+    }
+
+    /**
+     * Shard index to node for an erasure-coded chunk; shards that could not be stored are absent.
+     */
+    public synchronized Map<Integer, String> getShardNodes(String chunkId) {
+        RedundancyScheme coding = erasureCodedChunks.get(chunkId);
+        Map<Integer, String> shardNodes = new LinkedHashMap<>();
+        if (coding != null) {
+            for (int shard = 0; shard < coding.nodesPerChunk(); shard++) {
+                Set<String> nodes = chunkToNodes.get(coding.shardId(chunkId, shard));
+                if (nodes != null && !nodes.isEmpty()) {
+                    shardNodes.put(shard, nodes.iterator().next());
+                }
+            }
+        }
+        return shardNodes;
     }
 
     public String getFileName() { return fileName; }
-    public int getTotalChunks() { return totalChunks; }
+    public synchronized int getTotalChunks() { return totalChunks; }
+
+    /**
+     * Sets the final chunk count, for chunkings where it is unknown up front (-1).
+     */
+    public synchronized void setTotalChunks(int totalChunks) { this.totalChunks = totalChunks; }
+    public synchronized long getDistributionTimeMs() { return distributionTimeMs; }
+
+    /**
+     * Protection the chunks were distributed with (may differ from the requested one
+     * when too few nodes were available).
+     */
+    public synchronized RedundancyScheme getRedundancy() { return redundancy; }
+    public synchronized void setRedundancy(RedundancyScheme redundancy) { this.redundancy = redundancy; }
+    public synchronized void setDistributionTimeMs(long distributionTimeMs) { this.distributionTimeMs = distributionTimeMs; }
 
     /**
      * Checks if all chunks have been distributed.
      */
-    public boolean isComplete() {
+    public synchronized boolean isComplete() {
         return nodeToChunks.values().stream()
                 .mapToInt(List::size)
                 .sum() == totalChunks;
@@ -0,0 +1,21 @@
+package org.distributed.stumatchdistributed.model;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where a chunk can be read from: nodes holding whole replicas and/or the nodes
+ * holding its erasure-coded shards.
+ *
+ * @param chunkId Content hash of the chunk
+ * @param sizeBytes Size of the chunk (shards are padded, so needed to decode)
+ * @param replicaNodes Nodes holding the whole chunk
+ * @param erasureCoding Coding of the shards, or null if the chunk is not erasure-coded
+ * @param shardNodes Shard index to the node holding that shard
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public record ChunkLocation(String chunkId, long sizeBytes, Set<String> replicaNodes,
+                            RedundancyScheme erasureCoding, Map<Integer, String> shardNodes) {
+}
@@ -1,6 +1,9 @@
 package org.distributed.stumatchdistributed.model;
 
 
+import com.google.protobuf.ByteString;
+
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -8,28 +11,44 @@ import java.util.Objects;
  * Files are decomposed into chunks for distributed storage.
  * Immutable to prevent accidental modification.
  *
+ * The data is held as an immutable {@link ByteString}, so it can be handed to gRPC
+ * (and sent to every replica) through {@link #asByteString()} without copying.
+ * {@link #getData()} still returns a private array copy for callers that need one.
+ *
  * @author Your Name
- * @version 1.0
+ * @version 1.1
  */
 public class FileChunk {
     private final String chunkId;
-    private final byte[] data;
+    private final ByteString data;
     private final long sizeBytes;
 
     /**
-     * Creates a file chunk.
+     * Creates a file chunk from an array, which is copied.
      *
      * @param chunkId Unique identifier for this chunk
      * @param data The actual chunk data
      * @throws IllegalArgumentException if chunkId is null or data is null
      */
     public FileChunk(String chunkId, byte[] data) {
+        this(chunkId, ByteString.copyFrom(Objects.requireNonNull(data, "Chunk data cannot be null")));
+    }
+
+    /**
+     * Creates a file chunk over existing data without copying it
+     * (e.g. a slice of the source file read by {@code FileChunkStream}).
+     *
+     * @param chunkId Unique identifier for this chunk
+     * @param data The actual chunk data
+     * @throws IllegalArgumentException if chunkId is null or data is null
+     */
+    public FileChunk(String chunkId, ByteString data) {
         Objects.requireNonNull(chunkId, "Chunk ID cannot be null");
         Objects.requireNonNull(data, "Chunk data cannot be null");
 
         this.chunkId = chunkId;
-        this.data = data.clone(); // Defensive copy
-        this.sizeBytes = data.length;
+        this.data = data;
+        this.sizeBytes = data.size();
     }
 
     public String getChunkId() { return chunkId; }
@@ -39,7 +58,21 @@ public class FileChunk {
      * Returns a defensive copy of the data to maintain immutability.
      */
     public byte[] getData() {
-        return data.clone();
+        return data.toByteArray();
+    }
+
+    /**
+     * Returns the data without copying, e.g. to build gRPC messages.
+     */
+    public ByteString asByteString() {
+        return data;
+    }
+
+    /**
+     * Returns a read-only view of the data without copying.
+     */
+    public ByteBuffer asReadOnlyByteBuffer() {
+        return data.asReadOnlyByteBuffer();
     }
 
     @Override
@@ -47,4 +80,3 @@ public class FileChunk {
         return String.format("FileChunk{id='%s', size=%d bytes}", chunkId, sizeBytes);
     }
 }
-
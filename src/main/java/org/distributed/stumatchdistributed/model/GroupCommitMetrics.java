@@ -0,0 +1,30 @@
+package org.distributed.stumatchdistributed.model;
+
+/**
+ * Group commit statistics reported by a storage node, for tuning its batching window.
+ * Percentiles come from power-of-two histogram buckets, so they are upper bounds.
+ *
+ * @param windowMicros How long a batch waits for more writes
+ * @param maxBatchBytes Batch size that forces a batch early
+ * @param forces Number of forces issued
+ * @param batchCommits Writes sharing each force
+ * @param batchBytes Bytes covered by each force
+ * @param commitLatencyMicros Time a write waited for its force
+ * @param forceMicros Duration of each force
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public record GroupCommitMetrics(long windowMicros,
+                                 long maxBatchBytes,
+                                 long forces,
+                                 Summary batchCommits,
+                                 Summary batchBytes,
+                                 Summary commitLatencyMicros,
+                                 Summary forceMicros) {
+
+    /**
+     * Summary of one histogram.
+     */
+    public record Summary(long count, double mean, long p50, long p99, long max) {}
+}
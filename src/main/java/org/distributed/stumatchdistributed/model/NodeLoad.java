@@ -0,0 +1,72 @@
+package org.distributed.stumatchdistributed.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live transfer load of one storage node, as seen by the coordinator.
+ *
+ * - In-flight: chunk transfers started and not yet finished
+ * - Latency: exponentially weighted moving average (EWMA) of transfer times,
+ *   so a node that turns slow is noticed within a few transfers
+ *
+ * Updated from every transfer thread; all methods are lock-free.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class NodeLoad {
+
+    /** Weight of the newest sample in the latency average. */
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Double bits of the EWMA; NaN until the first sample
+    private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+
+    public void transferStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * @param latencyMs Time the transfer took, including failed ones (a timeout is slow)
+     * @param success Whether the node stored the chunk
+     */
+    public void transferFinished(long latencyMs, boolean success) {
+        inFlight.decrementAndGet();
+        (success ? completed : failed).incrementAndGet();
+        ewmaLatencyBits.getAndUpdate(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            double next = Double.isNaN(current)
+                    ? latencyMs
+                    : current + EWMA_ALPHA * (latencyMs - current);
+            return Double.doubleToLongBits(next);
+        });
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Smoothed transfer latency in milliseconds, or NaN if no transfer finished yet
+     */
+    public double getEwmaLatencyMs() {
+        return Double.longBitsToDouble(ewmaLatencyBits.get());
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NodeLoad{inFlight=%d, ewmaLatency=%.1fms}", getInFlight(), getEwmaLatencyMs());
+    }
+}
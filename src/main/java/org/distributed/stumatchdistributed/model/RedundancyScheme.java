@@ -0,0 +1,84 @@
+package org.distributed.stumatchdistributed.model;
+
+/**
+ * How a file's chunks are protected against node loss.
+ *
+ * - Replication: every chunk is stored whole on {@code replicas} distinct nodes
+ * - Erasure coding: every chunk is cut into {@code dataShards} shards plus
+ *   {@code parityShards} Reed-Solomon parity shards on distinct nodes; any
+ *   {@code dataShards} of them rebuild the chunk
+ *
+ * @param mode Protection kind
+ * @param replicas Copies per chunk (replication only)
+ * @param dataShards k (erasure coding only)
+ * @param parityShards m (erasure coding only)
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public record RedundancyScheme(Mode mode, int replicas, int dataShards, int parityShards) {
+
+    public enum Mode {
+        /** Whole copies of each chunk. */
+        REPLICATION,
+        /** Reed-Solomon data + parity shards of each chunk. */
+        ERASURE_CODING
+    }
+
+    public RedundancyScheme {
+        if (mode == Mode.REPLICATION && replicas < 1) {
+            throw new IllegalArgumentException("Replication needs at least one replica");
+        }
+        if (mode == Mode.ERASURE_CODING && (dataShards < 1 || parityShards < 1)) {
+            throw new IllegalArgumentException("Erasure coding needs at least one data and one parity shard");
+        }
+    }
+
+    public static RedundancyScheme replication(int replicas) {
+        return new RedundancyScheme(Mode.REPLICATION, replicas, 0, 0);
+    }
+
+    public static RedundancyScheme erasureCoded(int dataShards, int parityShards) {
+        return new RedundancyScheme(Mode.ERASURE_CODING, 0, dataShards, parityShards);
+    }
+
+    public boolean isErasureCoded() {
+        return mode == Mode.ERASURE_CODING;
+    }
+
+    /**
+     * Distinct nodes needed to place one chunk.
+     */
+    public int nodesPerChunk() {
+        return isErasureCoded() ? dataShards + parityShards : replicas;
+    }
+
+    /**
+     * Raw bytes stored per byte of data (2.0 for two replicas, 1.5 for 4 + 2).
+     */
+    public double storageOverhead() {
+        return isErasureCoded() ? (dataShards + parityShards) / (double) dataShards : replicas;
+    }
+
+    /**
+     * Node losses every chunk survives.
+     */
+    public int toleratedFailures() {
+        return isErasureCoded() ? parityShards : replicas - 1;
+    }
+
+    /**
+     * Chunk ID under which a node stores one shard of a chunk.
+     * Includes k and m, since the same content coded differently gives different shards.
+     */
+    public String shardId(String chunkId, int shardIndex) {
+        return chunkId + ".rs" + dataShards + "-" + parityShards + "." + shardIndex;
+    }
+
+    @Override
+    public String toString() {
+        return isErasureCoded()
+                ? "RS(" + dataShards + "+" + parityShards + ")"
+                : replicas + "x replication";
+    }
+}
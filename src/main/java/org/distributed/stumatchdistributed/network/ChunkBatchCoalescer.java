@@ -0,0 +1,203 @@
+package org.distributed.stumatchdistributed.network;
+
+import com.google.protobuf.ByteString;
+import io.grpc.stub.StreamObserver;
+import org.distributed.stumatchdistributed.grpc.NodeServiceGrpc;
+import org.distributed.stumatchdistributed.grpc.StoreChunkRequest;
+import org.distributed.stumatchdistributed.grpc.StoreChunkResponse;
+import org.distributed.stumatchdistributed.grpc.StoreChunksBatchRequest;
+import org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Client side of the StoreChunksBatch RPC: coalesces small chunks bound for the
+ * same node into one call.
+ *
+ * Small files become a single small chunk each. Sent one call per replica, every
+ * chunk pays a round trip and the node's per-write overhead. Instead:
+ * - The first chunk for a node opens a batch and starts a window of {@code windowMicros}
+ * - Chunks for the same node arriving within the window join that batch
+ * - The batch is sent when the window closes, or as soon as it reaches
+ *   {@code maxBatchChunks} chunks or {@code maxBatchBytes} bytes
+ * - Each chunk's future completes with its own result from the node's response
+ *
+ * A chunk waits at most one window before it is sent, so an idle coordinator
+ * adds that much latency and nothing more. Batches are kept below the default
+ * 4 MB gRPC message size by {@code maxBatchBytes}.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class ChunkBatchCoalescer {
+    private static final Logger log = LoggerFactory.getLogger(ChunkBatchCoalescer.class);
+
+    /**
+     * Chunks waiting for one node. Mutated only under the coalescer's lock
+     * until it is removed from {@code open} and sent.
+     */
+    private static final class Batch {
+        final String nodeId;
+        final List<StoreChunkRequest> chunks = new ArrayList<>();
+        final List<CompletableFuture<StoreChunkResponse>> results = new ArrayList<>();
+        long bytes;
+
+        Batch(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    private final Function<String, NodeServiceGrpc.NodeServiceStub> stubs;
+    private final long windowMicros;
+    private final int maxBatchChunks;
+    private final long maxBatchBytes;
+    private final long deadlineSeconds;
+    private final ScheduledExecutorService windowTimer;
+
+    // node ID -> batch still accepting chunks (guarded by this)
+    private final Map<String, Batch> open = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * @param stubs Async stub of a node, or null if the node left the network
+     * @param windowMicros How long the first chunk of a batch waits for others
+     * @param maxBatchChunks Chunks that make a batch full
+     * @param maxBatchBytes Bytes that make a batch full
+     * @param deadlineSeconds Deadline of each batch call
+     */
+    ChunkBatchCoalescer(Function<String, NodeServiceGrpc.NodeServiceStub> stubs, long windowMicros,
+                        int maxBatchChunks, long maxBatchBytes, long deadlineSeconds) {
+        this.stubs = stubs;
+        this.windowMicros = windowMicros;
+        this.maxBatchChunks = maxBatchChunks;
+        this.maxBatchBytes = maxBatchBytes;
+        this.deadlineSeconds = deadlineSeconds;
+        this.windowTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chunk-batch-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a chunk for the next batch to a node.
+     *
+     * @return Future completed with the node's result for this chunk, or
+     *         exceptionally if the batch call failed
+     */
+    CompletableFuture<StoreChunkResponse> submit(String nodeId, String chunkId, ByteString data) {
+        CompletableFuture<StoreChunkResponse> result = new CompletableFuture<>();
+        Batch full = null;
+
+        synchronized (this) {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Network controller shut down"));
+                return result;
+            }
+            Batch batch = open.get(nodeId);
+            if (batch == null) {
+                batch = new Batch(nodeId);
+                open.put(nodeId, batch);
+                Batch windowed = batch;
+                windowTimer.schedule(() -> flush(windowed), windowMicros, TimeUnit.MICROSECONDS);
+            }
+            batch.chunks.add(StoreChunkRequest.newBuilder()
+                    .setChunkId(chunkId)
+                    .setData(data)
+                    .setSize(data.size())
+                    .build());
+            batch.results.add(result);
+            batch.bytes += data.size();
+
+            if (batch.chunks.size() >= maxBatchChunks || batch.bytes >= maxBatchBytes) {
+                open.remove(nodeId);
+                full = batch;
+            }
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        return result;
+    }
+
+    /**
+     * Fails the chunks still waiting for a window and stops the timer.
+     */
+    void shutdown() {
+        List<Batch> pending;
+        synchronized (this) {
+            closed = true;
+            pending = new ArrayList<>(open.values());
+            open.clear();
+        }
+        windowTimer.shutdownNow();
+        pending.forEach(batch -> fail(batch, 0, new IllegalStateException("Network controller shut down")));
+    }
+
+    /**
+     * Sends a batch whose window closed, unless it was already sent because it filled up.
+     */
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (!open.remove(batch.nodeId, batch)) {
+                return;
+            }
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        NodeServiceGrpc.NodeServiceStub stub = stubs.apply(batch.nodeId);
+        if (stub == null) {
+            fail(batch, 0, new IllegalStateException("Node left the network: " + batch.nodeId));
+            return;
+        }
+
+        log.debug("📦 Sending batch of {} chunk(s) ({} bytes) to {}", batch.chunks.size(), batch.bytes, batch.nodeId);
+        StoreChunksBatchRequest request = StoreChunksBatchRequest.newBuilder()
+                .addAllChunks(batch.chunks)
+                .build();
+
+        stub.withDeadlineAfter(deadlineSeconds, TimeUnit.SECONDS)
+                .storeChunksBatch(request, new StreamObserver<>() {
+                    @Override
+                    public void onNext(StoreChunksBatchResponse response) {
+                        int answered = Math.min(response.getResultsCount(), batch.results.size());
+                        for (int i = 0; i < answered; i++) {
+                            batch.results.get(i).complete(response.getResults(i));
+                        }
+                        fail(batch, answered, new IllegalStateException(
+                                "Node " + batch.nodeId + " returned no result for the chunk"));
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        fail(batch, 0, error);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+    }
+
+    /**
+     * Fails the chunks of a batch from {@code from} on (completed ones are left as they are).
+     */
+    private static void fail(Batch batch, int from, Throwable error) {
+        for (int i = from; i < batch.results.size(); i++) {
+            batch.results.get(i).completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.distributed.stumatchdistributed.network;
+
+import java.util.Set;
+
+/**
+ * Lookup of chunks that are already stored in the cluster, by content hash.
+ * Consulted by {@link NetworkController#distributeFile} so identical content is
+ * transferred and stored only once.
+ *
+ * @author Your Name
+ * @version 1.1
+ */
+@FunctionalInterface
+public interface ChunkIndex {
+
+    /** Index that knows no chunks: every chunk is transferred. */
+    ChunkIndex EMPTY = chunkId -> Set.of();
+
+    /**
+     * @param chunkId Content hash of the chunk
+     * @return Nodes holding a replica of the chunk, or holding its shards if it is
+     *         only stored erasure-coded; an empty set if it is not stored yet
+     */
+    Set<String> locate(String chunkId);
+
+    /**
+     * How many of the nodes returned by {@link #locate} must be live to read the
+     * chunk: 1 for replicas, k for an erasure-coded chunk.
+     */
+    default int readQuorum(String chunkId) {
+        return 1;
+    }
+}
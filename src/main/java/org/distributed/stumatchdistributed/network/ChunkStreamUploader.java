@@ -0,0 +1,103 @@
+package org.distributed.stumatchdistributed.network;
+
+import com.google.protobuf.ByteString;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.distributed.stumatchdistributed.grpc.ChunkFrame;
+import org.distributed.stumatchdistributed.grpc.NodeServiceGrpc;
+import org.distributed.stumatchdistributed.grpc.StoreChunkResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client side of the StoreChunkStream RPC.
+ *
+ * Sends a chunk as a sequence of fixed-size frames. Frames are substrings of the
+ * chunk's ByteString (no copy) and are only produced while the transport reports
+ * the stream as ready, so gRPC never buffers more than a few frames per call.
+ * Because no single message carries the whole chunk, chunk sizes are no longer
+ * limited by the default 4 MB gRPC message size.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class ChunkStreamUploader implements ClientResponseObserver<ChunkFrame, StoreChunkResponse> {
+
+    /** Size of each frame on the wire. */
+    static final int FRAME_SIZE_BYTES = 256 * 1024;
+
+    private final String chunkId;
+    private final ByteString data;
+    private final CompletableFuture<StoreChunkResponse> result = new CompletableFuture<>();
+
+    private ClientCallStreamObserver<ChunkFrame> requestStream;
+    private int offset;
+    private boolean halfClosed;
+
+    private ChunkStreamUploader(String chunkId, ByteString data) {
+        this.chunkId = chunkId;
+        this.data = data;
+    }
+
+    /**
+     * Starts streaming a chunk to a node.
+     *
+     * @param stub Async stub of the target node
+     * @param chunkId Chunk identifier
+     * @param data Chunk data
+     * @return Future completed with the node's response
+     */
+    static CompletableFuture<StoreChunkResponse> upload(NodeServiceGrpc.NodeServiceStub stub,
+                                                        String chunkId, ByteString data) {
+        ChunkStreamUploader uploader = new ChunkStreamUploader(chunkId, data);
+        stub.storeChunkStream(uploader);
+        return uploader.result;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<ChunkFrame> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.setOnReadyHandler(this::sendFrames);
+    }
+
+    /**
+     * Sends frames until the transport pushes back or the chunk is exhausted.
+     * Called by gRPC whenever the stream becomes ready again.
+     */
+    private synchronized void sendFrames() {
+        while (!halfClosed && requestStream.isReady()) {
+            int end = Math.min(offset + FRAME_SIZE_BYTES, data.size());
+
+            requestStream.onNext(ChunkFrame.newBuilder()
+                    .setChunkId(chunkId)
+                    .setOffset(offset)
+                    .setData(data.substring(offset, end))
+                    .setTotalSize(data.size())
+                    .build());
+            offset = end;
+
+            if (offset >= data.size()) {
+                halfClosed = true;
+                requestStream.onCompleted();
+            }
+        }
+    }
+
+    @Override
+    public void onNext(StoreChunkResponse response) {
+        result.complete(response);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        result.completeExceptionally(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        if (!result.isDone()) {
+            result.completeExceptionally(new IllegalStateException(
+                    "Node closed chunk stream for " + chunkId + " without a response"));
+        }
+    }
+}
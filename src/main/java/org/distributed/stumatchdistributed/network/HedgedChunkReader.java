@@ -0,0 +1,254 @@
+package org.distributed.stumatchdistributed.network;
+
+import com.google.protobuf.ByteString;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Reads a chunk from one of its replicas with hedging, so a slow node does not
+ * set the latency of every read that happens to start on it.
+ *
+ * Per read:
+ * 1. Ask the first replica
+ * 2. If it has not answered within its hedge delay, also ask the next replica
+ * 3. Take the first complete answer and cancel the other request
+ * 4. A replica that fails is replaced by the next one right away, without waiting
+ *
+ * Hedge delay: the p95 of the node's recent read latencies, so only the slowest
+ * ~5% of reads to a healthy node are hedged and a node that slows down is hedged
+ * sooner. Recent samples are kept per node (a sliding window rather than the
+ * cumulative node histograms, so the delay follows the node's current state).
+ * Cancelled requests count with the time they ran, which is a lower bound of
+ * their latency.
+ *
+ * Budget: hedges are capped at {@code maxHedgeFraction} of reads, so a cluster
+ * that is slow everywhere does not get twice the read load on top.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class HedgedChunkReader {
+
+    /** Recent reads per node that the hedge delay is computed from. */
+    private static final int LATENCY_WINDOW = 256;
+    /** Reads of a node needed before its own p95 is trusted. */
+    private static final int MIN_SAMPLES = 16;
+    /** Hedges allowed before the budget applies, so the first slow reads are hedged too. */
+    private static final int HEDGE_BURST = 10;
+
+    /**
+     * Recent read latencies of one node, in a ring buffer.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private int count;
+        private int next;
+
+        synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * @return the percentile in milliseconds, or -1 with too few samples
+         */
+        synchronized long percentile(double fraction) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(count * fraction) - 1)];
+        }
+    }
+
+    private final BiFunction<String, String, ByteString> fetch;
+    private final ExecutorService readPool;
+    private final long defaultDelayMs;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double maxHedgeFraction;
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * @param fetch Reads a whole chunk from a node: (node ID, chunk ID) to data, or null on failure.
+     *              Must stop when its thread is interrupted.
+     * @param maxConcurrentReads Read threads shared by all hedged reads
+     * @param defaultDelayMs Hedge delay of a node with too few samples
+     * @param minDelayMs Lower bound of the hedge delay
+     * @param maxDelayMs Upper bound of the hedge delay
+     * @param maxHedgeFraction Largest share of reads that may be hedged
+     */
+    HedgedChunkReader(BiFunction<String, String, ByteString> fetch, int maxConcurrentReads,
+                      long defaultDelayMs, long minDelayMs, long maxDelayMs, double maxHedgeFraction) {
+        this.fetch = fetch;
+        this.defaultDelayMs = defaultDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxHedgeFraction = maxHedgeFraction;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.readPool = Executors.newFixedThreadPool(maxConcurrentReads, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-read-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A request to one replica that is still running.
+     */
+    private record Attempt(String nodeId, long startNanos, Future<ByteString> future) {}
+
+    /**
+     * Reads a chunk from the first replica that delivers it in full.
+     *
+     * @param replicas Nodes holding the chunk, in the order to try them
+     * @param chunkId Chunk to read
+     * @param expectedSize Size of the chunk; shorter or longer answers count as failures
+     * @return the data, or null if no replica delivered it
+     */
+    ByteString read(List<String> replicas, String chunkId, long expectedSize) {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        reads.incrementAndGet();
+        CompletionService<ByteString> completions = new ExecutorCompletionService<>(readPool);
+        Map<Future<ByteString>, Attempt> running = new HashMap<>();
+        int next = 0;
+        boolean hedged = false;
+
+        try {
+            Attempt primary = start(completions, replicas.get(next++), chunkId);
+            running.put(primary.future(), primary);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hedgeDelayMs(primary.nodeId()));
+
+            while (!running.isEmpty()) {
+                boolean canHedge = !hedged && next < replicas.size();
+                Future<ByteString> done = canHedge
+                        ? completions.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : completions.take();
+
+                if (done == null) {
+                    // Primary is past its p95: hedge to the next replica if the budget allows
+                    hedged = true;
+                    if (tryAcquireHedge()) {
+                        Attempt hedge = start(completions, replicas.get(next++), chunkId);
+                        running.put(hedge.future(), hedge);
+                    }
+                    continue;
+                }
+
+                Attempt attempt = running.remove(done);
+                ByteString data = result(done);
+                if (data != null && data.size() == expectedSize) {
+                    record(attempt);
+                    if (hedged && attempt != primary) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    return data;
+                }
+                // Failed replica: replace it right away
+                if (next < replicas.size()) {
+                    Attempt replacement = start(completions, replicas.get(next++), chunkId);
+                    running.put(replacement.future(), replacement);
+                    if (!hedged) {
+                        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hedgeDelayMs(replacement.nodeId()));
+                    }
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            // Losers: cancel (interrupting cancels their RPC) and count the time they ran
+            for (Attempt attempt : running.values()) {
+                attempt.future().cancel(true);
+                record(attempt);
+            }
+        }
+    }
+
+    /**
+     * Hedge delay for a read whose first request went to the given node.
+     */
+    long hedgeDelayMs(String nodeId) {
+        LatencyWindow window = latencies.get(nodeId);
+        long p95 = window != null ? window.percentile(0.95) : -1;
+        return Math.max(minDelayMs, Math.min(maxDelayMs, p95 >= 0 ? p95 : defaultDelayMs));
+    }
+
+    /**
+     * Read counters and current hedge delays, for the network metrics.
+     */
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("reads", reads.get());
+        stats.put("hedges", hedges.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        Map<String, Long> delays = new HashMap<>();
+        latencies.keySet().forEach(nodeId -> delays.put(nodeId, hedgeDelayMs(nodeId)));
+        stats.put("hedgeDelayMs", delays);
+        return stats;
+    }
+
+    void forgetNode(String nodeId) {
+        latencies.remove(nodeId);
+    }
+
+    void shutdown() {
+        readPool.shutdownNow();
+    }
+
+    private Attempt start(CompletionService<ByteString> completions, String nodeId, String chunkId) {
+        return new Attempt(nodeId, System.nanoTime(), completions.submit(() -> fetch.apply(nodeId, chunkId)));
+    }
+
+    private boolean tryAcquireHedge() {
+        while (true) {
+            long issued = hedges.get();
+            if (issued >= HEDGE_BURST + reads.get() * maxHedgeFraction) {
+                return false;
+            }
+            if (hedges.compareAndSet(issued, issued + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void record(Attempt attempt) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - attempt.startNanos());
+        latencies.computeIfAbsent(attempt.nodeId(), id -> new LatencyWindow()).record(latencyMs);
+    }
+
+    private static ByteString result(Future<ByteString> done) {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
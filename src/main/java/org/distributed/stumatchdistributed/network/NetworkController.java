@@ -1,12 +1,17 @@
 package org.distributed.stumatchdistributed.network;
 
 import jakarta.annotation.PreDestroy;
+import org.distributed.stumatchdistributed.erasure.ReedSolomonCodec;
 import org.distributed.stumatchdistributed.model.ChunkDistribution;
+import org.distributed.stumatchdistributed.model.ChunkLocation;
 import org.distributed.stumatchdistributed.model.FileChunk;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+import org.distributed.stumatchdistributed.service.FileChunkStream;
 import org.distributed.stumatchdistributed.service.FileDecompositionService;
 import org.distributed.stumatchdistributed.service.LoadBalancingService;
 import org.distributed.stumatchdistributed.service.StorageMetricsService;
 import com.google.protobuf.ByteString;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import org.slf4j.Logger;
@@ -14,10 +19,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 
 /**
  * Coordinates the distributed storage network.
@@ -41,11 +49,52 @@ public class NetworkController {
     private static final Logger log = LoggerFactory.getLogger(NetworkController.class);
 
     // Registry of connected nodes (thread-safe)
-    private final Map<String, NodeConnection> nodes = new HashMap<>();
+    private final Map<String, NodeConnection> nodes = new ConcurrentHashMap<>();
     
     // Track node registration times for grace period
-    private final Map<String, Long> nodeRegistrationTimes = new HashMap<>();
+    private final Map<String, Long> nodeRegistrationTimes = new ConcurrentHashMap<>();
     private static final long GRACE_PERIOD_MS = 10000; // 10 seconds grace period for new nodes
+    private static final long TRANSFER_DEADLINE_SECONDS = 120; // Upper bound for one chunk stream
+    private static final int DEFAULT_REPLICATION_FACTOR = 2;     // 2x replication for fault tolerance
+
+    // Parallel distribution limits
+    private static final int MAX_CONCURRENT_TRANSFERS = 16;   // Transfer threads shared by all uploads
+    private static final int MAX_CHUNKS_IN_FLIGHT = 8;        // Chunks of one file being replicated at once
+    private static final int MAX_TRANSFERS_PER_NODE = 4;      // Concurrent streams to a single node
+    private static final int MAX_ATTEMPTS_PER_REPLICA = 3;    // Nodes tried before a replica is given up
+
+    // Small-chunk batching (StoreChunksBatch): chunks up to this size are coalesced per node
+    private static final int BATCHED_CHUNK_MAX_BYTES = 256 * 1024;
+    private static final long BATCH_WINDOW_MICROS = 2000;      // How long a batch waits for more chunks
+    private static final int MAX_BATCH_CHUNKS = 128;
+    private static final long MAX_BATCH_BYTES = 3 * 1024 * 1024; // Stays below the 4 MB gRPC message limit
+
+    // Parallel download limits
+    private static final int MAX_CONCURRENT_FETCHES = 16;     // Fetch threads shared by all downloads
+    private static final int MAX_CHUNKS_AHEAD = 8;            // Chunks of one file prefetched (and held) at once
+
+    // Hedged replica reads: a second replica is asked once the first is past its p95
+    private static final int MAX_CONCURRENT_READS = 2 * MAX_CONCURRENT_FETCHES; // Room for one hedge per fetch
+    private static final long DEFAULT_HEDGE_DELAY_MS = 50;    // Until a node has enough latency samples
+    private static final long MIN_HEDGE_DELAY_MS = 5;
+    private static final long MAX_HEDGE_DELAY_MS = 2000;
+    private static final double MAX_HEDGE_FRACTION = 0.1;     // At most 10% extra read load
+
+    private final ParallelChunkDistributor distributor = new ParallelChunkDistributor(
+            MAX_CONCURRENT_TRANSFERS, MAX_CHUNKS_IN_FLIGHT, MAX_TRANSFERS_PER_NODE, MAX_ATTEMPTS_PER_REPLICA,
+            BATCHED_CHUNK_MAX_BYTES);
+
+    private final ChunkBatchCoalescer batchCoalescer = new ChunkBatchCoalescer(
+            nodeId -> {
+                NodeConnection connection = nodes.get(nodeId);
+                return connection != null ? connection.getAsyncStub() : null;
+            },
+            BATCH_WINDOW_MICROS, MAX_BATCH_CHUNKS, MAX_BATCH_BYTES, TRANSFER_DEADLINE_SECONDS);
+
+    private final ParallelChunkReader reader = new ParallelChunkReader(MAX_CONCURRENT_FETCHES, MAX_CHUNKS_AHEAD);
+
+    private final HedgedChunkReader hedgedReader = new HedgedChunkReader(this::fetchChunk, MAX_CONCURRENT_READS,
+            DEFAULT_HEDGE_DELAY_MS, MIN_HEDGE_DELAY_MS, MAX_HEDGE_DELAY_MS, MAX_HEDGE_FRACTION);
 
     // Injected services (dependency injection)
     private final FileDecompositionService decompositionService;
@@ -112,8 +161,8 @@ public class NetworkController {
      * Process:
      * 1. Decompose file into chunks
      * 2. Select nodes using load balancing
-     * 3. Transfer chunks via gRPC to MULTIPLE nodes (replication)
-     * 4. Track distribution
+     * 3. Transfer chunks via gRPC to MULTIPLE nodes (replication), in parallel
+     * 4. Track distribution, per-chunk timings and failed replicas
      *
      * @param filePath Path to file to distribute
      * @param chunkSizeMB Size of each chunk in MB
@@ -121,110 +170,268 @@ public class NetworkController {
      * @throws Exception if distribution fails
      */
     public ChunkDistribution distributeFile(Path filePath, int chunkSizeMB) throws Exception {
-        final int REPLICATION_FACTOR = 2; // 2x replication for fault tolerance
-        
+        return distributeFile(filePath, chunkSizeMB, ChunkIndex.EMPTY);
+    }
+
+    /**
+     * Distributes a file, skipping chunks the cluster already holds.
+     *
+     * Chunks are identified by content hash. A chunk found in the index on at least
+     * one registered node is recorded with its existing replicas and marked as
+     * deduplicated instead of being transferred again; a chunk repeated within the
+     * file is only transferred once.
+     *
+     * @param filePath Path to file to distribute
+     * @param chunkSizeMB Size of each chunk in MB
+     * @param chunkIndex Chunks already stored in the cluster
+     * @return Distribution map showing which chunks went where
+     * @throws Exception if distribution fails
+     */
+    public ChunkDistribution distributeFile(Path filePath, int chunkSizeMB, ChunkIndex chunkIndex) throws Exception {
+        return distributeFile(filePath, chunkSizeMB, chunkIndex, RedundancyScheme.replication(DEFAULT_REPLICATION_FACTOR));
+    }
+
+    /**
+     * Distributes a file with the given protection: whole replicas of each chunk,
+     * or Reed-Solomon shards of each chunk on distinct nodes.
+     *
+     * Erasure coding needs k + m registered nodes; with fewer, the file is
+     * replicated instead. The scheme actually used is recorded in the distribution.
+     *
+     * @param filePath Path to file to distribute
+     * @param chunkSizeMB Size of each chunk in MB
+     * @param chunkIndex Chunks already stored in the cluster
+     * @param redundancy Requested protection
+     * @return Distribution map showing which chunks (or shards) went where
+     * @throws Exception if distribution fails
+     */
+    public ChunkDistribution distributeFile(Path filePath, int chunkSizeMB, ChunkIndex chunkIndex,
+                                            RedundancyScheme redundancy) throws Exception {
+        return distributeFile(filePath, chunkSizeMB, chunkIndex, redundancy,
+                new ChunkDistribution(filePath.getFileName().toString(), -1));
+    }
+
+    /**
+     * Distributes a file into a tracker supplied by the caller. If the distribution
+     * fails, the tracker still holds every chunk (or shard) that was stored, so the
+     * caller can account for them.
+     *
+     * @param filePath Path to file to distribute
+     * @param chunkSizeMB Size of each chunk in MB
+     * @param chunkIndex Chunks already stored in the cluster
+     * @param redundancy Requested protection
+     * @param distribution Tracker receiving the layout and placements
+     * @return the completed tracker
+     * @throws Exception if distribution fails
+     */
+    public ChunkDistribution distributeFile(Path filePath, int chunkSizeMB, ChunkIndex chunkIndex,
+                                            RedundancyScheme redundancy, ChunkDistribution distribution) throws Exception {
         log.info("═══════════════════════════════════════════════════════");
         log.info("Starting file distribution: {}", filePath.getFileName());
-        log.info("Replication factor: {}x (fault-tolerant)", REPLICATION_FACTOR);
+        log.info("Redundancy: {} ({}x storage, fault-tolerant)", redundancy, redundancy.storageOverhead());
         log.info("═══════════════════════════════════════════════════════");
 
-        // Step 1: Decompose file (delegation to service)
-        List<FileChunk> chunks = decompositionService.decomposeFile(filePath, chunkSizeMB);
-        log.info("File decomposed into {} chunks", chunks.size());
+        // Step 1: Open a lazy chunk stream (delegation to service); chunks are read
+        // from disk only as the distribution pipeline has room for them
+        try (FileChunkStream chunks = decompositionService.streamChunks(filePath, chunkSizeMB)) {
+            if (chunks.getTotalChunks() >= 0) {
+                log.info("File will be decomposed into {} chunks", chunks.getTotalChunks());
+            } else {
+                log.info("File will be decomposed into content-defined chunks");
+            }
 
-        // Step 2: Create distribution tracker
-        ChunkDistribution distribution = new ChunkDistribution(
-                filePath.getFileName().toString(),
-                chunks.size()
-        );
+            // Step 2: Size the distribution tracker
+            distribution.setTotalChunks(chunks.getTotalChunks());
 
+            distributeChunks(chunks, distribution, redundancy, chunkIndex);
+
+            // Content-defined chunk counts are only known once the whole file was read
+            distribution.setTotalChunks(chunks.getChunksProduced());
+            return distribution;
+        } catch (java.io.UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Replicates a stream of chunks across the registered nodes.
+     *
+     * @param chunks Chunks in file order, consumed lazily
+     * @param distribution Tracker for the file being distributed
+     * @param redundancy Requested protection of each chunk
+     * @param chunkIndex Chunks already stored in the cluster
+     * @return The completed distribution
+     */
+    private ChunkDistribution distributeChunks(Iterator<FileChunk> chunks, ChunkDistribution distribution,
+                                               RedundancyScheme redundancy, ChunkIndex chunkIndex) throws Exception {
         // Step 3: Get available nodes
         List<String> availableNodes = new ArrayList<>(nodes.keySet());
         if (availableNodes.isEmpty()) {
             throw new IllegalStateException("No nodes available for storage");
         }
 
-        // Check if we have enough nodes for replication
-        int effectiveReplicationFactor = Math.min(REPLICATION_FACTOR, availableNodes.size());
-        if (effectiveReplicationFactor < REPLICATION_FACTOR) {
+        // Check if we have enough nodes for the requested protection
+        RedundancyScheme effectiveRedundancy = redundancy;
+        if (redundancy.isErasureCoded() && availableNodes.size() < redundancy.nodesPerChunk()) {
+            log.warn("⚠️ {} needs {} nodes, only {} available. Falling back to {}x replication",
+                    redundancy, redundancy.nodesPerChunk(), availableNodes.size(), DEFAULT_REPLICATION_FACTOR);
+            effectiveRedundancy = RedundancyScheme.replication(DEFAULT_REPLICATION_FACTOR);
+        }
+        if (!effectiveRedundancy.isErasureCoded() && availableNodes.size() < effectiveRedundancy.replicas()) {
             log.warn("⚠️ Only {} nodes available. Replication factor reduced to {}x",
-                    availableNodes.size(), effectiveReplicationFactor);
+                    availableNodes.size(), availableNodes.size());
+            effectiveRedundancy = RedundancyScheme.replication(availableNodes.size());
         }
+        distribution.setRedundancy(effectiveRedundancy);
 
-        log.info("Distributing across {} nodes with {}x replication", 
-                availableNodes.size(), effectiveReplicationFactor);
+        log.info("Distributing across {} nodes with {}", availableNodes.size(), effectiveRedundancy);
         log.info("───────────────────────────────────────────────────────");
 
-        // Step 4: Distribute each chunk with replication
-        long totalTransferTime = 0;
-
-        for (int i = 0; i < chunks.size(); i++) {
-            FileChunk chunk = chunks.get(i);
-            List<String> selectedNodes = new ArrayList<>();
 
-            log.info("Chunk {}/{}: {} → Replicating to {} nodes...",
-                    i + 1, chunks.size(), chunk.getChunkId(), effectiveReplicationFactor);
-
-            // Replicate chunk to multiple nodes
-            for (int replica = 0; replica < effectiveReplicationFactor; replica++) {
-                // Select a different node for each replica
-                String targetNodeId = selectNodeForReplica(availableNodes, selectedNodes);
-                selectedNodes.add(targetNodeId);
-                
-                NodeConnection targetNode = nodes.get(targetNodeId);
-
-                log.info("  Replica {}/{}: {} → {}",
-                        replica + 1, effectiveReplicationFactor, chunk.getChunkId(), targetNodeId);
-
-                // Transfer chunk via gRPC
-                long transferTime = transferChunk(targetNode, chunk);
-                totalTransferTime += transferTime;
-
-                // Record distribution
-                distribution.addChunkToNode(targetNodeId, chunk.getChunkId());
+        // Step 4: Distribute chunks in parallel (replicas fan out, several chunks in flight)
+        long startTime = System.currentTimeMillis();
 
-                log.info("    ✓ Transferred in {} ms", transferTime);
-            }
-            
-            log.info("  ✅ Chunk {} replicated to {} nodes: {}", 
-                    chunk.getChunkId(), selectedNodes.size(), selectedNodes);
+        // Only read by the producer thread, which feeds chunks in file order
+        Set<String> seenInFile = new HashSet<>();
+        RedundancyScheme scheme = effectiveRedundancy;
+        if (scheme.isErasureCoded()) {
+            distributeShards(chunks, distribution, scheme, chunkIndex, seenInFile);
+        } else {
+            distributor.distribute(chunks, scheme.replicas(), distribution,
+                    chunk -> needsTransfer(chunk, distribution, scheme, chunkIndex, seenInFile),
+                    this::selectReplicaTarget, this::transferChunk);
         }
 
+        long elapsed = System.currentTimeMillis() - startTime;
+        distribution.setDistributionTimeMs(elapsed);
+        long totalTransferTime = distribution.getChunkTimings().values().stream()
+                .flatMap(timings -> timings.values().stream())
+                .mapToLong(Long::longValue)
+                .sum();
+
         // Step 5: Update all node statuses
         updateAllNodeStatuses();
 
         log.info("═══════════════════════════════════════════════════════");
-        log.info("Distribution completed in {} ms", totalTransferTime);
-        log.info("Total chunks (including replicas): {}", chunks.size() * effectiveReplicationFactor);
-        log.info("Fault tolerance: Can survive {} node failure(s)", effectiveReplicationFactor - 1);
+        log.info("Distribution completed in {} ms (sum of transfers: {} ms)", elapsed, totalTransferTime);
+        if (!distribution.getDeduplicatedChunks().isEmpty()) {
+            log.info("♻️ Deduplicated chunks (already stored, not transferred): {}",
+                    distribution.getDeduplicatedChunks().size());
+        }
+        log.info("Total chunks (including replicas): {}", distribution.getDistribution().values().stream()
+                .mapToInt(List::size)
+                .sum());
+        if (!distribution.getUnderReplicatedChunks().isEmpty()) {
+            log.warn("⚠️ Under-replicated chunks: {}", distribution.getUnderReplicatedChunks());
+        }
+        log.info("Fault tolerance: Can survive {} node failure(s)", effectiveRedundancy.toleratedFailures());
         log.info("═══════════════════════════════════════════════════════");
 
         return distribution;
     }
 
     /**
-     * Selects a node for replica placement that hasn't been used yet for this chunk.
+     * Erasure-codes each chunk that needs a transfer and places its k + m shards on
+     * distinct nodes. Shards go through the same pipeline as replicas (one copy
+     * each), so they share its transfer threads, batching and per-node limits.
+     * A shard that cannot be stored on any node fails the distribution.
+     */
+    private void distributeShards(Iterator<FileChunk> chunks, ChunkDistribution distribution,
+                                  RedundancyScheme coding, ChunkIndex chunkIndex,
+                                  Set<String> seenInFile) throws Exception {
+        ShardingIterator shards = new ShardingIterator(chunks,
+                chunk -> needsTransfer(chunk, distribution, coding, chunkIndex, seenInFile),
+                new ReedSolomonCodec(coding.dataShards(), coding.parityShards()), coding, distribution);
+
+        distributor.distribute(shards, 1, distribution, shard -> true,
+                (shard, excluded) -> selectShardTarget(shard, excluded, shards.stripeNodes(shard.getChunkId())),
+                this::transferChunk);
+    }
+
+    /**
+     * Records the chunk in the file layout and decides whether it has to be transferred.
      *
-     * @param availableNodes All available nodes
-     * @param usedNodes Nodes already selected for this chunk
-     * @return Node ID for replica placement
+     * @return false if the chunk already appeared earlier in the file, or can be read
+     *         from the registered nodes according to the index
      */
-    private String selectNodeForReplica(List<String> availableNodes, List<String> usedNodes) {
-        // Find nodes not yet used for this chunk
-        List<String> candidateNodes = new ArrayList<>(availableNodes);
-        candidateNodes.removeAll(usedNodes);
-        
-        if (candidateNodes.isEmpty()) {
-            // Fallback: if all nodes used, use load balancing on all nodes
-            return loadBalancingService.selectNodeForChunk(availableNodes);
+    private boolean needsTransfer(FileChunk chunk, ChunkDistribution distribution, RedundancyScheme redundancy,
+                                  ChunkIndex chunkIndex, Set<String> seenInFile) {
+        String chunkId = chunk.getChunkId();
+        distribution.recordLayout(chunkId, chunk.getSizeBytes());
+
+        if (!seenInFile.add(chunkId)) {
+            return false;
         }
-        
-        // Use load balancing to select from candidates
-        return loadBalancingService.selectNodeForChunk(candidateNodes);
+
+        Set<String> liveReplicas = new LinkedHashSet<>(chunkIndex.locate(chunkId));
+        liveReplicas.retainAll(nodes.keySet());
+        int readQuorum = chunkIndex.readQuorum(chunkId);
+        if (liveReplicas.size() < readQuorum) {
+            return true;
+        }
+
+        // Shard holders do not hold the chunk itself, so only replicas are recorded as placements
+        if (readQuorum == 1) {
+            liveReplicas.forEach(nodeId -> distribution.addChunkToNode(nodeId, chunkId));
+        }
+        distribution.markDeduplicated(chunkId);
+        if (!redundancy.isErasureCoded() && readQuorum == 1 && liveReplicas.size() < redundancy.replicas()) {
+            distribution.markUnderReplicated(chunkId);
+        }
+        log.debug("    ♻️ {} already stored on {}", chunkId, liveReplicas);
+        return false;
+    }
+
+    /**
+     * Selects a node for the next replica of a chunk, skipping nodes that already
+     * hold it or failed to store it.
+     *
+     * @param chunk Chunk being placed
+     * @param excludedNodes Nodes already used (or failed) for this chunk
+     * @return Node ID for replica placement, or null if no node is left
+     */
+    private String selectReplicaTarget(FileChunk chunk, Set<String> excludedNodes) {
+        // Placement strategy weighs free space, in-flight transfers and latency
+        return loadBalancingService.selectNodeForReplica(chunk.getChunkId(), nodes.keySet(), excludedNodes);
     }
 
     /**
-     * Transfers a single chunk to a node via gRPC.
+     * Selects a node for a shard, skipping nodes that hold (or are receiving)
+     * another shard of the same chunk, so one node loss costs at most one shard.
+     *
+     * @param stripeNodes Nodes chosen for the chunk's shards so far; updated
+     */
+    private String selectShardTarget(FileChunk shard, Set<String> excludedNodes, Set<String> stripeNodes) {
+        synchronized (stripeNodes) {
+            Set<String> taken = new HashSet<>(excludedNodes);
+            taken.addAll(stripeNodes);
+            String nodeId = selectReplicaTarget(shard, taken);
+            if (nodeId != null) {
+                stripeNodes.add(nodeId);
+            }
+            return nodeId;
+        }
+    }
+
+    /**
+     * Transfers a chunk to a registered node by ID.
+     */
+    private long transferChunk(String nodeId, FileChunk chunk) {
+        NodeConnection connection = nodes.get(nodeId);
+        if (connection == null) {
+            throw new IllegalStateException("Node left the network: " + nodeId);
+        }
+        return transferChunk(connection, chunk);
+    }
+
+    /**
+     * Transfers a single chunk to a node.
+     *
+     * Small chunks (up to {@code BATCHED_CHUNK_MAX_BYTES}, e.g. small files) are
+     * coalesced with other chunks for the same node into StoreChunksBatch calls.
+     * Larger chunks use the StoreChunkStream RPC: they are sent as fixed-size frames
+     * that the node writes straight to disk, so neither side needs a whole-chunk
+     * protobuf message.
      *
      * @param nodeConnection Target node connection
      * @param chunk Chunk to transfer
@@ -233,17 +440,20 @@ public class NetworkController {
      */
     private long transferChunk(NodeConnection nodeConnection, FileChunk chunk) {
         long startTime = System.currentTimeMillis();
+        boolean stored = false;
+        metricsService.transferStarted(nodeConnection.getNodeId());
 
         try {
-            // Create gRPC request
-            org.distributed.stumatchdistributed.grpc.StoreChunkRequest request = org.distributed.stumatchdistributed.grpc.StoreChunkRequest.newBuilder()
-                    .setChunkId(chunk.getChunkId())
-                    .setData(ByteString.copyFrom(chunk.getData()))
-                    .setSize(chunk.getSizeBytes())
-                    .build();
+            // Shared by all replicas of the chunk; frames are substrings of it, so nothing is copied
+            ByteString data = chunk.asByteString();
 
-            // Make synchronous gRPC call
-            org.distributed.stumatchdistributed.grpc.StoreChunkResponse response = nodeConnection.getStub().storeChunk(request);
+            java.util.concurrent.CompletableFuture<org.distributed.stumatchdistributed.grpc.StoreChunkResponse> pending =
+                    data.size() <= BATCHED_CHUNK_MAX_BYTES
+                            ? batchCoalescer.submit(nodeConnection.getNodeId(), chunk.getChunkId(), data)
+                            : ChunkStreamUploader.upload(nodeConnection.getAsyncStub()
+                                            .withDeadlineAfter(TRANSFER_DEADLINE_SECONDS, TimeUnit.SECONDS),
+                                    chunk.getChunkId(), data);
+            org.distributed.stumatchdistributed.grpc.StoreChunkResponse response = pending.get();
 
             if (!response.getSuccess()) {
                 throw new RuntimeException(
@@ -251,15 +461,265 @@ public class NetworkController {
                                 response.getMessage()
                 );
             }
+            stored = true;
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Chunk transfer interrupted", e);
         } catch (Exception e) {
             log.error("Failed to transfer chunk to " + nodeConnection.getNodeId(), e);
             throw new RuntimeException("Chunk transfer failed", e);
+        } finally {
+            metricsService.transferFinished(nodeConnection.getNodeId(),
+                    System.currentTimeMillis() - startTime, stored);
         }
 
         return System.currentTimeMillis() - startTime;
     }
 
+    /**
+     * Streams a byte range of a chunk from a node into an output stream.
+     *
+     * Uses the RetrieveChunkStream RPC, so only one frame is held in memory at a
+     * time and partial reads (e.g. HTTP range requests) only move the bytes asked for.
+     *
+     * @param nodeId Node holding the chunk
+     * @param chunkId Chunk identifier
+     * @param offset First byte of the range within the chunk
+     * @param length Number of bytes to read (0 = until end of chunk)
+     * @param out Destination stream
+     * @return Number of bytes written
+     * @throws IOException if writing to the destination fails
+     */
+    public long streamChunk(String nodeId, String chunkId, long offset, long length, OutputStream out)
+            throws IOException {
+        NodeConnection connection = nodes.get(nodeId);
+        if (connection == null) {
+            throw new IllegalArgumentException("Node not registered: " + nodeId);
+        }
+
+        org.distributed.stumatchdistributed.grpc.RetrieveChunkStreamRequest request =
+                org.distributed.stumatchdistributed.grpc.RetrieveChunkStreamRequest.newBuilder()
+                        .setChunkId(chunkId)
+                        .setOffset(offset)
+                        .setLength(length)
+                        .build();
+
+        // Cancel the RPC if the consumer stops reading (e.g. HTTP client disconnects)
+        Context.CancellableContext context = Context.current().withCancellation();
+        Context previous = context.attach();
+        try {
+            Iterator<org.distributed.stumatchdistributed.grpc.ChunkFrame> frames = connection.getStub()
+                    .withDeadlineAfter(TRANSFER_DEADLINE_SECONDS, TimeUnit.SECONDS)
+                    .retrieveChunkStream(request);
+
+            long written = 0;
+            while (frames.hasNext()) {
+                ByteString data = frames.next().getData();
+                data.writeTo(out);
+                written += data.size();
+            }
+            return written;
+        } finally {
+            context.detach(previous);
+            context.cancel(null);
+        }
+    }
+
+    /**
+     * Reads a whole chunk from the cluster: from a live replica if there is one,
+     * otherwise rebuilt from any k of its erasure-coded shards.
+     *
+     * Replica reads are hedged: if the first replica is slower than its recent
+     * p95, the next replica is asked as well and the first answer wins.
+     *
+     * @param location Replicas and shards of the chunk
+     * @return the chunk's data
+     * @throws IllegalStateException if neither a replica nor enough shards can be read
+     */
+    public ByteString readChunk(ChunkLocation location) {
+        return readChunk(location, 0);
+    }
+
+    /**
+     * Reads a whole file from the cluster and writes it to a stream in order.
+     *
+     * Up to {@code MAX_CHUNKS_AHEAD} chunks are fetched in parallel. Consecutive
+     * chunks start at different replicas, so a download reads from all nodes
+     * holding the file rather than the first replica of every chunk.
+     *
+     * @param chunks Locations of the file's chunks, in file order
+     * @param fallback Source for a chunk the cluster cannot serve (by position,
+     *                 e.g. the coordinator's local copy), or null to fail instead
+     * @param out Destination stream
+     * @return Number of bytes written
+     * @throws IOException if a chunk cannot be read or writing to the destination fails
+     */
+    public long readFile(List<ChunkLocation> chunks, IntFunction<ByteString> fallback, OutputStream out)
+            throws IOException {
+        long size = chunks.stream().mapToLong(ChunkLocation::sizeBytes).sum();
+        return readRange(chunks, 0, size, fallback, out);
+    }
+
+    /**
+     * Reads a byte range of a file from the cluster (e.g. for an HTTP range request).
+     * Only the chunks overlapping the range are fetched, in parallel as in
+     * {@link #readFile}; the first and last are trimmed to the range.
+     *
+     * @param chunks Locations of the file's chunks, in file order
+     * @param start First byte of the range within the file
+     * @param length Number of bytes to read
+     * @param fallback Source for a whole chunk the cluster cannot serve (by position), or null to fail instead
+     * @param out Destination stream
+     * @return Number of bytes written
+     * @throws IOException if a chunk cannot be read or writing to the destination fails
+     */
+    public long readRange(List<ChunkLocation> chunks, long start, long length,
+                          IntFunction<ByteString> fallback, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long end = start + length;
+
+        // File offset of every chunk, and the chunks overlapping [start, end)
+        long[] offsets = new long[chunks.size() + 1];
+        for (int i = 0; i < chunks.size(); i++) {
+            offsets[i + 1] = offsets[i] + chunks.get(i).sizeBytes();
+        }
+        int first = 0;
+        while (first < chunks.size() && offsets[first + 1] <= start) {
+            first++;
+        }
+        int last = first;
+        while (last < chunks.size() && offsets[last] < end) {
+            last++;
+        }
+
+        int firstChunk = first;
+        long written = reader.readInOrder(last - first, i -> {
+            int index = firstChunk + i;
+            ByteString data;
+            try {
+                data = readChunk(chunks.get(index), index);
+            } catch (RuntimeException e) {
+                if (fallback == null) {
+                    throw e;
+                }
+                log.warn("⚠️ Chunk {} unreadable from the cluster, using fallback: {}",
+                        chunks.get(index).chunkId(), e.getMessage());
+                data = fallback.apply(index);
+            }
+            int from = (int) Math.max(0, start - offsets[index]);
+            int to = (int) Math.min(data.size(), end - offsets[index]);
+            return from == 0 && to == data.size() ? data : data.substring(from, to);
+        }, out);
+        log.info("📥 Read {} chunk(s), {} from the cluster in {} ms",
+                last - first, StorageMetricsService.formatBytes(written), System.currentTimeMillis() - startTime);
+        return written;
+    }
+
+    /**
+     * @param firstReplica Replica to try first (wraps around), to spread reads across replicas
+     */
+    private ByteString readChunk(ChunkLocation location, int firstReplica) {
+        List<String> replicas = new ArrayList<>(location.replicaNodes());
+        if (!replicas.isEmpty()) {
+            Collections.rotate(replicas, -(firstReplica % replicas.size()));
+        }
+        ByteString data = hedgedReader.read(replicas, location.chunkId(), location.sizeBytes());
+        if (data != null) {
+            return data;
+        }
+
+        RedundancyScheme coding = location.erasureCoding();
+        if (coding == null) {
+            throw new IllegalStateException("No readable replica of chunk " + location.chunkId());
+        }
+        return reconstructChunk(location, coding);
+    }
+
+    /**
+     * Fetches k shards of a chunk and decodes it. Data shards are tried first:
+     * when all of them are readable the chunk is just their concatenation, built
+     * from the received buffers without copying them.
+     */
+    private ByteString reconstructChunk(ChunkLocation location, RedundancyScheme coding) {
+        ReedSolomonCodec codec = new ReedSolomonCodec(coding.dataShards(), coding.parityShards());
+        int shardSize = codec.shardSize(location.sizeBytes());
+        ByteString[] shards = new ByteString[codec.getTotalShards()];
+        int found = 0;
+        for (int shard = 0; shard < shards.length && found < coding.dataShards(); shard++) {
+            String nodeId = location.shardNodes().get(shard);
+            ByteString data = nodeId != null ? fetchChunk(nodeId, coding.shardId(location.chunkId(), shard)) : null;
+            if (data != null && data.size() == shardSize) {
+                shards[shard] = data;
+                found++;
+            }
+        }
+
+        if (found < coding.dataShards()) {
+            throw new IllegalStateException("Only " + found + " of the " + coding.dataShards()
+                    + " shards needed to rebuild chunk " + location.chunkId() + " are readable");
+        }
+        if (!Arrays.asList(shards).subList(0, coding.dataShards()).contains(null)) {
+            ByteString chunk = ByteString.EMPTY;
+            for (int shard = 0; shard < coding.dataShards(); shard++) {
+                chunk = chunk.concat(shards[shard]);
+            }
+            return chunk.substring(0, (int) location.sizeBytes());
+        }
+
+        log.info("🧩 Rebuilt chunk {} from parity ({})", location.chunkId(), coding);
+        byte[][] arrays = new byte[shards.length][];
+        for (int shard = 0; shard < shards.length; shard++) {
+            arrays[shard] = shards[shard] != null ? shards[shard].toByteArray() : null;
+        }
+        return codec.decode(arrays, location.sizeBytes());
+    }
+
+    /**
+     * Reads a whole chunk (or shard) from one node.
+     *
+     * @return the data, or null if the node is not registered or the read failed
+     */
+    private ByteString fetchChunk(String nodeId, String chunkId) {
+        if (!nodes.containsKey(nodeId)) {
+            return null;
+        }
+        try {
+            ByteString.Output out = ByteString.newOutput();
+            streamChunk(nodeId, chunkId, 0, 0, out);
+            return out.toByteString();
+        } catch (IOException | RuntimeException e) {
+            // An interrupted read is a cancelled hedge, not a node problem
+            if (!Thread.currentThread().isInterrupted()) {
+                log.warn("⚠️ Could not read {} from {}: {}", chunkId, nodeId, e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Deletes a chunk from a node via the DeleteChunk RPC.
+     *
+     * @param nodeId Node holding the chunk
+     * @param chunkId Chunk identifier
+     * @return true if the node deleted the chunk, false if it did not hold it or is not registered
+     */
+    public boolean deleteChunk(String nodeId, String chunkId) {
+        NodeConnection connection = nodes.get(nodeId);
+        if (connection == null) {
+            return false;
+        }
+
+        org.distributed.stumatchdistributed.grpc.DeleteChunkRequest request =
+                org.distributed.stumatchdistributed.grpc.DeleteChunkRequest.newBuilder()
+                        .setChunkId(chunkId)
+                        .build();
+        return connection.getStub()
+                .withDeadlineAfter(TRANSFER_DEADLINE_SECONDS, TimeUnit.SECONDS)
+                .deleteChunk(request)
+                .getDeleted();
+    }
+
     /**
      * Updates cached status for a specific node.
      */
@@ -283,6 +743,9 @@ public class NetworkController {
 
             // Update metrics service
             metricsService.updateNodeStatus(status);
+            if (response.hasGroupCommit()) {
+                metricsService.updateGroupCommitMetrics(nodeId, toGroupCommitMetrics(response.getGroupCommit()));
+            }
 
         } catch (io.grpc.StatusRuntimeException e) {
             if (e.getStatus().getCode() == io.grpc.Status.Code.UNAVAILABLE) {
@@ -308,6 +771,24 @@ public class NetworkController {
         }
     }
 
+    private static org.distributed.stumatchdistributed.model.GroupCommitMetrics toGroupCommitMetrics(
+            org.distributed.stumatchdistributed.grpc.GroupCommitStats stats) {
+        return new org.distributed.stumatchdistributed.model.GroupCommitMetrics(
+                stats.getWindowMicros(),
+                stats.getMaxBatchBytes(),
+                stats.getForces(),
+                toSummary(stats.getBatchCommits()),
+                toSummary(stats.getBatchBytes()),
+                toSummary(stats.getCommitLatencyMicros()),
+                toSummary(stats.getForceMicros()));
+    }
+
+    private static org.distributed.stumatchdistributed.model.GroupCommitMetrics.Summary toSummary(
+            org.distributed.stumatchdistributed.grpc.HistogramSummary histogram) {
+        return new org.distributed.stumatchdistributed.model.GroupCommitMetrics.Summary(
+                histogram.getCount(), histogram.getMean(), histogram.getP50(), histogram.getP99(), histogram.getMax());
+    }
+
     /**
      * Updates status for all registered nodes.
      * Uses a copy to avoid concurrent modification when dead nodes are removed.
@@ -322,7 +803,9 @@ public class NetworkController {
      */
     public Map<String, Object> getNetworkStats() {
         updateAllNodeStatuses();
-        return metricsService.getNetworkMetrics();
+        Map<String, Object> stats = metricsService.getNetworkMetrics();
+        stats.put("hedgedReads", hedgedReader.stats());
+        return stats;
     }
 
     /**
@@ -362,6 +845,8 @@ public class NetworkController {
         
         // Clean up registration time tracking
         nodeRegistrationTimes.remove(nodeId);
+        distributor.forgetNode(nodeId);
+        hedgedReader.forgetNode(nodeId);
         
         if (connection == null) {
             log.warn("Cannot unregister node {} - not found", nodeId);
@@ -388,6 +873,10 @@ public class NetworkController {
     @PreDestroy
     public void shutdown() {
         log.info("Shutting down network controller...");
+        distributor.shutdown();
+        batchCoalescer.shutdown();
+        reader.shutdown();
+        hedgedReader.shutdown();
 
         for (NodeConnection connection : nodes.values()) {
             try {
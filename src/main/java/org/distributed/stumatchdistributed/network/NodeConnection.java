@@ -20,6 +20,7 @@ public class NodeConnection {
     private final int port;
     private final ManagedChannel channel;
     private final NodeServiceGrpc.NodeServiceBlockingStub stub;
+    private final NodeServiceGrpc.NodeServiceStub asyncStub;
 
     /**
      * Creates a connection to a remote node.
@@ -38,6 +39,7 @@ public class NodeConnection {
         this.port = port;
         this.channel = channel;
         this.stub = stub;
+        this.asyncStub = NodeServiceGrpc.newStub(channel);
     }
 
     // Getters
@@ -47,6 +49,11 @@ public class NodeConnection {
     public ManagedChannel getChannel() { return channel; }
     public org.distributed.stumatchdistributed.grpc.NodeServiceGrpc.NodeServiceBlockingStub getStub() { return stub; }
 
+    /**
+     * Async stub on the same channel, required for streaming calls.
+     */
+    public NodeServiceGrpc.NodeServiceStub getAsyncStub() { return asyncStub; }
+
     /**
      * Returns connection details as string.
      */
@@ -0,0 +1,234 @@
+package org.distributed.stumatchdistributed.network;
+
+import org.distributed.stumatchdistributed.model.ChunkDistribution;
+import org.distributed.stumatchdistributed.model.FileChunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent distribution engine used by {@link NetworkController#distributeFile}.
+ *
+ * Pipelining:
+ * - Replicas of a chunk are sent to their nodes in parallel
+ * - Up to {@code maxChunksInFlight} chunks are in flight at once, so an upload
+ *   takes roughly as long as the slowest node instead of the sum of all transfers
+ *
+ * Bounds:
+ * - Global: a fixed pool of transfer threads
+ * - Per node: a semaphore limiting concurrent streams to one node. Chunks small
+ *   enough to be batched ({@code batchedChunkMaxBytes}) do not take a permit:
+ *   they share batch calls, and holding them back would only shrink the batches
+ * - Memory: the chunk window blocks the producer, so at most
+ *   {@code maxChunksInFlight} chunks are held at any time
+ *
+ * Partial failures: a failed replica is retried on another node that does not
+ * hold the chunk yet. A chunk with fewer replicas than requested is recorded as
+ * under-replicated; a chunk with no replica at all fails the distribution.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+class ParallelChunkDistributor {
+    private static final Logger log = LoggerFactory.getLogger(ParallelChunkDistributor.class);
+
+    // Stand-in limiter for batched chunks, never exhausted
+    private static final Semaphore UNLIMITED = new Semaphore(Integer.MAX_VALUE);
+
+    /**
+     * Sends one chunk to one node, blocking until the node acknowledged it.
+     */
+    @FunctionalInterface
+    interface ChunkTransfer {
+        /**
+         * @return Transfer time in milliseconds
+         * @throws RuntimeException if the node did not store the chunk
+         */
+        long transfer(String nodeId, FileChunk chunk);
+    }
+
+    /**
+     * Picks a node for the next replica of a chunk.
+     */
+    @FunctionalInterface
+    interface ReplicaSelector {
+        /**
+         * @param chunk Chunk being placed
+         * @param excludedNodes Nodes that already hold or failed this chunk
+         * @return Node ID, or null if no eligible node is left
+         */
+        String select(FileChunk chunk, Set<String> excludedNodes);
+    }
+
+    private final ExecutorService transferPool;
+    private final int maxChunksInFlight;
+    private final int maxTransfersPerNode;
+    private final int maxAttemptsPerReplica;
+    private final long batchedChunkMaxBytes;
+    private final Map<String, Semaphore> nodePermits = new ConcurrentHashMap<>();
+
+    ParallelChunkDistributor(int maxConcurrentTransfers, int maxChunksInFlight,
+                             int maxTransfersPerNode, int maxAttemptsPerReplica, long batchedChunkMaxBytes) {
+        this.maxChunksInFlight = maxChunksInFlight;
+        this.maxTransfersPerNode = maxTransfersPerNode;
+        this.maxAttemptsPerReplica = maxAttemptsPerReplica;
+        this.batchedChunkMaxBytes = batchedChunkMaxBytes;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.transferPool = Executors.newFixedThreadPool(maxConcurrentTransfers, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-transfer-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Distributes chunks with the given replication factor.
+     *
+     * @param chunks Chunks in file order; consumed lazily
+     * @param replicationFactor Replicas per chunk
+     * @param distribution Tracker receiving placements, timings and failures
+     * @param needsTransfer Returns false for chunks already stored in the cluster, which are skipped
+     * @param selector Placement for each replica
+     * @param transfer Transport used for a single replica
+     * @throws Exception if a chunk could not be stored on any node
+     */
+    void distribute(Iterator<FileChunk> chunks, int replicationFactor, ChunkDistribution distribution,
+                    Predicate<FileChunk> needsTransfer, ReplicaSelector selector,
+                    ChunkTransfer transfer) throws Exception {
+        Semaphore chunkWindow = new Semaphore(maxChunksInFlight);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        List<String> lostChunks = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            while (chunks.hasNext()) {
+                // Backpressure: wait until a slot in the chunk window frees up
+                chunkWindow.acquire();
+                FileChunk chunk = chunks.next();
+                if (!needsTransfer.test(chunk)) {
+                    chunkWindow.release();
+                    continue;
+                }
+
+                CompletableFuture<Void> chunkDone = replicate(chunk, replicationFactor, distribution, selector, transfer)
+                        .thenAccept(stored -> {
+                            if (stored == 0) {
+                                lostChunks.add(chunk.getChunkId());
+                            } else if (stored < replicationFactor) {
+                                distribution.markUnderReplicated(chunk.getChunkId());
+                                log.warn("⚠️ Chunk {} stored on {}/{} nodes", chunk.getChunkId(), stored, replicationFactor);
+                            }
+                        })
+                        .whenComplete((ignored, error) -> chunkWindow.release());
+                pending.add(chunkDone);
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            // Producer failed (e.g. unreadable file): let started transfers finish, then report
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                    .exceptionally(ignored -> null)
+                    .join();
+            throw e;
+        }
+
+        // Wait for every in-flight transfer before reporting, so nothing is left running
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+
+        if (!lostChunks.isEmpty()) {
+            throw new IllegalStateException("Failed to store " + lostChunks.size()
+                    + " chunk(s) on any node: " + lostChunks);
+        }
+    }
+
+    /**
+     * Starts all replicas of one chunk in parallel.
+     *
+     * @return Future with the number of replicas that were stored
+     */
+    private CompletableFuture<Integer> replicate(FileChunk chunk, int replicationFactor,
+                                                 ChunkDistribution distribution,
+                                                 ReplicaSelector selector, ChunkTransfer transfer) {
+        // Nodes holding, receiving or having failed this chunk; shared by all its replicas
+        Set<String> excluded = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Boolean>> replicas = new ArrayList<>();
+
+        for (int replica = 0; replica < replicationFactor; replica++) {
+            String nodeId;
+            synchronized (excluded) {
+                nodeId = selector.select(chunk, excluded);
+                if (nodeId == null) {
+                    break;
+                }
+                excluded.add(nodeId);
+            }
+
+            String target = nodeId;
+            replicas.add(CompletableFuture.supplyAsync(
+                    () -> storeReplica(chunk, target, excluded, distribution, selector, transfer),
+                    transferPool));
+        }
+
+        return CompletableFuture.allOf(replicas.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> (int) replicas.stream().filter(CompletableFuture::join).count());
+    }
+
+    /**
+     * Stores one replica, moving to another node when a transfer fails.
+     * Runs on a transfer pool thread.
+     */
+    private boolean storeReplica(FileChunk chunk, String firstNode, Set<String> excluded,
+                                 ChunkDistribution distribution, ReplicaSelector selector,
+                                 ChunkTransfer transfer) {
+        String nodeId = firstNode;
+        boolean batched = chunk.getSizeBytes() <= batchedChunkMaxBytes;
+
+        for (int attempt = 1; attempt <= maxAttemptsPerReplica && nodeId != null; attempt++) {
+            Semaphore permits = batched
+                    ? UNLIMITED
+                    : nodePermits.computeIfAbsent(nodeId, id -> new Semaphore(maxTransfersPerNode));
+            try {
+                permits.acquire();
+                try {
+                    long transferTime = transfer.transfer(nodeId, chunk);
+                    distribution.addChunkToNode(nodeId, chunk.getChunkId(), transferTime);
+                    log.info("    ✓ {} → {} in {} ms", chunk.getChunkId(), nodeId, transferTime);
+                    return true;
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                distribution.recordFailedReplica(chunk.getChunkId(), nodeId, "interrupted");
+                return false;
+            } catch (RuntimeException e) {
+                String reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                distribution.recordFailedReplica(chunk.getChunkId(), nodeId, reason);
+                log.warn("    ✗ {} → {} failed (attempt {}/{}): {}",
+                        chunk.getChunkId(), nodeId, attempt, maxAttemptsPerReplica, reason);
+            }
+
+            synchronized (excluded) {
+                nodeId = selector.select(chunk, excluded);
+                if (nodeId != null) {
+                    excluded.add(nodeId);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Forgets the per-node limiter of a node that left the network.
+     */
+    void forgetNode(String nodeId) {
+        nodePermits.remove(nodeId);
+    }
+
+    void shutdown() {
+        transferPool.shutdownNow();
+    }
+}
@@ -0,0 +1,107 @@
+package org.distributed.stumatchdistributed.network;
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent read engine used by {@link NetworkController#readFile}.
+ *
+ * Prefetching:
+ * - The next {@code maxChunksAhead} chunks of a file are fetched in parallel,
+ *   from different nodes, while earlier chunks are written out
+ * - Chunks are written strictly in file order; a finished chunk waits until
+ *   every chunk before it was written
+ *
+ * Bounds:
+ * - Global: a fixed pool of fetch threads shared by all downloads
+ * - Memory: at most {@code maxChunksAhead} chunks of a download are held at once
+ *
+ * If a chunk cannot be read, or writing to the client fails (e.g. it hung up),
+ * the chunks still being fetched are cancelled and the error is rethrown.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+class ParallelChunkReader {
+
+    /**
+     * Reads one chunk of a file, blocking until it is complete.
+     */
+    @FunctionalInterface
+    interface ChunkFetch {
+        /**
+         * @param index Position of the chunk in the file
+         * @return the chunk's data
+         * @throws RuntimeException if the chunk cannot be read
+         */
+        ByteString fetch(int index);
+    }
+
+    private final ExecutorService fetchPool;
+    private final int maxChunksAhead;
+
+    ParallelChunkReader(int maxConcurrentFetches, int maxChunksAhead) {
+        this.maxChunksAhead = maxChunksAhead;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.fetchPool = Executors.newFixedThreadPool(maxConcurrentFetches, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-fetch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fetches chunks 0 .. chunkCount - 1 and writes them to the stream in order.
+     *
+     * @return Number of bytes written
+     * @throws IOException if writing fails, or wrapping the RuntimeException of a failed fetch
+     */
+    long readInOrder(int chunkCount, ChunkFetch fetch, OutputStream out) throws IOException {
+        Deque<Future<ByteString>> window = new ArrayDeque<>();
+        int next = 0;
+        long written = 0;
+
+        try {
+            while (next < chunkCount && window.size() < maxChunksAhead) {
+                int index = next++;
+                window.add(fetchPool.submit(() -> fetch.fetch(index)));
+            }
+
+            while (!window.isEmpty()) {
+                ByteString chunk = window.poll().get();
+                // Refill before writing, so the slot is busy while this chunk goes out
+                if (next < chunkCount) {
+                    int index = next++;
+                    window.add(fetchPool.submit(() -> fetch.fetch(index)));
+                }
+                chunk.writeTo(out);
+                written += chunk.size();
+            }
+            out.flush();
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted", e);
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new IOException("Chunk read failed: " + cause.getMessage(), cause);
+        } finally {
+            window.forEach(pending -> pending.cancel(true));
+        }
+    }
+
+    void shutdown() {
+        fetchPool.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+package org.distributed.stumatchdistributed.network;
+
+import com.google.protobuf.UnsafeByteOperations;
+import org.distributed.stumatchdistributed.erasure.ReedSolomonCodec;
+import org.distributed.stumatchdistributed.model.ChunkDistribution;
+import org.distributed.stumatchdistributed.model.FileChunk;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Turns a chunk stream into the stream of its erasure-coded shards.
+ *
+ * Each chunk that needs a transfer is encoded into k + m shards, which are handed
+ * out one by one as chunks of their own (ID from {@link RedundancyScheme#shardId}).
+ * Chunks are encoded only when their first shard is requested, so at most one
+ * chunk's shards wait here besides those the distribution pipeline holds.
+ *
+ * Also tracks, per chunk, the nodes chosen for its shards so far, so placement
+ * can keep the shards of one chunk on distinct nodes.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class ShardingIterator implements Iterator<FileChunk> {
+    private final Iterator<FileChunk> chunks;
+    private final Predicate<FileChunk> needsTransfer;
+    private final ReedSolomonCodec codec;
+    private final RedundancyScheme coding;
+    private final ChunkDistribution distribution;
+
+    private final Deque<FileChunk> pending = new ArrayDeque<>();
+    // shard ID -> nodes holding the shards of its chunk (one set shared by all shards of a chunk)
+    private final Map<String, Set<String>> stripeNodes = new ConcurrentHashMap<>();
+
+    /**
+     * @param chunks Chunks in file order
+     * @param needsTransfer Returns false for chunks that are not stored again (e.g. deduplicated)
+     * @param codec Codec matching {@code coding}
+     * @param coding Shard counts and IDs
+     * @param distribution Tracker in which encoded chunks are marked as erasure-coded
+     */
+    ShardingIterator(Iterator<FileChunk> chunks, Predicate<FileChunk> needsTransfer, ReedSolomonCodec codec,
+                     RedundancyScheme coding, ChunkDistribution distribution) {
+        this.chunks = chunks;
+        this.needsTransfer = needsTransfer;
+        this.codec = codec;
+        this.coding = coding;
+        this.distribution = distribution;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pending.isEmpty() && chunks.hasNext()) {
+            FileChunk chunk = chunks.next();
+            if (needsTransfer.test(chunk)) {
+                encode(chunk);
+            }
+        }
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public FileChunk next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return pending.poll();
+    }
+
+    /**
+     * Nodes chosen so far for the shards of the chunk a shard belongs to.
+     */
+    Set<String> stripeNodes(String shardId) {
+        return stripeNodes.get(shardId);
+    }
+
+    private void encode(FileChunk chunk) {
+        byte[][] shards = codec.encode(chunk.asByteString());
+        Set<String> nodes = ConcurrentHashMap.newKeySet();
+        for (int shard = 0; shard < shards.length; shard++) {
+            String shardId = coding.shardId(chunk.getChunkId(), shard);
+            stripeNodes.put(shardId, nodes);
+            // The shard arrays are fresh and never modified, so they are shared, not copied
+            pending.add(new FileChunk(shardId, UnsafeByteOperations.unsafeWrap(shards[shard])));
+        }
+        distribution.markErasureCoded(chunk.getChunkId(), coding);
+    }
+}
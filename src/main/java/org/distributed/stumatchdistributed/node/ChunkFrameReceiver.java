@@ -0,0 +1,128 @@
+package org.distributed.stumatchdistributed.node;
+
+import io.grpc.stub.StreamObserver;
+import org.distributed.stumatchdistributed.grpc.ChunkFrame;
+import org.distributed.stumatchdistributed.grpc.StoreChunkResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server side of the client-streaming StoreChunkStream RPC.
+ *
+ * Opens a {@link ChunkWriter} on the first frame and writes every frame to disk
+ * as soon as it arrives. gRPC only requests the next frame after onNext returns,
+ * so at most one frame per call is held in memory.
+ *
+ * Shared by NodeServiceImpl and EnhancedNodeServiceImpl; the node type only
+ * decides how the writer is opened.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class ChunkFrameReceiver implements StreamObserver<ChunkFrame> {
+    private static final Logger log = LoggerFactory.getLogger(ChunkFrameReceiver.class);
+
+    private final ChunkWriter.Opener opener;
+    private final StreamObserver<StoreChunkResponse> responseObserver;
+
+    private ChunkWriter writer;
+    private String chunkId;
+    private long totalSize;
+    private long received;
+    private boolean finished;
+
+    public ChunkFrameReceiver(ChunkWriter.Opener opener,
+                              StreamObserver<StoreChunkResponse> responseObserver) {
+        this.opener = opener;
+        this.responseObserver = responseObserver;
+    }
+
+    @Override
+    public void onNext(ChunkFrame frame) {
+        if (finished) {
+            return;
+        }
+
+        try {
+            if (writer == null) {
+                chunkId = frame.getChunkId();
+                totalSize = frame.getTotalSize();
+                log.debug("gRPC stream started: storeChunkStream({}, {} bytes)", chunkId, totalSize);
+
+                writer = opener.open(chunkId, totalSize);
+                if (writer == null) {
+                    reject("Insufficient storage space");
+                    return;
+                }
+            }
+
+            if (frame.getOffset() != received) {
+                reject("Out of order frame for " + chunkId + ": expected offset "
+                        + received + ", got " + frame.getOffset());
+                return;
+            }
+            if (received + frame.getData().size() > totalSize) {
+                reject("Frame exceeds declared chunk size for " + chunkId);
+                return;
+            }
+
+            writer.write(frame.getData().asReadOnlyByteBuffer());
+            received += frame.getData().size();
+
+        } catch (Exception e) {
+            log.error("Error writing streamed chunk {}", chunkId, e);
+            reject("Internal error: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("Chunk stream for {} cancelled by client: {}", chunkId, t.getMessage());
+        finished = true;
+        if (writer != null) {
+            writer.abort();
+        }
+    }
+
+    @Override
+    public void onCompleted() {
+        if (finished) {
+            return;
+        }
+
+        if (writer == null) {
+            reject("Empty chunk stream");
+            return;
+        }
+        if (received != totalSize) {
+            reject("Incomplete chunk " + chunkId + ": received " + received + " of " + totalSize + " bytes");
+            return;
+        }
+
+        try {
+            boolean success = writer.commit();
+            finished = true;
+            respond(success, success ? "Chunk stored successfully" : "Storage failed");
+            log.debug("gRPC stream completed: storeChunkStream({}) success={}", chunkId, success);
+        } catch (Exception e) {
+            log.error("Error committing streamed chunk {}", chunkId, e);
+            reject("Internal error: " + e.getMessage());
+        }
+    }
+
+    private void reject(String message) {
+        finished = true;
+        if (writer != null) {
+            writer.abort();
+        }
+        respond(false, message);
+    }
+
+    private void respond(boolean success, String message) {
+        responseObserver.onNext(StoreChunkResponse.newBuilder()
+                .setSuccess(success)
+                .setMessage(message)
+                .build());
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,185 @@
+package org.distributed.stumatchdistributed.node;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.distributed.stumatchdistributed.grpc.ChunkFrame;
+import org.distributed.stumatchdistributed.grpc.RetrieveChunkStreamRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Server side of the server-streaming RetrieveChunkStream RPC.
+ *
+ * Sends the requested byte range of a chunk one fixed-size frame at a time, and
+ * only produces the next frame when the client is ready for it. Frames are read
+ * from a FileChannel (a chunk file, or a region of the shared .vdisk channel)
+ * straight into a heap array that the frame then wraps without a copy. The array
+ * is not pooled: gRPC may hold the frame after onNext, with no signal when it is
+ * done with it.
+ *
+ * @author Your Name
+ * @version 1.3
+ */
+public class ChunkFrameSender {
+    private static final Logger log = LoggerFactory.getLogger(ChunkFrameSender.class);
+
+    /** Size of each frame on the wire. */
+    public static final int FRAME_SIZE_BYTES = 256 * 1024;
+
+    private final String chunkId;
+    private final FileChannel channel;
+    private final long chunkPosition;
+    private final long chunkSize;
+    private final Closeable resource;
+    private final ServerCallStreamObserver<ChunkFrame> responseObserver;
+
+    private long offset;
+    private final long endOffset;
+    private boolean sentAny;
+    private boolean done;
+
+    private ChunkFrameSender(String chunkId, FileChannel channel, long chunkPosition, long chunkSize,
+                             Closeable resource, long offset, long endOffset,
+                             ServerCallStreamObserver<ChunkFrame> responseObserver) {
+        this.chunkId = chunkId;
+        this.channel = channel;
+        this.chunkPosition = chunkPosition;
+        this.chunkSize = chunkSize;
+        this.resource = resource;
+        this.offset = offset;
+        this.endOffset = endOffset;
+        this.responseObserver = responseObserver;
+    }
+
+    /**
+     * Streams a byte range of a chunk to the client.
+     *
+     * @param request Requested chunk, offset and length (0 = until end)
+     * @param channel Channel holding the chunk, or null if the chunk does not exist
+     * @param chunkPosition Position of the chunk's first byte inside the channel
+     * @param chunkSize Size of the chunk in bytes
+     * @param resource Released when the call ends (e.g. the channel itself, or a disk
+     *                 region pinning a shared channel); null if nothing to release
+     * @param responseObserver gRPC response stream
+     */
+    public static void send(RetrieveChunkStreamRequest request, FileChannel channel,
+                            long chunkPosition, long chunkSize, Closeable resource,
+                            StreamObserver<ChunkFrame> responseObserver) {
+        if (channel == null) {
+            notFound(request, responseObserver);
+            return;
+        }
+        start(request, channel, chunkPosition, chunkSize, resource, responseObserver);
+    }
+
+    private static void notFound(RetrieveChunkStreamRequest request, StreamObserver<ChunkFrame> responseObserver) {
+        responseObserver.onError(Status.NOT_FOUND
+                .withDescription("Chunk not found: " + request.getChunkId())
+                .asRuntimeException());
+    }
+
+    private static void start(RetrieveChunkStreamRequest request, FileChannel channel,
+                              long chunkPosition, long chunkSize, Closeable resource,
+                              StreamObserver<ChunkFrame> responseObserver) {
+        String chunkId = request.getChunkId();
+        long offset = request.getOffset();
+        long length = request.getLength() > 0 ? request.getLength() : chunkSize - offset;
+        if (offset < 0 || length < 0 || offset + length > chunkSize) {
+            closeQuietly(resource);
+            responseObserver.onError(Status.OUT_OF_RANGE
+                    .withDescription("Range " + offset + "+" + length + " outside chunk " + chunkId
+                            + " of " + chunkSize + " bytes")
+                    .asRuntimeException());
+            return;
+        }
+
+        ServerCallStreamObserver<ChunkFrame> serverObserver = (ServerCallStreamObserver<ChunkFrame>) responseObserver;
+        ChunkFrameSender sender = new ChunkFrameSender(chunkId, channel, chunkPosition, chunkSize,
+                resource, offset, offset + length, serverObserver);
+
+        serverObserver.setOnCancelHandler(sender::cancel);
+        serverObserver.setOnReadyHandler(sender::sendFrames);
+    }
+
+    /**
+     * Sends frames while the client keeps up. Invoked by gRPC every time the
+     * stream becomes ready again.
+     */
+    private synchronized void sendFrames() {
+        try {
+            while (!done && responseObserver.isReady()) {
+                if (offset >= endOffset) {
+                    // Zero-length ranges still get one (empty) frame carrying the chunk size
+                    if (!sentAny) {
+                        responseObserver.onNext(frame(ByteString.EMPTY));
+                    }
+                    finish();
+                    responseObserver.onCompleted();
+                    return;
+                }
+
+                ByteString data = nextFrameData((int) Math.min(FRAME_SIZE_BYTES, endOffset - offset));
+                responseObserver.onNext(frame(data));
+                sentAny = true;
+                offset += data.size();
+            }
+        } catch (IOException e) {
+            log.error("Failed to stream chunk {}", chunkId, e);
+            finish();
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Failed to read chunk: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    private ByteString nextFrameData(int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(FRAME_SIZE_BYTES, length));
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, chunkPosition + offset + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of chunk " + chunkId);
+            }
+        }
+        buffer.flip();
+        // A fresh array per frame, so it can be handed to gRPC without a copy
+        return UnsafeByteOperations.unsafeWrap(buffer);
+    }
+
+    private ChunkFrame frame(ByteString data) {
+        return ChunkFrame.newBuilder()
+                .setChunkId(chunkId)
+                .setOffset(offset)
+                .setData(data)
+                .setTotalSize(chunkSize)
+                .build();
+    }
+
+    private synchronized void cancel() {
+        log.debug("Chunk stream for {} cancelled by client", chunkId);
+        finish();
+    }
+
+    private void finish() {
+        done = true;
+        closeQuietly(resource);
+    }
+
+    private static void closeQuietly(Closeable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (IOException e) {
+            log.warn("Failed to release chunk channel", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.distributed.stumatchdistributed.node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental writer for a single chunk.
+ *
+ * Used by the streaming StoreChunkStream RPC: every frame received from the
+ * client is written straight to disk, so the heap needed per in-flight chunk
+ * is bounded by the frame size instead of the chunk size.
+ *
+ * Lifecycle:
+ * 1. write() is called once per frame, in order
+ * 2. commit() makes the chunk visible (only after every byte arrived)
+ * 3. abort() discards a partially written chunk
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public interface ChunkWriter {
+
+    /**
+     * Writes the next frame of the chunk.
+     *
+     * @param frame Frame data (read-only view, consumed fully)
+     * @throws IOException if the frame cannot be written
+     */
+    void write(ByteBuffer frame) throws IOException;
+
+    /**
+     * Completes the chunk once all frames have been written.
+     *
+     * @return true if the chunk is now stored
+     * @throws IOException if the chunk cannot be finalized
+     */
+    boolean commit() throws IOException;
+
+    /**
+     * Discards everything written so far. Safe to call more than once.
+     */
+    void abort();
+
+    /**
+     * Opens a writer for a chunk of a known total size.
+     */
+    @FunctionalInterface
+    interface Opener {
+        /**
+         * @param chunkId Chunk identifier
+         * @param totalSize Size of the complete chunk in bytes
+         * @return writer, or null if the node cannot accept the chunk
+         */
+        ChunkWriter open(String chunkId, long totalSize) throws IOException;
+    }
+}
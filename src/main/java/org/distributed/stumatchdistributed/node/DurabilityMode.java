@@ -0,0 +1,16 @@
+package org.distributed.stumatchdistributed.node;
+
+/**
+ * When a node acknowledges a chunk write relative to forcing it to stable storage.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public enum DurabilityMode {
+    /** Acknowledge once the data is in the OS page cache; lost on power failure. */
+    NONE,
+    /** Force every chunk to the device before acknowledging it. */
+    FSYNC_PER_CHUNK,
+    /** Acknowledge after a force shared with the writes that completed around the same time. */
+    GROUP_COMMIT
+}
@@ -13,6 +13,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,6 +57,10 @@ public class EnhancedStorageNode {
     private final int ramGB;
     private final int cpuCores;
     private final long bandwidthBitsPerSecond;
+    // Optional write budget shared by all transfers on this node (off by default)
+    private final TokenBucketRateLimiter writeThrottle;
+    private final DurabilityMode durabilityMode;
+    private final GroupCommitter groupCommitter;
 
     /**
      * Creates an enhanced storage node.
@@ -64,6 +72,8 @@ public class EnhancedStorageNode {
         this.ramGB = builder.ramGB;
         this.cpuCores = builder.cpuCores;
         this.bandwidthBitsPerSecond = builder.bandwidthMbps * 1_000_000L;
+        this.writeThrottle = TokenBucketRateLimiter.forMbps(builder.throttleMbps);
+        this.durabilityMode = builder.durabilityMode;
 
         log.info("╔════════════════════════════════════════════════════════╗");
         log.info("║  ENHANCED STORAGE NODE INITIALIZATION                  ║");
@@ -94,7 +104,9 @@ public class EnhancedStorageNode {
 
         // Mount the disk
         virtualDisk.mount();
-        log.info("   ✅ Disk mounted");
+        this.groupCommitter = new GroupCommitter(nodeId, virtualDisk::sync,
+                builder.groupCommitWindowMicros, builder.groupCommitMaxBatchKb * 1024L);
+        log.info("   ✅ Disk mounted (durability: {})", durabilityMode);
 
         // 3. Initialize Lifecycle Manager
         log.info("🔧 Step 3: Initializing lifecycle manager...");
@@ -175,6 +187,7 @@ public class EnhancedStorageNode {
 
         // Stop process manager
         processManager.shutdown();
+        groupCommitter.shutdown();
 
         // Unmount disk
         virtualDisk.unmount();
@@ -192,54 +205,76 @@ public class EnhancedStorageNode {
 
     /**
      * Stores a chunk using the virtual disk.
-     * Submits as a managed process.
+     * Submits as a managed process; the returned future completes once the
+     * chunk is written and durable according to the node's {@link DurabilityMode},
+     * so callers only acknowledge writes that actually happened.
+     *
+     * @return completes with true if stored, false if the write failed
      */
-    public boolean storeChunk(String chunkId, byte[] data) {
+    public CompletableFuture<Boolean> storeChunk(String chunkId, byte[] data) {
+        return storeChunk(chunkId, com.google.protobuf.UnsafeByteOperations.unsafeWrap(data));
+    }
+
+    /**
+     * Stores a chunk received over gRPC; the message's buffer is written to the
+     * virtual disk without first copying it into a new array.
+     */
+    public CompletableFuture<Boolean> storeChunk(String chunkId, com.google.protobuf.ByteString data) {
         log.info("╔═══════════════════════════════════════════════════════╗");
         log.info("║  📥 INCOMING CHUNK STORAGE REQUEST                    ║");
         log.info("╠═══════════════════════════════════════════════════════╣");
         log.info("║  Node:      {}                               ║", String.format("%-40s", nodeId));
         log.info("║  Chunk ID:  {}                     ║", String.format("%-40s", chunkId));
-        log.info("║  Size:      {}                              ║", formatBytes(data.length));
+        log.info("║  Size:      {}                              ║", formatBytes(data.size()));
         log.info("╚═══════════════════════════════════════════════════════╝");
 
+        CompletableFuture<Boolean> stored = new CompletableFuture<>();
+
         // Submit as a process
         long pid = processManager.submitProcess(
                 "StoreChunk-" + chunkId,
                 () -> {
                     try {
-                        // Simulate transfer time
-                        long transferTimeMs = (data.length * 8 * 1000) / bandwidthBitsPerSecond;
-
-                        log.info("⏳ Transferring... [          ]   0%");
-                        Thread.sleep(transferTimeMs / 4);
-                        log.info("⏳ Transferring... [██        ]  25%");
-                        Thread.sleep(transferTimeMs / 4);
-                        log.info("⏳ Transferring... [████      ]  50%");
-                        Thread.sleep(transferTimeMs / 4);
-                        log.info("⏳ Transferring... [███████   ]  75%");
-                        Thread.sleep(transferTimeMs / 4);
-                        log.info("⏳ Transferring... [██████████] 100%");
+                        long transferStart = System.nanoTime();
+
+                        // Only waits when a throttle budget is configured
+                        writeThrottle.acquire(data.size());
 
                         // Write to virtual disk
-                        boolean success = virtualDisk.writeFile(chunkId, data);
+                        if (!virtualDisk.writeFile(chunkId, data.asReadOnlyByteBuffer())) {
+                            stored.complete(false);
+                            return;
+                        }
 
-                        if (success) {
+                        // The process slot is released here; the ack waits for durability
+                        makeDurable(data.size()).whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                log.error("❌ Chunk {} written but not durable", chunkId, error);
+                                stored.complete(false);
+                                return;
+                            }
+                            long transferTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - transferStart);
                             log.info("╔═══════════════════════════════════════════════════════╗");
                             log.info("║  ✅ CHUNK STORED SUCCESSFULLY                         ║");
                             log.info("╠═══════════════════════════════════════════════════════╣");
                             log.info("║  Chunk ID:    {}                   ║", String.format("%-38s", chunkId));
                             log.info("║  Duration:    {} ms                         ║", transferTimeMs);
+                            log.info("║  Durability:  {}                          ║", durabilityMode);
                             log.info("║  Disk Used:   {}/{} GB                  ║",
                                     virtualDisk.getUsedBytes() / (1024*1024*1024),
                                     virtualDisk.getTotalSizeBytes() / (1024*1024*1024));
                             log.info("║  Files:       {}                                  ║", virtualDisk.listFiles().size());
                             log.info("╚═══════════════════════════════════════════════════════╝");
-                        }
+                            stored.complete(true);
+                        });
 
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         log.error("❌ Transfer interrupted", e);
+                        stored.complete(false);
+                    } catch (RuntimeException e) {
+                        stored.complete(false);
+                        throw e;
                     }
                 },
                 5  // Priority
@@ -247,7 +282,73 @@ public class EnhancedStorageNode {
 
         log.info("📋 Process submitted (PID: {})", pid);
 
-        return true;
+        return stored;
+    }
+
+    /**
+     * Makes the chunks written so far durable according to the durability mode.
+     *
+     * @param bytes Size of the caller's write (counts toward the group commit batch)
+     */
+    private CompletableFuture<Void> makeDurable(long bytes) {
+        return switch (durabilityMode) {
+            case NONE -> CompletableFuture.completedFuture(null);
+            case FSYNC_PER_CHUNK -> {
+                try {
+                    virtualDisk.sync();
+                    yield CompletableFuture.completedFuture(null);
+                } catch (IOException e) {
+                    yield CompletableFuture.failedFuture(e);
+                }
+            }
+            case GROUP_COMMIT -> groupCommitter.commit(bytes);
+        };
+    }
+
+    /**
+     * Opens a streaming writer on the virtual disk (used by StoreChunkStream).
+     * Frames are written as they arrive instead of buffering the whole chunk.
+     *
+     * @return writer, or null if the disk cannot take the chunk
+     */
+    public ChunkWriter openChunkWriter(String chunkId, long totalSize) throws IOException {
+        log.info("📥 Incoming chunk stream: {} ({})", chunkId, formatBytes(totalSize));
+
+        VirtualDisk.ChunkOutput output = virtualDisk.openWriter(chunkId, totalSize);
+        if (output == null) {
+            return null;
+        }
+
+        return new ChunkWriter() {
+            @Override
+            public void write(java.nio.ByteBuffer frame) throws IOException {
+                try {
+                    writeThrottle.acquire(frame.remaining());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new java.io.InterruptedIOException("Interrupted while throttled");
+                }
+                output.write(frame);
+            }
+
+            @Override
+            public boolean commit() throws IOException {
+                if (!output.commit()) {
+                    return false;
+                }
+                try {
+                    makeDurable(totalSize).join();
+                    return true;
+                } catch (CompletionException e) {
+                    throw new IOException("Chunk " + chunkId + " written but not durable", e.getCause());
+                }
+            }
+
+            @Override
+            public void abort() {
+                output.abort();
+            }
+        };
     }
 
     /**
@@ -258,6 +359,13 @@ public class EnhancedStorageNode {
         return virtualDisk.readFile(chunkId);
     }
 
+    /**
+     * Deletes a chunk from the virtual disk.
+     */
+    public boolean deleteChunk(String chunkId) {
+        return virtualDisk.deleteFile(chunkId);
+    }
+
     /**
      * Gets comprehensive node status.
      */
@@ -282,6 +390,13 @@ public class EnhancedStorageNode {
         return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
     }
 
+    /**
+     * Group commit batch and latency histograms, or null if writes are not group-committed.
+     */
+    public org.distributed.stumatchdistributed.grpc.GroupCommitStats getGroupCommitStats() {
+        return durabilityMode == DurabilityMode.GROUP_COMMIT ? groupCommitter.getStats() : null;
+    }
+
     // Getters
     public String getNodeId() { return nodeId; }
     public NetworkInterface getNetworkInterface() { return networkInterface; }
@@ -299,6 +414,11 @@ public class EnhancedStorageNode {
         private int ramGB = 8;
         private int cpuCores = 4;
         private int bandwidthMbps = 1000;
+        private int throttleMbps = Integer.getInteger("node.throttle.mbps", 0);
+        private DurabilityMode durabilityMode = DurabilityMode.valueOf(
+                System.getProperty("node.durability", DurabilityMode.GROUP_COMMIT.name()));
+        private long groupCommitWindowMicros = Long.getLong("node.group-commit.window-us", 2000);
+        private int groupCommitMaxBatchKb = Integer.getInteger("node.group-commit.max-batch-kb", 8192);
 
         public Builder nodeId(String nodeId) {
             this.nodeId = nodeId;
@@ -330,6 +450,36 @@ public class EnhancedStorageNode {
             return this;
         }
 
+        /**
+         * Caps the bytes written per second across all transfers (0 = unlimited, the default).
+         * Defaults to the {@code node.throttle.mbps} system property.
+         */
+        public Builder throttleMbps(int throttleMbps) {
+            this.throttleMbps = throttleMbps;
+            return this;
+        }
+
+        /**
+         * When writes are acknowledged relative to forcing them to the device.
+         * Defaults to the {@code node.durability} system property, else GROUP_COMMIT.
+         */
+        public Builder durability(DurabilityMode durabilityMode) {
+            this.durabilityMode = durabilityMode;
+            return this;
+        }
+
+        /**
+         * Group commit tuning: how long a batch waits for more writes, and the
+         * batch size that forces it early. Defaults to the
+         * {@code node.group-commit.window-us} / {@code node.group-commit.max-batch-kb}
+         * system properties, else 2 ms / 8 MB.
+         */
+        public Builder groupCommit(long windowMicros, int maxBatchKb) {
+            this.groupCommitWindowMicros = windowMicros;
+            this.groupCommitMaxBatchKb = maxBatchKb;
+            return this;
+        }
+
         public EnhancedStorageNode build() throws IOException {
             if (nodeId == null || nodeId.isEmpty()) {
                 throw new IllegalStateException("Node ID is required");
@@ -387,17 +537,49 @@ class EnhancedNodeServiceImpl extends org.distributed.stumatchdistributed.grpc.N
     public void storeChunk(org.distributed.stumatchdistributed.grpc.StoreChunkRequest request,
                            StreamObserver<org.distributed.stumatchdistributed.grpc.StoreChunkResponse> responseObserver) {
         String chunkId = request.getChunkId();
-        byte[] data = request.getData().toByteArray();
+        com.google.protobuf.ByteString data = request.getData();
+
+        // Respond only once the write has finished (and is durable), without holding a gRPC thread
+        node.storeChunk(chunkId, data).whenComplete((success, error) -> {
+            boolean stored = error == null && success;
+            org.distributed.stumatchdistributed.grpc.StoreChunkResponse response = org.distributed.stumatchdistributed.grpc.StoreChunkResponse.newBuilder()
+                    .setSuccess(stored)
+                    .setMessage(stored ? "Stored on virtual disk" : "Storage failed")
+                    .build();
 
-        boolean success = node.storeChunk(chunkId, data);
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        });
+    }
 
-        org.distributed.stumatchdistributed.grpc.StoreChunkResponse response = org.distributed.stumatchdistributed.grpc.StoreChunkResponse.newBuilder()
-                .setSuccess(success)
-                .setMessage(success ? "Stored on virtual disk" : "Storage failed")
-                .build();
+    @Override
+    public void storeChunksBatch(org.distributed.stumatchdistributed.grpc.StoreChunksBatchRequest request,
+                                 StreamObserver<org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse> responseObserver) {
+        // The chunks are stored as concurrent processes, so their durable writes share group commits
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (org.distributed.stumatchdistributed.grpc.StoreChunkRequest chunk : request.getChunksList()) {
+            results.add(node.storeChunk(chunk.getChunkId(), chunk.getData()));
+        }
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse.Builder response =
+                    org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse.newBuilder();
+            for (CompletableFuture<Boolean> result : results) {
+                boolean stored = !result.isCompletedExceptionally() && result.join();
+                response.addResults(org.distributed.stumatchdistributed.grpc.StoreChunkResponse.newBuilder()
+                        .setSuccess(stored)
+                        .setMessage(stored ? "Stored on virtual disk" : "Storage failed"));
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public StreamObserver<org.distributed.stumatchdistributed.grpc.ChunkFrame> storeChunkStream(
+            StreamObserver<org.distributed.stumatchdistributed.grpc.StoreChunkResponse> responseObserver) {
+        return new ChunkFrameReceiver(node::openChunkWriter, responseObserver);
     }
 
     @Override
@@ -409,7 +591,8 @@ class EnhancedNodeServiceImpl extends org.distributed.stumatchdistributed.grpc.N
         org.distributed.stumatchdistributed.grpc.RetrieveChunkResponse.Builder responseBuilder = org.distributed.stumatchdistributed.grpc.RetrieveChunkResponse.newBuilder();
 
         if (data != null) {
-            responseBuilder.setData(com.google.protobuf.ByteString.copyFrom(data))
+            // readFile returns a fresh array nobody else holds, so it can be wrapped without a copy
+            responseBuilder.setData(com.google.protobuf.UnsafeByteOperations.unsafeWrap(data))
                     .setSuccess(true);
         } else {
             responseBuilder.setSuccess(false);
@@ -419,21 +602,49 @@ class EnhancedNodeServiceImpl extends org.distributed.stumatchdistributed.grpc.N
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void retrieveChunkStream(org.distributed.stumatchdistributed.grpc.RetrieveChunkStreamRequest request,
+                                    StreamObserver<org.distributed.stumatchdistributed.grpc.ChunkFrame> responseObserver) {
+        // Chunks live in the shared .vdisk channel; the region pins the extent until the stream ends
+        org.distributed.stumatchdistributed.virtualdisk.VirtualDisk.ReadRegion region =
+                node.getVirtualDisk().openReadRegion(request.getChunkId());
+        if (region == null) {
+            ChunkFrameSender.send(request, null, 0, 0, null, responseObserver);
+            return;
+        }
+        ChunkFrameSender.send(request, region.getChannel(), region.getPosition(), region.getSize(),
+                region, responseObserver);
+    }
+
+    @Override
+    public void deleteChunk(org.distributed.stumatchdistributed.grpc.DeleteChunkRequest request,
+                            StreamObserver<org.distributed.stumatchdistributed.grpc.DeleteChunkResponse> responseObserver) {
+        boolean deleted = node.deleteChunk(request.getChunkId());
+
+        responseObserver.onNext(org.distributed.stumatchdistributed.grpc.DeleteChunkResponse.newBuilder()
+                .setDeleted(deleted)
+                .build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void getStatus(org.distributed.stumatchdistributed.grpc.StatusRequest request,
                           StreamObserver<org.distributed.stumatchdistributed.grpc.StatusResponse> responseObserver) {
         EnhancedNodeStatus status = node.getStatus();
 
         // Convert to basic StatusResponse (maintain compatibility)
-        org.distributed.stumatchdistributed.grpc.StatusResponse response = org.distributed.stumatchdistributed.grpc.StatusResponse.newBuilder()
+        org.distributed.stumatchdistributed.grpc.StatusResponse.Builder response = org.distributed.stumatchdistributed.grpc.StatusResponse.newBuilder()
                 .setNodeId(status.getNodeId())
                 .setUsedStorage(status.getDiskStats().getUsedBytes())
                 .setTotalStorage(status.getDiskStats().getTotalBytes())
                 .setNumChunks(status.getDiskStats().getFileCount())
-                .setUtilizationPercent(status.getDiskStats().getUtilizationPercent())
-                .build();
+                .setUtilizationPercent(status.getDiskStats().getUtilizationPercent());
+        org.distributed.stumatchdistributed.grpc.GroupCommitStats groupCommit = node.getGroupCommitStats();
+        if (groupCommit != null) {
+            response.setGroupCommit(groupCommit);
+        }
 
-        responseObserver.onNext(response);
+        responseObserver.onNext(response.build());
         responseObserver.onCompleted();
     }
 }
@@ -0,0 +1,195 @@
+package org.distributed.stumatchdistributed.node;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches durability requests of concurrent writers into shared forces.
+ *
+ * Writers call {@link #commit(long)} after their data is written and wait on the
+ * returned future. A single sync thread forces the device once per batch:
+ * - A batch opens with its first commit and is forced when the window has
+ *   elapsed or the batch holds {@code maxBatchBytes}, whichever comes first
+ * - Commits arriving while a force runs join the next batch, so even with a
+ *   zero window N concurrent writers cost about two forces instead of N
+ * - A failed force fails every writer of its batch
+ *
+ * Batch sizes and commit latencies are recorded for tuning the window
+ * (see {@link #getStats()}).
+ *
+ * @author Your Name
+ * @version 1.1
+ */
+final class GroupCommitter {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+    /**
+     * Forces written data to stable storage.
+     */
+    @FunctionalInterface
+    interface SyncAction {
+        void sync() throws IOException;
+    }
+
+    private final SyncAction syncAction;
+    private final long windowNanos;
+    private final long maxBatchBytes;
+    private final ExecutorService syncer;
+
+    // Batch collecting commits for the next force (guarded by this)
+    private Batch pending;
+    private boolean syncScheduled;
+
+    private final Histogram batchCommits = new Histogram();
+    private final Histogram batchBytes = new Histogram();
+    private final Histogram commitLatencyMicros = new Histogram();
+    private final Histogram forceMicros = new Histogram();
+
+    private static final class Batch {
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+        final long openedNanos = System.nanoTime();
+        int commits;
+        long bytes;
+    }
+
+    /**
+     * @param windowMicros How long a batch stays open for more commits (0 = force as soon as possible)
+     * @param maxBatchBytes Forces the batch early once it holds this many bytes
+     */
+    GroupCommitter(String name, SyncAction syncAction, long windowMicros, long maxBatchBytes) {
+        this.syncAction = syncAction;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchBytes = maxBatchBytes;
+        this.syncer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name + "-group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests durability of everything written so far.
+     *
+     * @param bytes Bytes the caller wrote (counts toward the batch threshold)
+     * @return completes once a force that started after this call has finished
+     */
+    CompletableFuture<Void> commit(long bytes) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            if (pending == null) {
+                pending = new Batch();
+            }
+            Batch batch = pending;
+            batch.commits++;
+            batch.bytes += bytes;
+            durable = batch.durable;
+
+            if (!syncScheduled) {
+                try {
+                    syncer.execute(this::syncBatches);
+                    syncScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    pending = null;
+                    durable.completeExceptionally(new IOException("Group committer is shut down", e));
+                    return durable;
+                }
+            } else if (batch.bytes >= maxBatchBytes) {
+                notifyAll();
+            }
+        }
+        durable.whenComplete((ignored, error) -> commitLatencyMicros.record(
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos)));
+        return durable;
+    }
+
+    /**
+     * Forces batch after batch until no commit is waiting.
+     */
+    private void syncBatches() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                if (pending == null) {
+                    syncScheduled = false;
+                    return;
+                }
+                awaitBatchReady();
+                batch = pending;
+                pending = null;
+            }
+
+            long forceStart = System.nanoTime();
+            try {
+                syncAction.sync();
+                forceMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - forceStart));
+                batchCommits.record(batch.commits);
+                batchBytes.record(batch.bytes);
+                batch.durable.complete(null);
+            } catch (IOException | RuntimeException e) {
+                log.error("❌ Group commit of {} write(s) failed", batch.commits, e);
+                batch.durable.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Keeps the pending batch open until its window has elapsed or it is full.
+     * Called holding the monitor; commits wait on it only while joining.
+     */
+    private void awaitBatchReady() {
+        long deadline = pending.openedNanos + windowNanos;
+        long remaining;
+        while (pending.bytes < maxBatchBytes && (remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Batch size and latency histograms since the node started.
+     */
+    org.distributed.stumatchdistributed.grpc.GroupCommitStats getStats() {
+        Histogram.Snapshot commits = batchCommits.snapshot();
+        Histogram.Snapshot bytes = batchBytes.snapshot();
+        Histogram.Snapshot latency = commitLatencyMicros.snapshot();
+        Histogram.Snapshot force = forceMicros.snapshot();
+        return org.distributed.stumatchdistributed.grpc.GroupCommitStats.newBuilder()
+                .setWindowMicros(TimeUnit.NANOSECONDS.toMicros(windowNanos))
+                .setMaxBatchBytes(maxBatchBytes)
+                .setForces(commits.count())
+                .setBatchCommits(toProto(commits))
+                .setBatchBytes(toProto(bytes))
+                .setCommitLatencyMicros(toProto(latency))
+                .setForceMicros(toProto(force))
+                .build();
+    }
+
+    private static org.distributed.stumatchdistributed.grpc.HistogramSummary toProto(Histogram.Snapshot snapshot) {
+        return org.distributed.stumatchdistributed.grpc.HistogramSummary.newBuilder()
+                .setCount(snapshot.count())
+                .setMean(snapshot.mean())
+                .setP50(snapshot.p50())
+                .setP99(snapshot.p99())
+                .setMax(snapshot.max())
+                .build();
+    }
+
+    /**
+     * Stops the sync thread after forcing the batches already requested.
+     */
+    void shutdown() {
+        syncer.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package org.distributed.stumatchdistributed.node;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with power-of-two buckets.
+ *
+ * Bucket i counts values in [2^(i-1), 2^i), so percentiles are exact to within
+ * a factor of two, which is enough to tune a batching window. Recording is a
+ * couple of atomic increments and safe from any thread.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long value) {
+        long v = Math.max(0, value);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Point-in-time summary. Concurrent recordings may be partially included.
+     */
+    Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long n = count.sum();
+        long maxValue = max.get();
+        return new Snapshot(n, n > 0 ? sum.sum() / (double) n : 0,
+                Math.min(maxValue, percentile(counts, total, 0.50)),
+                Math.min(maxValue, percentile(counts, total, 0.99)), maxValue);
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile.
+     */
+    private static long percentile(long[] counts, long total, double fraction) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    record Snapshot(long count, double mean, long p50, long p99, long max) {}
+}
@@ -7,6 +7,9 @@ import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
 /**
  * gRPC service implementation for node operations.
  *
@@ -50,7 +53,8 @@ public class NodeServiceImpl extends org.distributed.stumatchdistributed.grpc.No
     public void storeChunk(org.distributed.stumatchdistributed.grpc.StoreChunkRequest request,
                            StreamObserver<org.distributed.stumatchdistributed.grpc.StoreChunkResponse> responseObserver) {
         String chunkId = request.getChunkId();
-        byte[] data = request.getData().toByteArray();
+        // Passed on as is: the node writes the message's buffers without an intermediate array
+        com.google.protobuf.ByteString data = request.getData();
 
         log.debug("gRPC request received: storeChunk({})", chunkId);
 
@@ -84,6 +88,62 @@ public class NodeServiceImpl extends org.distributed.stumatchdistributed.grpc.No
         }
     }
 
+    /**
+     * Handles batched storage of small chunks via gRPC.
+     *
+     * Protocol:
+     * 1. Client sends many (chunk_id, data) pairs in one StoreChunksBatchRequest
+     * 2. Node stores each chunk and makes the whole batch durable at once
+     * 3. Returns one StoreChunkResponse per chunk, in request order
+     *
+     * @param request Chunks to store
+     * @param responseObserver Callback for sending the per-chunk results
+     */
+    @Override
+    public void storeChunksBatch(org.distributed.stumatchdistributed.grpc.StoreChunksBatchRequest request,
+                                 StreamObserver<org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse> responseObserver) {
+        log.debug("gRPC request received: storeChunksBatch({} chunks)", request.getChunksCount());
+
+        try {
+            boolean[] stored = node.storeChunks(request.getChunksList());
+
+            org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse.Builder response =
+                    org.distributed.stumatchdistributed.grpc.StoreChunksBatchResponse.newBuilder();
+            for (boolean success : stored) {
+                response.addResults(org.distributed.stumatchdistributed.grpc.StoreChunkResponse.newBuilder()
+                        .setSuccess(success)
+                        .setMessage(success ? "Chunk stored successfully" : "Insufficient storage space"));
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error storing chunk batch via gRPC", e);
+            responseObserver.onError(io.grpc.Status.INTERNAL
+                    .withDescription("Internal error: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    /**
+     * Handles streamed chunk uploads via gRPC.
+     *
+     * Protocol:
+     * 1. Client sends the chunk as a sequence of fixed-size ChunkFrames
+     * 2. Each frame is written to disk as it arrives
+     * 3. On half-close the chunk is committed and one StoreChunkResponse is returned
+     *
+     * @param responseObserver Callback for sending the final response
+     * @return Observer receiving the client's frames
+     */
+    @Override
+    public StreamObserver<org.distributed.stumatchdistributed.grpc.ChunkFrame> storeChunkStream(
+            StreamObserver<org.distributed.stumatchdistributed.grpc.StoreChunkResponse> responseObserver) {
+        log.debug("gRPC stream opened: storeChunkStream()");
+        return new ChunkFrameReceiver(node::openChunkWriter, responseObserver);
+    }
+
     /**
      * Handles chunk retrieval requests via gRPC.
      *
@@ -98,15 +158,15 @@ public class NodeServiceImpl extends org.distributed.stumatchdistributed.grpc.No
         log.debug("gRPC request received: retrieveChunk({})", chunkId);
 
         try {
-            // Delegate to business logic
-            byte[] data = node.retrieveChunk(chunkId);
+            // Delegate to business logic (one read into a heap buffer, no further copy)
+            ByteString data = node.retrieveChunkData(chunkId);
 
             // Build response
             org.distributed.stumatchdistributed.grpc.RetrieveChunkResponse.Builder responseBuilder = org.distributed.stumatchdistributed.grpc.RetrieveChunkResponse.newBuilder();
 
             if (data != null) {
                 responseBuilder
-                        .setData(ByteString.copyFrom(data))
+                        .setData(data)
                         .setSuccess(true);
             } else {
                 responseBuilder.setSuccess(false);
@@ -129,6 +189,61 @@ public class NodeServiceImpl extends org.distributed.stumatchdistributed.grpc.No
         }
     }
 
+    /**
+     * Handles ranged chunk reads via gRPC.
+     *
+     * Streams the requested range back as fixed-size ChunkFrames read from the
+     * chunk file, so serving a range never reads the rest of the chunk.
+     *
+     * @param request Chunk ID, offset and length (0 = until end of chunk)
+     * @param responseObserver Stream receiving the frames
+     */
+    @Override
+    public void retrieveChunkStream(org.distributed.stumatchdistributed.grpc.RetrieveChunkStreamRequest request,
+                                    StreamObserver<org.distributed.stumatchdistributed.grpc.ChunkFrame> responseObserver) {
+        log.debug("gRPC request received: retrieveChunkStream({}, offset={}, length={})",
+                request.getChunkId(), request.getOffset(), request.getLength());
+
+        // The sender owns the channel and closes it when the stream ends
+        FileChannel channel = node.openChunkChannel(request.getChunkId());
+        long size = 0;
+        if (channel != null) {
+            try {
+                size = channel.size();
+            } catch (IOException e) {
+                log.error("Failed to read chunk {}", request.getChunkId(), e);
+                try {
+                    channel.close();
+                } catch (IOException ignored) {}
+                responseObserver.onError(io.grpc.Status.INTERNAL
+                        .withDescription("Failed to read chunk: " + e.getMessage())
+                        .asRuntimeException());
+                return;
+            }
+        }
+        ChunkFrameSender.send(request, channel, 0, size, channel, responseObserver);
+    }
+
+    /**
+     * Handles chunk deletion requests via gRPC.
+     * Sent by the coordinator once no file references the chunk any more.
+     *
+     * @param request Contains chunk ID to delete
+     * @param responseObserver Callback for sending response
+     */
+    @Override
+    public void deleteChunk(org.distributed.stumatchdistributed.grpc.DeleteChunkRequest request,
+                            StreamObserver<org.distributed.stumatchdistributed.grpc.DeleteChunkResponse> responseObserver) {
+        log.debug("gRPC request received: deleteChunk({})", request.getChunkId());
+
+        boolean deleted = node.deleteChunk(request.getChunkId());
+
+        responseObserver.onNext(org.distributed.stumatchdistributed.grpc.DeleteChunkResponse.newBuilder()
+                .setDeleted(deleted)
+                .build());
+        responseObserver.onCompleted();
+    }
+
     /**
      * Handles node status requests via gRPC.
      *
@@ -145,15 +260,18 @@ public class NodeServiceImpl extends org.distributed.stumatchdistributed.grpc.No
             NodeStatus status = node.getStatus();
 
             // Convert to protocol buffer format
-            org.distributed.stumatchdistributed.grpc.StatusResponse response = org.distributed.stumatchdistributed.grpc.StatusResponse.newBuilder()
+            org.distributed.stumatchdistributed.grpc.StatusResponse.Builder response = org.distributed.stumatchdistributed.grpc.StatusResponse.newBuilder()
                     .setNodeId(status.getNodeId())
                     .setUsedStorage(status.getUsedStorageBytes())
                     .setTotalStorage(status.getTotalStorageBytes())
                     .setNumChunks(status.getNumChunks())
-                    .setUtilizationPercent(status.getUtilizationPercent())
-                    .build();
+                    .setUtilizationPercent(status.getUtilizationPercent());
+            org.distributed.stumatchdistributed.grpc.GroupCommitStats groupCommit = node.getGroupCommitStats();
+            if (groupCommit != null) {
+                response.setGroupCommit(groupCommit);
+            }
 
-            responseObserver.onNext(response);
+            responseObserver.onNext(response.build());
             responseObserver.onCompleted();
 
             log.debug("gRPC response sent: status={}", status);
@@ -4,17 +4,36 @@ import lombok.Getter;
 import org.distributed.stumatchdistributed.model.NodeStatus;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import org.distributed.stumatchdistributed.service.StorageMetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Objects;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Storage Node with REAL FILE STORAGE.
@@ -25,6 +44,12 @@ import java.util.concurrent.TimeUnit;
  * - Can see and verify files in file explorer
  * - Storage persists across restarts
  *
+ * Concurrency:
+ * - Reads take no lock (chunk files are replaced by rename, never modified in place)
+ * - Writes and deletes lock only their chunk (striped locks), and only for the rename
+ * - Used storage is an atomic counter; writes reserve their size before
+ *   transferring, so concurrent writes cannot overcommit the node
+ *
  * @author Your Name
  * @version 2.0 (Real Storage)
  */
@@ -41,13 +66,35 @@ public class StorageNode {
     private final long totalRamBytes;
     private final int cpuCores;
     private final long bandwidthBitsPerSecond;
+    // Optional write budget shared by all transfers on this node (off by default)
+    private final TokenBucketRateLimiter writeThrottle;
+    private final DurabilityMode durabilityMode;
+    // Shares storage directory forces between concurrent writes (GROUP_COMMIT)
+    private final GroupCommitter groupCommitter;
+    // Forces the part files of a batch in parallel (threads start on first use)
+    private static final int BATCH_FORCE_THREADS = 8;
+    private final ExecutorService batchForceExecutor;
 
     // REAL STORAGE: Path to this node's storage directory
     @Getter
     private final Path storageDirectory;
 
-    // Track used storage (by reading actual files)
-    private long usedStorageBytes;
+    // Bytes of stored chunks plus space reserved by writes still in progress
+    private final AtomicLong usedStorageBytes;
+
+    // Kept incrementally on store/delete, so status never walks the directory;
+    // a periodic scan corrects drift (e.g. files removed by hand)
+    private final AtomicLong storedChunkBytes = new AtomicLong();
+    private final AtomicInteger storedChunkCount = new AtomicInteger();
+    // Bumped by every store/delete; a scan is only trusted if nothing changed meanwhile
+    private final AtomicLong storageMutations = new AtomicLong();
+    private final long reconcileIntervalSeconds;
+    private ScheduledExecutorService reconcileExecutor;
+
+    // Striped per-chunk locks: operations on the same chunk serialize,
+    // operations on different chunks (and all reads) run in parallel
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] chunkLocks;
 
     // gRPC server
     private Server server;
@@ -63,12 +110,33 @@ public class StorageNode {
         this.totalRamBytes = builder.ramGB * 1024L * 1024 * 1024;
         this.cpuCores = builder.cpuCores;
         this.bandwidthBitsPerSecond = builder.bandwidthMbps * 1_000_000L;
+        this.writeThrottle = TokenBucketRateLimiter.forMbps(builder.throttleMbps);
+        this.durabilityMode = builder.durabilityMode;
+        this.reconcileIntervalSeconds = builder.reconcileIntervalSeconds;
 
         // REAL STORAGE: Create directory for this node
-        this.storageDirectory = createStorageDirectory();
+        this.storageDirectory = createStorageDirectory(builder.storageBaseDir);
 
         // Calculate used storage from existing files
-        this.usedStorageBytes = calculateUsedStorage();
+        deleteStalePartFiles();
+        StorageScan initial = scanStorage();
+        this.storedChunkBytes.set(initial.bytes());
+        this.storedChunkCount.set(initial.chunks());
+        this.usedStorageBytes = new AtomicLong(initial.bytes());
+        log.info("📊 Calculated used storage: {} bytes from {} chunks", initial.bytes(), initial.chunks());
+
+        this.groupCommitter = new GroupCommitter(nodeId, this::forceDirectory,
+                builder.groupCommitWindowMicros, builder.groupCommitMaxBatchKb * 1024L);
+        this.batchForceExecutor = Executors.newFixedThreadPool(BATCH_FORCE_THREADS, r -> {
+            Thread thread = new Thread(r, nodeId + "-batch-force");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.chunkLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.chunkLocks[i] = new ReentrantLock();
+        }
 
         logNodeCreation();
     }
@@ -86,11 +154,8 @@ public class StorageNode {
      *   └── node3/
      *       ├── chunk_001.dat
      */
-    private Path createStorageDirectory() {
+    private Path createStorageDirectory(Path baseDir) {
         try {
-            // Base directory on your computer
-            Path baseDir = Paths.get(System.getProperty("user.home"), "distributed-storage");
-
             // Node-specific directory
             Path nodeDir = baseDir.resolve(nodeId);
 
@@ -111,32 +176,72 @@ public class StorageNode {
     }
 
     /**
-     * Calculates used storage by scanning actual files.
-     * This is how you PROVE storage is real!
+     * Totals of the chunk files found by a directory scan.
      */
-    private long calculateUsedStorage() {
-        try {
-            long totalSize = 0;
+    private record StorageScan(long bytes, int chunks) {}
 
-            File dir = storageDirectory.toFile();
-            File[] files = dir.listFiles();
+    /**
+     * A chunk file renamed into place by one store.
+     *
+     * @param created false if it replaced a copy of the chunk that was already stored
+     * @param fileKey Identity of the installed file (see {@link #removeInstalled})
+     */
+    private record InstalledChunk(Path file, boolean created, Object fileKey) {}
 
-            if (files != null) {
-                for (File file : files) {
-                    if (file.isFile()) {
-                        totalSize += file.length();
-                    }
+    /**
+     * Calculates used storage by scanning actual files.
+     * This is how you PROVE storage is real!
+     * O(number of chunks): only used at startup and by {@link #reconcileStorage()}.
+     */
+    private StorageScan scanStorage() {
+        long totalSize = 0;
+        int chunks = 0;
+
+        File[] files = storageDirectory.toFile().listFiles((dir, name) -> name.endsWith(".dat"));
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    totalSize += file.length();
+                    chunks++;
                 }
             }
+        }
+        return new StorageScan(totalSize, chunks);
+    }
 
-            log.info("📊 Calculated used storage: {} bytes from {} files",
-                    totalSize, files != null ? files.length : 0);
-
-            return totalSize;
+    /**
+     * Compares the incremental counters with the files on disk and corrects them.
+     * The correction is skipped if a store or delete ran during the scan, since the
+     * scan may then have seen a half-applied change; the next run catches up.
+     *
+     * @return true if the counters were verified (and corrected if needed)
+     */
+    public boolean reconcileStorage() {
+        long mutationsBefore = storageMutations.get();
+        StorageScan scan = scanStorage();
 
-        } catch (Exception e) {
-            log.error("Failed to calculate storage", e);
-            return 0;
+        // Holding every stripe keeps stores and deletes out while the correction is applied
+        for (ReentrantLock lock : chunkLocks) {
+            lock.lock();
+        }
+        try {
+            if (storageMutations.get() != mutationsBefore) {
+                log.debug("Storage changed during reconciliation scan, retrying later");
+                return false;
+            }
+            long byteDrift = scan.bytes() - storedChunkBytes.get();
+            int chunkDrift = scan.chunks() - storedChunkCount.get();
+            if (byteDrift != 0 || chunkDrift != 0) {
+                log.warn("⚠️ Storage counters drifted by {} bytes / {} chunks, corrected", byteDrift, chunkDrift);
+                storedChunkBytes.addAndGet(byteDrift);
+                storedChunkCount.addAndGet(chunkDrift);
+                usedStorageBytes.addAndGet(byteDrift);
+            }
+            return true;
+        } finally {
+            for (ReentrantLock lock : chunkLocks) {
+                lock.unlock();
+            }
         }
     }
 
@@ -153,6 +258,19 @@ public class StorageNode {
         log.info("🌐 Ready to accept storage requests");
         log.info("💾 Storage location: {}", storageDirectory.toAbsolutePath());
 
+        reconcileExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, nodeId + "-storage-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconcileExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                reconcileStorage();
+            } catch (RuntimeException e) {
+                log.error("Storage reconciliation failed", e);
+            }
+        }, reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             log.warn("⚠️ Shutting down node {}", nodeId);
             try {
@@ -169,6 +287,11 @@ public class StorageNode {
      * Stops the gRPC server gracefully.
      */
     public void stop() throws InterruptedException {
+        if (reconcileExecutor != null) {
+            reconcileExecutor.shutdownNow();
+        }
+        groupCommitter.shutdown();
+        batchForceExecutor.shutdownNow();
         if (server != null) {
             server.shutdown().awaitTermination(30, TimeUnit.SECONDS);
             log.info("Node {} stopped", nodeId);
@@ -184,15 +307,16 @@ public class StorageNode {
      * @param data Chunk data
      * @return true if stored successfully
      */
-    public synchronized boolean storeChunk(String chunkId, byte[] data) {
-        long chunkSize = data.length;
+    public boolean storeChunk(String chunkId, byte[] data) {
+        return storeChunk(chunkId, UnsafeByteOperations.unsafeWrap(data));
+    }
 
-        // Check capacity
-        if (usedStorageBytes + chunkSize > totalStorageBytes) {
-            log.warn("❌ Insufficient storage for chunk {} (need {} bytes, available {} bytes)",
-                    chunkId, chunkSize, totalStorageBytes - usedStorageBytes);
-            return false;
-        }
+    /**
+     * Stores a chunk received over gRPC; its buffers are written as they are,
+     * without first copying them into one array.
+     */
+    public boolean storeChunk(String chunkId, ByteString data) {
+        long chunkSize = data.size();
 
         // ENHANCED: Show start time
         String startTime = java.time.LocalTime.now().format(
@@ -207,57 +331,34 @@ public class StorageNode {
         log.info("║  Start Time:  {}                          ║", startTime);
         log.info("╚═══════════════════════════════════════════════════════╝");
 
-        // Simulate transfer with progress
-        long transferTimeMs = (chunkSize * 8 * 1000) / bandwidthBitsPerSecond;
-
-        try {
-            log.info("⏳ Transferring... [          ]   0%");
-            Thread.sleep(transferTimeMs / 4);
-            log.info("⏳ Transferring... [██        ]  25%");
-            Thread.sleep(transferTimeMs / 4);
-            log.info("⏳ Transferring... [████      ]  50%");
-            Thread.sleep(transferTimeMs / 4);
-            log.info("⏳ Transferring... [███████   ]  75%");
-            Thread.sleep(transferTimeMs / 4);
-            log.info("⏳ Transferring... [██████████] 100%");
-
-            // ═══════════════════════════════════════════════════════
-            // CRITICAL PART: WRITE TO ACTUAL FILE ON DISK
-            // ═══════════════════════════════════════════════════════
-
-            Path chunkFile = storageDirectory.resolve(chunkId + ".dat");
-            Files.write(chunkFile, data);
-
-            log.info("💾 Chunk written to disk: {}", chunkFile.toAbsolutePath());
+        long transferStart = System.nanoTime();
 
-            // ═══════════════════════════════════════════════════════
-
-            // Update used storage
-            usedStorageBytes += chunkSize;
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Transfer interrupted", e);
+        InstalledChunk installed = writeChunk(chunkId, data);
+        if (installed == null) {
             return false;
-        } catch (IOException e) {
-            log.error("Failed to write chunk to disk", e);
+        }
+        if (!makeDurable(chunkSize)) {
+            // Reported as failed, so it must not stay counted as stored
+            removeInstalled(chunkId, installed);
             return false;
         }
+        log.info("💾 Chunk written to disk: {}", installed.file().toAbsolutePath());
 
         // Show end time
         String endTime = java.time.LocalTime.now().format(
                 java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
         );
 
-        double utilizationPercent = (usedStorageBytes * 100.0) / totalStorageBytes;
-        int numFiles = Objects.requireNonNull(storageDirectory.toFile().listFiles()).length;
+        long transferTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - transferStart);
+        double utilizationPercent = (usedStorageBytes.get() * 100.0) / totalStorageBytes;
+        int numFiles = storedChunkCount.get();
 
         log.info("╔═══════════════════════════════════════════════════════╗");
         log.info("║  ✅ TRANSFER COMPLETE                                 ║");
         log.info("╠═══════════════════════════════════════════════════════╣");
         log.info("║  End Time:        {}                      ║", endTime);
         log.info("║  Duration:        {} ms                        ║", String.format("%-26s", transferTimeMs));
-        log.info("║  Total Stored:    {}                         ║", String.format("%-26s", formatBytes(usedStorageBytes)));
+        log.info("║  Total Stored:    {}                         ║", String.format("%-26s", formatBytes(usedStorageBytes.get())));
         log.info("║  Utilization:     {}%%                         ║", String.format("%.2f", utilizationPercent));
         log.info("║  Files on Disk:   {}                              ║", numFiles);
         log.info("║  Location:        {}   ║", storageDirectory.toAbsolutePath());
@@ -267,29 +368,422 @@ public class StorageNode {
         return true;
     }
 
+    /**
+     * Stores a batch of small chunks (used by the StoreChunksBatch RPC).
+     *
+     * 1. Every chunk is written to its ".part" file, without forcing it
+     * 2. The part files are forced concurrently, so the device sees the whole
+     *    batch at once instead of one fsync after another
+     * 3. Each chunk is renamed into place, and the renames are made durable once
+     *    (one directory force or group commit for the batch)
+     *
+     * If the renames cannot be made durable, the batch's chunks are reported as
+     * failed and the chunk files this batch created are removed again, so a failed
+     * chunk never stays counted as stored. Chunks the node already held (chunk IDs
+     * are content hashes, so the same chunk is often sent again) are kept.
+     *
+     * @param chunks Chunk IDs and data
+     * @return per-chunk results, in request order
+     */
+    public boolean[] storeChunks(List<org.distributed.stumatchdistributed.grpc.StoreChunkRequest> chunks) {
+        Path[] partFiles = new Path[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            org.distributed.stumatchdistributed.grpc.StoreChunkRequest chunk = chunks.get(i);
+            partFiles[i] = writePartFile(chunk.getChunkId(), chunk.getData(), false);
+        }
+        forceAll(chunks, partFiles);
+
+        InstalledChunk[] installed = new InstalledChunk[chunks.size()];
+        boolean[] stored = new boolean[chunks.size()];
+        long storedBytes = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            org.distributed.stumatchdistributed.grpc.StoreChunkRequest chunk = chunks.get(i);
+            installed[i] = partFiles[i] != null ? installPartFile(chunk.getChunkId(), partFiles[i], chunk.getData().size()) : null;
+            stored[i] = installed[i] != null;
+            if (stored[i]) {
+                storedBytes += chunk.getData().size();
+            }
+        }
+
+        if (storedBytes > 0 && !makeDurable(storedBytes)) {
+            for (int i = 0; i < chunks.size(); i++) {
+                if (stored[i]) {
+                    removeInstalled(chunks.get(i).getChunkId(), installed[i]);
+                    stored[i] = false;
+                }
+            }
+            storedBytes = 0;
+        }
+
+        int succeeded = 0;
+        for (boolean result : stored) {
+            if (result) {
+                succeeded++;
+            }
+        }
+        log.info("📦 Stored batch of {}/{} chunk(s) ({}), total stored: {}",
+                succeeded, chunks.size(), formatBytes(storedBytes), formatBytes(usedStorageBytes.get()));
+        return stored;
+    }
+
+    /**
+     * Forces the written part files of a batch in parallel. A part file that
+     * cannot be forced is dropped (its entry set to null) and its space released.
+     */
+    private void forceAll(List<org.distributed.stumatchdistributed.grpc.StoreChunkRequest> chunks, Path[] partFiles) {
+        if (durabilityMode == DurabilityMode.NONE) {
+            return;
+        }
+        List<Future<?>> forces = new ArrayList<>();
+        for (Path partFile : partFiles) {
+            forces.add(partFile == null ? null : batchForceExecutor.submit(() -> {
+                try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.WRITE)) {
+                    channel.force(false);
+                }
+                return null;
+            }));
+        }
+
+        for (int i = 0; i < partFiles.length; i++) {
+            if (forces.get(i) == null) {
+                continue;
+            }
+            try {
+                forces.get(i).get();
+                continue;
+            } catch (ExecutionException e) {
+                log.error("Failed to force chunk {} to disk", chunks.get(i).getChunkId(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while forcing chunk {} to disk", chunks.get(i).getChunkId());
+            }
+            releaseStorage(chunks.get(i).getData().size());
+            deleteQuietly(partFiles[i]);
+            partFiles[i] = null;
+        }
+    }
+
+    /**
+     * Writes a chunk to a ".part" file and renames it into place. Capacity is
+     * reserved first, so concurrent stores cannot overcommit the node.
+     * The rename is not yet durable (see {@link #makeDurable(long)}).
+     *
+     * @return the installed chunk, or null if the chunk does not fit or the write failed
+     */
+    private InstalledChunk writeChunk(String chunkId, ByteString data) {
+        Path partFile = writePartFile(chunkId, data, true);
+        return partFile != null ? installPartFile(chunkId, partFile, data.size()) : null;
+    }
+
+    /**
+     * Reserves capacity for a chunk and writes it to a new ".part" file.
+     * On failure the reservation is released and nothing is left behind.
+     *
+     * @param force Whether to force the data before returning (see {@link #forceData})
+     * @return the part file, or null if the chunk does not fit or the write failed
+     */
+    private Path writePartFile(String chunkId, ByteString data, boolean force) {
+        long chunkSize = data.size();
+
+        // Reserve capacity up front; concurrent stores cannot overcommit the node
+        if (!reserveStorage(chunkSize)) {
+            log.warn("❌ Insufficient storage for chunk {} (need {} bytes, available {} bytes)",
+                    chunkId, chunkSize, totalStorageBytes - usedStorageBytes.get());
+            return null;
+        }
+        boolean written = false;
+        Path partFile = null;
+
+        try {
+            // Only waits when a throttle budget is configured; holds no lock
+            writeThrottle.acquire(chunkSize);
+
+            // ═══════════════════════════════════════════════════════
+            // CRITICAL PART: WRITE TO ACTUAL FILE ON DISK
+            // ═══════════════════════════════════════════════════════
+
+            // Write next to the chunk and rename over it: a chunk file is never
+            // truncated in place, which would break readers that have it open
+            partFile = createPartFile(chunkId);
+            try (FileChannel out = FileChannel.open(partFile, StandardOpenOption.WRITE)) {
+                for (ByteBuffer buffer : data.asReadOnlyByteBufferList()) {
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+                if (force) {
+                    forceData(out);
+                }
+            }
+            written = true;
+            return partFile;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Transfer interrupted", e);
+            return null;
+        } catch (IOException e) {
+            log.error("Failed to write chunk to disk", e);
+            return null;
+        } finally {
+            if (!written) {
+                releaseStorage(chunkSize);
+                deleteQuietly(partFile);
+            }
+        }
+    }
+
+    /**
+     * Renames a written part file into place; on failure releases its reservation.
+     *
+     * @return the installed chunk, or null if the rename failed
+     */
+    private InstalledChunk installPartFile(String chunkId, Path partFile, long chunkSize) {
+        try {
+            return installChunk(chunkId, partFile);
+        } catch (IOException e) {
+            log.error("Failed to write chunk to disk", e);
+            releaseStorage(chunkSize);
+            deleteQuietly(partFile);
+            return null;
+        }
+    }
+
+    /**
+     * Waits until installed chunks are durable, logging a failure.
+     *
+     * @param bytes Size of the chunks (counts toward the group commit batch)
+     * @return false if the chunks are stored but could not be made durable
+     */
+    private boolean makeDurable(long bytes) {
+        try {
+            awaitDurable(bytes);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to write chunk to disk", e);
+            return false;
+        }
+    }
+
+    /**
+     * Opens a streaming writer for a chunk (used by the StoreChunkStream RPC).
+     *
+     * Frames are appended to a temporary ".part" file which is renamed to the
+     * final chunk file on commit, so readers never see a half-written chunk.
+     * The chunk's size is reserved when the writer opens and released on abort.
+     * Frames are written as they arrive, subject only to the optional write throttle.
+     *
+     * @param chunkId Unique identifier
+     * @param totalSize Size of the complete chunk in bytes
+     * @return writer, or null if the chunk does not fit on this node
+     * @throws IOException if the temporary file cannot be created
+     */
+    public ChunkWriter openChunkWriter(String chunkId, long totalSize) throws IOException {
+        if (!reserveStorage(totalSize)) {
+            log.warn("❌ Insufficient storage for streamed chunk {} (need {} bytes, available {} bytes)",
+                    chunkId, totalSize, totalStorageBytes - usedStorageBytes.get());
+            return null;
+        }
+
+        log.info("📥 Incoming chunk stream: {} ({})", chunkId, formatBytes(totalSize));
+        try {
+            return new FileChunkWriter(chunkId, totalSize);
+        } catch (IOException e) {
+            releaseStorage(totalSize);
+            throw e;
+        }
+    }
+
+    /**
+     * Atomically renames a fully written ".part" file over the chunk file.
+     * The new size was reserved by the caller; the replaced version's size is released.
+     *
+     * @return the installed chunk
+     */
+    private InstalledChunk installChunk(String chunkId, Path partFile) throws IOException {
+        Path chunkFile = storageDirectory.resolve(chunkId + ".dat");
+        ReentrantLock lock = lockFor(chunkId);
+        lock.lock();
+        try {
+            boolean replacing = Files.exists(chunkFile);
+            long previousSize = replacing ? Files.size(chunkFile) : 0;
+            long newSize = Files.size(partFile);
+            // The rename keeps the file's identity
+            Object fileKey = fileKey(partFile);
+            Files.move(partFile, chunkFile, StandardCopyOption.ATOMIC_MOVE);
+
+            storageMutations.incrementAndGet();
+            storedChunkBytes.addAndGet(newSize - previousSize);
+            if (!replacing) {
+                storedChunkCount.incrementAndGet();
+            }
+            releaseStorage(previousSize);
+            return new InstalledChunk(chunkFile, !replacing, fileKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces a chunk's data before it is renamed into place, unless durability is off.
+     * Each chunk is its own file, so its data needs its own force; the forces of
+     * concurrent writers run in parallel and the file system journal batches them.
+     */
+    private void forceData(FileChannel channel) throws IOException {
+        if (durabilityMode != DurabilityMode.NONE) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Makes a chunk's rename durable according to the durability mode: the storage
+     * directory is forced per chunk, or once per group-commit batch.
+     *
+     * @param bytes Size of the chunk (counts toward the group commit batch)
+     */
+    private void awaitDurable(long bytes) throws IOException {
+        switch (durabilityMode) {
+            case NONE -> { }
+            case FSYNC_PER_CHUNK -> forceDirectory();
+            case GROUP_COMMIT -> {
+                try {
+                    groupCommitter.commit(bytes).join();
+                } catch (CompletionException e) {
+                    throw new IOException("Chunk stored but not durable", e.getCause());
+                }
+            }
+        }
+    }
+
+    private void forceDirectory() throws IOException {
+        FileChannel directory;
+        try {
+            directory = FileChannel.open(storageDirectory, StandardOpenOption.READ);
+        } catch (AccessDeniedException e) {
+            // Windows cannot open directories; NTFS journals the rename itself
+            return;
+        }
+        try (directory) {
+            directory.force(true);
+        }
+    }
+
+    /**
+     * Group commit batch and latency histograms, or null if writes are not group-committed.
+     */
+    public org.distributed.stumatchdistributed.grpc.GroupCommitStats getGroupCommitStats() {
+        return durabilityMode == DurabilityMode.GROUP_COMMIT ? groupCommitter.getStats() : null;
+    }
+
+    /**
+     * Writes streamed frames of one chunk to its ".part" file.
+     */
+    private class FileChunkWriter implements ChunkWriter {
+        private final String chunkId;
+        private final long totalSize;
+        private final Path partFile;
+        private final FileChannel channel;
+        private boolean finished;
+
+        FileChunkWriter(String chunkId, long totalSize) throws IOException {
+            this.chunkId = chunkId;
+            this.totalSize = totalSize;
+            this.partFile = createPartFile(chunkId);
+            this.channel = FileChannel.open(partFile, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public void write(ByteBuffer frame) throws IOException {
+            try {
+                writeThrottle.acquire(frame.remaining());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttled");
+            }
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        }
+
+        @Override
+        public boolean commit() throws IOException {
+            forceData(channel);
+            channel.close();
+            Path chunkFile = installChunk(chunkId, partFile).file();
+            finished = true;
+            awaitDurable(totalSize);
+
+            log.info("💾 Streamed chunk written to disk: {} ({})", chunkFile.toAbsolutePath(), formatBytes(totalSize));
+            return true;
+        }
+
+        @Override
+        public void abort() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            releaseStorage(totalSize);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close partial chunk {}", partFile, e);
+            }
+            deleteQuietly(partFile);
+        }
+    }
+
     /**
      * Retrieves a chunk from ACTUAL FILE on disk.
      *
      * @param chunkId Chunk identifier
      * @return Chunk data or null if not found
      */
-    public synchronized byte[] retrieveChunk(String chunkId) {
-        try {
-            Path chunkFile = storageDirectory.resolve(chunkId + ".dat");
+    public byte[] retrieveChunk(String chunkId) {
+        ByteString data = retrieveChunkData(chunkId);
+        return data != null ? data.toByteArray() : null;
+    }
 
-            if (!Files.exists(chunkFile)) {
-                log.warn("❌ Chunk file not found: {}", chunkFile);
-                return null;
-            }
+    /**
+     * Retrieves a chunk with one read into a heap buffer, wrapped as a ByteString
+     * without a further copy.
+     *
+     * Chunk files are not memory-mapped: a mapping lives until the buffer is
+     * garbage collected, and while it lives Windows refuses to rename over or
+     * delete the file (see installChunk and deleteChunk); on Linux unreleased
+     * mappings pile up against vm.max_map_count.
+     *
+     * Not synchronized: chunk files are never modified in place (new versions are
+     * renamed over the old file), so an open channel always sees one complete
+     * version and any number of readers can proceed concurrently.
+     *
+     * @param chunkId Chunk identifier
+     * @return Chunk data or null if not found
+     */
+    public ByteString retrieveChunkData(String chunkId) {
+        Path chunkFile = storageDirectory.resolve(chunkId + ".dat");
 
-            // Read from actual file
-            byte[] data = Files.readAllBytes(chunkFile);
+        try (FileChannel channel = FileChannel.open(chunkFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Chunk file too large: " + chunkFile);
+            }
 
-            log.info("📤 Retrieved chunk from disk: {} ({} bytes)",
-                    chunkId, data.length);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Chunk file shrank while reading: " + chunkFile);
+                }
+            }
+            buffer.flip();
+            ByteString data = UnsafeByteOperations.unsafeWrap(buffer);
 
+            log.info("📤 Retrieved chunk from disk: {} ({} bytes)", chunkId, size);
             return data;
 
+        } catch (java.nio.file.NoSuchFileException e) {
+            log.warn("❌ Chunk file not found: {}", chunkFile);
+            return null;
         } catch (IOException e) {
             log.error("Failed to read chunk from disk", e);
             return null;
@@ -297,18 +791,39 @@ public class StorageNode {
     }
 
     /**
-     * Gets current node status by scanning actual files.
+     * Opens a chunk file for ranged, frame-by-frame reads (used by RetrieveChunkStream).
+     * The caller owns the returned channel and must close it.
+     *
+     * @param chunkId Chunk identifier
+     * @return open read channel, or null if the chunk does not exist
      */
-    public synchronized NodeStatus getStatus() {
-        // Recalculate from actual files
-        usedStorageBytes = calculateUsedStorage();
+    public FileChannel openChunkChannel(String chunkId) {
+        Path chunkFile = storageDirectory.resolve(chunkId + ".dat");
+        try {
+            return FileChannel.open(chunkFile, StandardOpenOption.READ);
+        } catch (java.nio.file.NoSuchFileException e) {
+            log.warn("❌ Chunk file not found: {}", chunkFile);
+            return null;
+        } catch (IOException e) {
+            log.error("Failed to open chunk file {}", chunkFile, e);
+            return null;
+        }
+    }
 
-        double utilization = (usedStorageBytes * 100.0) / totalStorageBytes;
-        int numChunks = Objects.requireNonNull(storageDirectory.toFile().listFiles()).length;
+    /**
+     * Gets current node status in O(1).
+     * Used storage and chunk count come from counters kept on store/delete
+     * (used storage includes reservations of writes in progress), so status
+     * calls neither wait for a store nor walk the storage directory.
+     */
+    public NodeStatus getStatus() {
+        long used = usedStorageBytes.get();
+        double utilization = (used * 100.0) / totalStorageBytes;
+        int numChunks = storedChunkCount.get();
 
         return new NodeStatus(
                 nodeId,
-                usedStorageBytes,
+                used,
                 totalStorageBytes,
                 numChunks,
                 utilization
@@ -319,16 +834,59 @@ public class StorageNode {
      * Lists all chunks stored on this node.
      * Shows ACTUAL files on disk!
      */
-    public synchronized String[] listStoredChunks() {
+    public String[] listStoredChunks() {
         File dir = storageDirectory.toFile();
-        return dir.list((dir1, name) -> name.endsWith(".dat"));
+        String[] chunks = dir.list((dir1, name) -> name.endsWith(".dat"));
+        return chunks != null ? chunks : new String[0];
+    }
+
+    /**
+     * Rolls back a store whose rename could not be made durable: deletes the chunk
+     * file only if this store created it and it was not replaced since. A chunk the
+     * node already held stays, as its earlier copy was durable and other files may
+     * reference it.
+     */
+    private void removeInstalled(String chunkId, InstalledChunk installed) {
+        if (!installed.created()) {
+            return;
+        }
+        ReentrantLock lock = lockFor(chunkId);
+        lock.lock();
+        try {
+            Object current = fileKey(installed.file());
+            if (current != null && current.equals(installed.fileKey())) {
+                deleteChunk(chunkId);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to check chunk {} before rolling it back", chunkId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Identity of a file (its inode), or its modification time where the file
+     * system has no file keys.
+     *
+     * @return the key, or null if the file does not exist
+     */
+    private static Object fileKey(Path file) throws IOException {
+        try {
+            java.nio.file.attribute.BasicFileAttributes attributes =
+                    Files.readAttributes(file, java.nio.file.attribute.BasicFileAttributes.class);
+            return attributes.fileKey() != null ? attributes.fileKey() : attributes.lastModifiedTime();
+        } catch (java.nio.file.NoSuchFileException e) {
+            return null;
+        }
     }
 
     /**
      * Deletes a chunk from disk.
      * Demonstrates actual file management.
      */
-    public synchronized boolean deleteChunk(String chunkId) {
+    public boolean deleteChunk(String chunkId) {
+        ReentrantLock lock = lockFor(chunkId);
+        lock.lock();
         try {
             Path chunkFile = storageDirectory.resolve(chunkId + ".dat");
 
@@ -336,7 +894,10 @@ public class StorageNode {
                 long fileSize = Files.size(chunkFile);
                 Files.delete(chunkFile);
 
-                usedStorageBytes -= fileSize;
+                storageMutations.incrementAndGet();
+                storedChunkBytes.addAndGet(-fileSize);
+                storedChunkCount.decrementAndGet();
+                releaseStorage(fileSize);
 
                 log.info("🗑️  Deleted chunk from disk: {}", chunkId);
                 return true;
@@ -347,9 +908,72 @@ public class StorageNode {
         } catch (IOException e) {
             log.error("Failed to delete chunk", e);
             return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves space for a chunk, failing instead of overcommitting the node.
+     */
+    private boolean reserveStorage(long bytes) {
+        while (true) {
+            long used = usedStorageBytes.get();
+            if (used + bytes > totalStorageBytes) {
+                return false;
+            }
+            if (usedStorageBytes.compareAndSet(used, used + bytes)) {
+                return true;
+            }
         }
     }
 
+    private void releaseStorage(long bytes) {
+        usedStorageBytes.addAndGet(-bytes);
+    }
+
+    private ReentrantLock lockFor(String chunkId) {
+        return chunkLocks[Math.floorMod(chunkId.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Creates a uniquely named ".part" file, so concurrent writes of the same
+     * chunk never share a temporary file.
+     */
+    private Path createPartFile(String chunkId) throws IOException {
+        return Files.createTempFile(storageDirectory, chunkId + ".", ".dat.part");
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    /**
+     * Removes ".part" files left behind by writes interrupted by a crash.
+     */
+    private void deleteStalePartFiles() {
+        File[] partFiles = storageDirectory.toFile().listFiles((dir, name) -> name.endsWith(".part"));
+        if (partFiles != null) {
+            for (File partFile : partFiles) {
+                deleteQuietly(partFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Bytes used by stored chunks and reservations of writes in progress.
+     */
+    public long getUsedStorageBytes() {
+        return usedStorageBytes.get();
+    }
+
     private String formatBytes(long bytes) {
         return StorageMetricsService.formatBytes(bytes);
     }
@@ -363,6 +987,7 @@ public class StorageNode {
         log.info("║  RAM:         {} GB                     ║", totalRamBytes / (1024*1024*1024));
         log.info("║  CPU Cores:   {}                        ║", cpuCores);
         log.info("║  Bandwidth:   {} Mbps                ║", bandwidthBitsPerSecond / 1_000_000);
+        log.info("║  Throttle:    {}                   ║", writeThrottle.isLimited() ? "ON" : "OFF (disk speed)");
         log.info("║  Storage Dir: {}  ║", storageDirectory.toAbsolutePath());
         log.info("╚════════════════════════════════════════════╝");
     }
@@ -378,6 +1003,14 @@ public class StorageNode {
         private int ramGB = 8;
         private int cpuCores = 4;
         private int bandwidthMbps = 1000;
+        // Base directory on your computer
+        private Path storageBaseDir = Paths.get(System.getProperty("user.home"), "distributed-storage");
+        private long reconcileIntervalSeconds = 300;
+        private int throttleMbps = Integer.getInteger("node.throttle.mbps", 0);
+        private DurabilityMode durabilityMode = DurabilityMode.valueOf(
+                System.getProperty("node.durability", DurabilityMode.GROUP_COMMIT.name()));
+        private long groupCommitWindowMicros = Long.getLong("node.group-commit.window-us", 2000);
+        private int groupCommitMaxBatchKb = Integer.getInteger("node.group-commit.max-batch-kb", 8192);
 
         public Builder nodeId(String nodeId) {
             this.nodeId = nodeId;
@@ -414,6 +1047,46 @@ public class StorageNode {
             return this;
         }
 
+        public Builder storageBaseDir(Path storageBaseDir) {
+            this.storageBaseDir = storageBaseDir;
+            return this;
+        }
+
+        /**
+         * Caps the bytes written per second across all transfers (0 = unlimited, the default).
+         * Defaults to the {@code node.throttle.mbps} system property.
+         */
+        public Builder throttleMbps(int throttleMbps) {
+            this.throttleMbps = throttleMbps;
+            return this;
+        }
+
+        /**
+         * When writes are acknowledged relative to forcing them to the device.
+         * Defaults to the {@code node.durability} system property, else GROUP_COMMIT.
+         */
+        public Builder durability(DurabilityMode durabilityMode) {
+            this.durabilityMode = durabilityMode;
+            return this;
+        }
+
+        /**
+         * Group commit tuning: how long a batch waits for more writes, and the
+         * batch size that forces it early. Defaults to the
+         * {@code node.group-commit.window-us} / {@code node.group-commit.max-batch-kb}
+         * system properties, else 2 ms / 8 MB.
+         */
+        public Builder groupCommit(long windowMicros, int maxBatchKb) {
+            this.groupCommitWindowMicros = windowMicros;
+            this.groupCommitMaxBatchKb = maxBatchKb;
+            return this;
+        }
+
+        public Builder reconcileIntervalSeconds(long reconcileIntervalSeconds) {
+            this.reconcileIntervalSeconds = reconcileIntervalSeconds;
+            return this;
+        }
+
         public StorageNode build() {
             if (nodeId == null || nodeId.isEmpty()) {
                 throw new IllegalStateException("Node ID is required");
@@ -421,6 +1094,9 @@ public class StorageNode {
             if (port <= 0 || port > 65535) {
                 throw new IllegalArgumentException("Invalid port number: " + port);
             }
+            if (reconcileIntervalSeconds <= 0) {
+                throw new IllegalArgumentException("Invalid reconcile interval: " + reconcileIntervalSeconds);
+            }
 
             return new StorageNode(this);
         }
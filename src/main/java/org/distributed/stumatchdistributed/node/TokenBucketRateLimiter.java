@@ -0,0 +1,80 @@
+package org.distributed.stumatchdistributed.node;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the bytes a node writes per second.
+ *
+ * One instance is shared by every transfer on the node, so concurrent writes
+ * split the budget instead of each getting the full rate.
+ * Tokens refill continuously up to a burst of {@link #BURST_SECONDS} worth of bytes.
+ * A write may overdraw the bucket; the debt is paid by the writes after it
+ * (so one large chunk never waits longer than its own share of the budget).
+ *
+ * Used to emulate a bandwidth budget (e.g. in staging). Disabled by default:
+ * {@link #unlimited()} never waits.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class TokenBucketRateLimiter {
+
+    private static final double BURST_SECONDS = 0.1;
+    private static final TokenBucketRateLimiter UNLIMITED = new TokenBucketRateLimiter(0);
+
+    private final double bytesPerNano;
+    private final double burstBytes;
+
+    // May be negative: bytes already written that the budget has not covered yet
+    private double availableBytes;
+    private long lastRefillNanos;
+
+    private TokenBucketRateLimiter(long bytesPerSecond) {
+        this.bytesPerNano = bytesPerSecond / 1e9;
+        this.burstBytes = bytesPerSecond * BURST_SECONDS;
+        this.availableBytes = burstBytes;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Limiter for a budget in megabits per second; unlimited if {@code mbps <= 0}.
+     */
+    static TokenBucketRateLimiter forMbps(int mbps) {
+        return mbps > 0 ? new TokenBucketRateLimiter(mbps * 1_000_000L / 8) : UNLIMITED;
+    }
+
+    static TokenBucketRateLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    boolean isLimited() {
+        return this != UNLIMITED;
+    }
+
+    /**
+     * Blocks until the budget allows writing {@code bytes} more bytes.
+     */
+    void acquire(long bytes) throws InterruptedException {
+        if (!isLimited() || bytes <= 0) {
+            return;
+        }
+        long waitNanos = reserve(bytes);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Charges the bytes to the bucket and returns how long the caller must wait
+     * for the debt left by earlier writes.
+     */
+    private synchronized long reserve(long bytes) {
+        long now = System.nanoTime();
+        availableBytes = Math.min(burstBytes, availableBytes + (now - lastRefillNanos) * bytesPerNano);
+        lastRefillNanos = now;
+
+        long waitNanos = availableBytes >= 0 ? 0 : (long) (-availableBytes / bytesPerNano);
+        availableBytes -= bytes;
+        return waitNanos;
+    }
+}
@@ -0,0 +1,60 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks a random candidate with probability proportional to its free space.
+ *
+ * A node with twice the free space receives twice the chunks, so nodes fill up
+ * at the same rate instead of the smallest one filling first. Nodes that have
+ * not reported a status yet count as having the average free space of the others.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class CapacityWeightedPlacement implements PlacementStrategy {
+    private final StorageMetricsService metricsService;
+
+    public CapacityWeightedPlacement(StorageMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public String selectNode(List<String> candidates) {
+        long[] free = new long[candidates.size()];
+        long knownTotal = 0;
+        int known = 0;
+        for (int i = 0; i < free.length; i++) {
+            free[i] = metricsService.getFreeStorageBytes(candidates.get(i));
+            if (free[i] >= 0) {
+                knownTotal += free[i];
+                known++;
+            }
+        }
+        long unknownWeight = known > 0 ? Math.max(1, knownTotal / known) : 1;
+
+        long total = 0;
+        for (int i = 0; i < free.length; i++) {
+            free[i] = free[i] >= 0 ? free[i] : unknownWeight;
+            total += free[i];
+        }
+        if (total == 0) {
+            return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        }
+
+        long target = ThreadLocalRandom.current().nextLong(total);
+        for (int i = 0; i < free.length; i++) {
+            target -= free[i];
+            if (target < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "capacity-weighted";
+    }
+}
@@ -0,0 +1,34 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decides where a file is cut into chunks.
+ * Strategy Pattern: FileChunkStream asks the strategy for every cut point.
+ *
+ * Implementations:
+ * - {@link FixedSizeChunking}: cut every N bytes (original behaviour)
+ * - {@link ContentDefinedChunking}: cut where a rolling hash of the content
+ *   matches, so an insertion only changes the chunks around it
+ *
+ * @author Your Name
+ * @version 1.1
+ */
+public interface ChunkingStrategy {
+
+    /**
+     * Largest chunk this strategy can produce. FileChunkStream never offers
+     * more than this many bytes to {@link #nextChunkLength(ByteBuffer)}.
+     */
+    int maxChunkSize();
+
+    /**
+     * Finds the end of the next chunk.
+     *
+     * @param window Bytes starting at the beginning of the next chunk, between
+     *               position and limit. Holds maxChunkSize() bytes, or fewer at
+     *               the end of the file. Must not be modified.
+     * @return Length of the next chunk, between 1 and window.remaining()
+     */
+    int nextChunkLength(ByteBuffer window);
+}
@@ -0,0 +1,77 @@
+package org.distributed.stumatchdistributed.service;
+
+import org.distributed.stumatchdistributed.model.NodeStatus;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Places each chunk by hashing its ID onto a {@link ConsistentHashRing} of the
+ * registered nodes, weighted by the capacity they report.
+ *
+ * Replica n of a chunk goes to the n-th distinct node clockwise from the chunk's
+ * hash (earlier replicas are excluded by the caller). Nodes that are excluded or
+ * nearly full are skipped in ring order, so the fallback is deterministic too.
+ *
+ * The ring is rebuilt when a node joins or leaves, or its reported capacity
+ * changes; a node that has not reported yet counts as
+ * {@value ConsistentHashRing#REFERENCE_CAPACITY_GB} GB.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class ConsistentHashPlacement implements PlacementStrategy {
+    private final StorageMetricsService metricsService;
+    private final int virtualNodes;
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(Map.of(), ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+
+    public ConsistentHashPlacement(StorageMetricsService metricsService, int virtualNodes) {
+        this.metricsService = metricsService;
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Without a chunk ID there is nothing to hash: picks a random candidate.
+     */
+    @Override
+    public String selectNode(List<String> candidates) {
+        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    @Override
+    public String selectNode(String chunkId, Collection<String> nodes, List<String> candidates) {
+        String nodeId = ringFor(nodes).nodeFor(chunkId, new HashSet<>(candidates)::contains);
+        return nodeId != null ? nodeId : selectNode(candidates);
+    }
+
+    /**
+     * Nodes holding a chunk's replicas, computed from its ID (first {@code replicas} nodes clockwise).
+     */
+    public List<String> locate(String chunkId, Collection<String> nodes, int replicas) {
+        return ringFor(nodes).nodesFor(chunkId, replicas);
+    }
+
+    private ConsistentHashRing ringFor(Collection<String> nodes) {
+        Map<String, Long> weights = new HashMap<>();
+        for (String nodeId : nodes) {
+            NodeStatus status = metricsService.getNodeStatus(nodeId);
+            weights.put(nodeId, status != null ? status.getTotalStorageBytes() : 0L);
+        }
+        ConsistentHashRing current = ring;
+        if (!current.getWeights().equals(weights)) {
+            // Racing rebuilds produce identical rings, so the last write winning is fine
+            current = new ConsistentHashRing(weights, virtualNodes);
+            ring = current;
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "consistent-hash";
+    }
+}
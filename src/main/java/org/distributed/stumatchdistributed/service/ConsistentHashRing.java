@@ -0,0 +1,162 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Consistent-hash ring of storage nodes with capacity-weighted virtual nodes.
+ *
+ * Each node owns a number of points (virtual nodes) on a 64-bit ring,
+ * proportional to its absolute capacity (so many points per
+ * {@value #REFERENCE_CAPACITY_GB} GB, clamped to
+ * [{@value #MIN_VIRTUAL_NODES}, {@value #MAX_VIRTUAL_NODES}]). A key (chunk ID) is placed on the owner of the
+ * first point clockwise from the key's hash; further replicas go to the next
+ * distinct owners clockwise.
+ *
+ * Properties:
+ * - Placement is a pure function of the key and the membership, so a chunk's
+ *   nodes can be computed from its ID
+ * - A node's points depend only on its own capacity, never on the other nodes,
+ *   so adding a node of any size only takes over the keys falling just before
+ *   its points (its share of the data); removing one only moves the keys it owned
+ * - Many virtual nodes per node keep the per-node share close to its weight
+ *
+ * Immutable; build a new ring when membership or capacities change.
+ *
+ * @author Your Name
+ * @version 1.1
+ */
+public final class ConsistentHashRing {
+
+    /** Virtual nodes per {@value #REFERENCE_CAPACITY_GB} GB of capacity. */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+    /** Capacity that gets exactly {@code virtualNodes} points; also assumed for nodes that have not reported. */
+    static final long REFERENCE_CAPACITY_GB = 10;
+    static final int MIN_VIRTUAL_NODES = 16;
+    static final int MAX_VIRTUAL_NODES = 65_536;
+
+    private static final long REFERENCE_CAPACITY_BYTES = REFERENCE_CAPACITY_GB * 1024 * 1024 * 1024;
+
+    private final long[] points;
+    private final String[] owners;
+    private final Map<String, Long> weights;
+
+    /**
+     * @param weights Node ID to capacity in bytes. Nodes with capacity 0 or less
+     *                (not reported yet) count as {@value #REFERENCE_CAPACITY_GB} GB.
+     * @param virtualNodes Virtual nodes per {@value #REFERENCE_CAPACITY_GB} GB of capacity
+     */
+    public ConsistentHashRing(Map<String, Long> weights, int virtualNodes) {
+        this.weights = Map.copyOf(weights);
+
+        List<long[]> ring = new ArrayList<>();
+        List<String> nodeIds = new ArrayList<>(weights.keySet());
+        Collections.sort(nodeIds);
+        for (int n = 0; n < nodeIds.size(); n++) {
+            String nodeId = nodeIds.get(n);
+            long weight = weights.get(nodeId);
+            int count = virtualNodesFor(weight, virtualNodes);
+            for (int v = 0; v < count; v++) {
+                ring.add(new long[] {hash(nodeId + "#" + v), n});
+            }
+        }
+        ring.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i)[0];
+            owners[i] = nodeIds.get((int) ring.get(i)[1]);
+        }
+    }
+
+    /**
+     * Points of a node with the given capacity in bytes.
+     */
+    static int virtualNodesFor(long capacityBytes, int virtualNodes) {
+        if (capacityBytes <= 0) {
+            return Math.max(MIN_VIRTUAL_NODES, Math.min(MAX_VIRTUAL_NODES, virtualNodes));
+        }
+        long count = Math.round(virtualNodes * (double) capacityBytes / REFERENCE_CAPACITY_BYTES);
+        return (int) Math.max(MIN_VIRTUAL_NODES, Math.min(MAX_VIRTUAL_NODES, count));
+    }
+
+    /**
+     * Node weights the ring was built from.
+     */
+    public Map<String, Long> getWeights() {
+        return weights;
+    }
+
+    /**
+     * First node clockwise from the key that the filter accepts.
+     *
+     * @return Node ID, or null if the filter accepts no node
+     */
+    public String nodeFor(String key, Predicate<String> eligible) {
+        if (points.length == 0) {
+            return null;
+        }
+        int start = firstPointAtOrAfter(hash(key));
+        for (int i = 0; i < points.length; i++) {
+            String owner = owners[(start + i) % points.length];
+            if (eligible.test(owner)) {
+                return owner;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The first {@code count} distinct nodes clockwise from the key: where its replicas live.
+     */
+    public List<String> nodesFor(String key, int count) {
+        Set<String> nodes = new LinkedHashSet<>();
+        if (points.length == 0) {
+            return List.of();
+        }
+        int start = firstPointAtOrAfter(hash(key));
+        for (int i = 0; i < points.length && nodes.size() < count; i++) {
+            nodes.add(owners[(start + i) % points.length]);
+        }
+        return List.copyOf(nodes);
+    }
+
+    private int firstPointAtOrAfter(long hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Equal points are possible; start at the first of them
+            while (index > 0 && points[index - 1] == hash) {
+                index--;
+            }
+        }
+        return index == points.length ? 0 : index;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer
+     * so nearby keys (node#1, node#2) land far apart on the ring.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,114 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Content-defined chunking (FastCDC-style gear hash).
+ *
+ * A rolling hash is computed over the bytes of the file and a chunk ends where
+ * the hash matches a mask. Cut points therefore depend only on the bytes around
+ * them: inserting or removing data shifts the cut points with the content
+ * instead of changing every chunk after the edit, so a new version of a file
+ * shares all unchanged chunks with the previous one.
+ *
+ * Sizes:
+ * - No cut before {@code minSize} bytes (also skips hashing those bytes)
+ * - Stricter mask until {@code avgSize}, looser mask after it (normalized
+ *   chunking keeps sizes close to the average)
+ * - Forced cut at {@code maxSize}
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class ContentDefinedChunking implements ChunkingStrategy {
+
+    // Random but fixed per-byte values; must never change, or cut points (and chunk IDs) change
+    private static final long[] GEAR = buildGearTable(0x5EED_C0DE_CDC0_2024L);
+
+    private final int minSize;
+    private final int avgSize;
+    private final int maxSize;
+    private final long maskSmall;
+    private final long maskLarge;
+
+    /**
+     * @param minSize Minimum chunk size in bytes
+     * @param avgSize Target average chunk size in bytes
+     * @param maxSize Maximum chunk size in bytes
+     */
+    public ContentDefinedChunking(int minSize, int avgSize, int maxSize) {
+        if (minSize <= 0 || minSize >= avgSize || avgSize >= maxSize) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected 0 < min < avg < max, got min=%d avg=%d max=%d", minSize, avgSize, maxSize));
+        }
+        this.minSize = minSize;
+        this.avgSize = avgSize;
+        this.maxSize = maxSize;
+
+        int bits = 31 - Integer.numberOfLeadingZeros(avgSize);
+        this.maskSmall = highBits(bits + 1);
+        this.maskLarge = highBits(Math.max(1, bits - 1));
+    }
+
+    @Override
+    public int maxChunkSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int nextChunkLength(ByteBuffer window) {
+        int base = window.position();
+        int available = window.remaining();
+        if (available <= minSize) {
+            return available;
+        }
+
+        int end = Math.min(available, maxSize);
+        int normal = Math.min(avgSize, end);
+        long fingerprint = 0;
+        int i = minSize;
+
+        for (; i < normal; i++) {
+            fingerprint = (fingerprint << 1) + GEAR[window.get(base + i) & 0xFF];
+            if ((fingerprint & maskSmall) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < end; i++) {
+            fingerprint = (fingerprint << 1) + GEAR[window.get(base + i) & 0xFF];
+            if ((fingerprint & maskLarge) == 0) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ContentDefinedChunking{min=%d, avg=%d, max=%d}", minSize, avgSize, maxSize);
+    }
+
+    /**
+     * Mask with the n most significant bits set. The gear hash shifts left,
+     * so its high bits depend on the most recent ~64 bytes.
+     */
+    private static long highBits(int n) {
+        return -1L << (64 - n);
+    }
+
+    /**
+     * SplitMix64 sequence: spelled out here so the table is identical on every JVM.
+     */
+    private static long[] buildGearTable(long seed) {
+        long[] table = new long[256];
+        long state = seed;
+        for (int i = 0; i < table.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            table[i] = z ^ (z >>> 31);
+        }
+        return table;
+    }
+}
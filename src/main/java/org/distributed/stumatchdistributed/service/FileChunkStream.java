@@ -0,0 +1,158 @@
+package org.distributed.stumatchdistributed.service;
+
+import com.google.protobuf.UnsafeByteOperations;
+import org.distributed.stumatchdistributed.model.FileChunk;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily produces the chunks of a file, reading each one from a FileChannel
+ * only when it is requested.
+ *
+ * Cut points come from a {@link ChunkingStrategy}. The stream keeps a read window
+ * of at most {@code strategy.maxChunkSize()} bytes, so memory use is bounded by
+ * the windows the chunks the consumer holds still refer to, not by the file
+ * size, and files larger than 2 GB are supported.
+ * Chunks are content-addressed: a chunk's ID is the SHA-256 of its data, so
+ * identical content gets the same ID in every file and can be deduplicated.
+ *
+ * No copy per chunk: the window is a heap array read straight from the file, and
+ * each chunk wraps its slice of it, shared by everything that sends it (see
+ * {@link FileChunk#asByteString()}). A window is never written again once handed
+ * out; a refill reads into a new array, carrying over only the bytes not yet cut
+ * into chunks. With fixed-size chunking each window is exactly one chunk.
+ * Must be closed to release the underlying file.
+ *
+ * @author Your Name
+ * @version 1.3
+ */
+public class FileChunkStream implements Iterator<FileChunk>, Closeable {
+    private final FileChannel channel;
+    private final String fileName;
+    private final long fileSize;
+    private final ChunkingStrategy strategy;
+    private final MessageDigest digest;
+
+    // Holds file bytes [windowStart, windowStart + window.length); chunks wrap slices of it
+    private byte[] window = new byte[0];
+    private long windowStart;
+
+    private long position;
+    private int chunkIndex;
+
+    FileChunkStream(Path filePath, ChunkingStrategy strategy) throws IOException {
+        this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        this.fileName = filePath.getFileName().toString();
+        this.fileSize = channel.size();
+        this.strategy = strategy;
+        this.digest = sha256();
+    }
+
+    /**
+     * Number of chunks this stream will produce in total,
+     * or -1 if it depends on the content (content-defined chunking).
+     */
+    public int getTotalChunks() {
+        if (strategy instanceof FixedSizeChunking) {
+            long chunkSize = strategy.maxChunkSize();
+            return (int) ((fileSize + chunkSize - 1) / chunkSize);
+        }
+        return -1;
+    }
+
+    /**
+     * Number of chunks produced so far.
+     */
+    public int getChunksProduced() {
+        return chunkIndex;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < fileSize;
+    }
+
+    /**
+     * Reads the next chunk from disk.
+     *
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public FileChunk next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        int available = (int) Math.min(strategy.maxChunkSize(), fileSize - position);
+
+        try {
+            fillWindow(available);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read chunk " + chunkIndex + " of " + fileName, e);
+        }
+
+        int start = (int) (position - windowStart);
+        int length = strategy.nextChunkLength(ByteBuffer.wrap(window, start, available).slice());
+
+        digest.update(window, start, length);
+        String chunkId = HexFormat.of().formatHex(digest.digest());
+        position += length;
+        chunkIndex++;
+
+        // The window is never written again, so the chunk can share it without a copy
+        return new FileChunk(chunkId, UnsafeByteOperations.unsafeWrap(window, start, length));
+    }
+
+    /**
+     * Makes sure the window holds {@code needed} bytes starting at the current position.
+     * Otherwise reads them into a new window: unconsumed bytes are carried over and
+     * the rest comes straight from the channel.
+     */
+    private void fillWindow(int needed) throws IOException {
+        int start = (int) (position - windowStart);
+        int carried = window.length - start;
+        if (carried >= needed) {
+            return;
+        }
+
+        byte[] next = new byte[needed];
+        System.arraycopy(window, start, next, 0, carried);
+        ByteBuffer target = ByteBuffer.wrap(next, carried, needed - carried);
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new EOFException("File " + fileName + " shrank while being decomposed");
+            }
+        }
+        window = next;
+        windowStart = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,16 +1,16 @@
 package org.distributed.stumatchdistributed.service;
 
 
+import org.distributed.stumatchdistributed.config.StorageProperties;
 import org.distributed.stumatchdistributed.model.FileChunk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -25,8 +25,55 @@ public class FileDecompositionService {
     private static final Logger log = LoggerFactory.getLogger(FileDecompositionService.class);
     private static final int DEFAULT_CHUNK_SIZE_MB = 2;
 
+    private final StorageProperties.Chunking chunkingProperties;
+
+    public FileDecompositionService(StorageProperties storageProperties) {
+        this.chunkingProperties = storageProperties.getChunking();
+        log.info("Chunking mode: {}", chunkingProperties.getMode());
+    }
+
+    /**
+     * Returns the configured chunking strategy.
+     *
+     * @param chunkSizeMB Chunk size used by fixed-size chunking
+     */
+    public ChunkingStrategy resolveStrategy(int chunkSizeMB) {
+        if (chunkingProperties.getMode() == StorageProperties.Chunking.Mode.CONTENT_DEFINED) {
+            return new ContentDefinedChunking(
+                    chunkingProperties.getMinSizeKb() * 1024,
+                    chunkingProperties.getAvgSizeKb() * 1024,
+                    chunkingProperties.getMaxSizeKb() * 1024);
+        }
+        return new FixedSizeChunking(chunkSizeMB * 1024 * 1024);
+    }
+
+    /**
+     * Opens a lazy stream of chunks backed by a FileChannel.
+     *
+     * Only the chunks currently held by the consumer are in memory, so files of
+     * any size (including above the 2 GB byte[] limit) can be decomposed with
+     * constant memory. The caller must close the stream.
+     *
+     * @param filePath Path to the file to decompose
+     * @param chunkSizeMB Size of each chunk in megabytes (fixed-size mode)
+     * @return Stream of chunks in file order
+     * @throws IOException if file cannot be opened
+     */
+    public FileChunkStream streamChunks(Path filePath, int chunkSizeMB) throws IOException {
+        return streamChunks(filePath, resolveStrategy(chunkSizeMB));
+    }
+
+    /**
+     * Opens a lazy stream of chunks cut by the given strategy.
+     */
+    public FileChunkStream streamChunks(Path filePath, ChunkingStrategy strategy) throws IOException {
+        log.info("Streaming decomposition of file: {} using {}", filePath, strategy);
+        return new FileChunkStream(filePath, strategy);
+    }
+
     /**
      * Decomposes a file into chunks for distributed storage.
+     * Materializes every chunk; prefer {@link #streamChunks(Path, int)} for large files.
      *
      * @param filePath Path to the file to decompose
      * @param chunkSizeMB Size of each chunk in megabytes
@@ -36,27 +83,15 @@ public class FileDecompositionService {
     public List<FileChunk> decomposeFile(Path filePath, int chunkSizeMB) throws IOException {
         log.info("Decomposing file: {} with chunk size: {} MB", filePath, chunkSizeMB);
 
-        byte[] fileData = Files.readAllBytes(filePath);
-        int chunkSizeBytes = chunkSizeMB * 1024 * 1024;
-
         List<FileChunk> chunks = new ArrayList<>();
-        String fileName = filePath.getFileName().toString();
-
-        int offset = 0;
-        int chunkIndex = 0;
-
-        while (offset < fileData.length) {
-            int currentChunkSize = Math.min(chunkSizeBytes, fileData.length - offset);
-            byte[] chunkData = Arrays.copyOfRange(fileData, offset, offset + currentChunkSize);
-
-            String chunkId = String.format("%s_chunk_%d", fileName, chunkIndex);
-            FileChunk chunk = new FileChunk(chunkId, chunkData);
-            chunks.add(chunk);
-
-            log.debug("Created chunk: {} ({} bytes)", chunkId, currentChunkSize);
-
-            offset += currentChunkSize;
-            chunkIndex++;
+        try (FileChunkStream stream = streamChunks(filePath, chunkSizeMB)) {
+            while (stream.hasNext()) {
+                FileChunk chunk = stream.next();
+                chunks.add(chunk);
+                log.debug("Created chunk: {} ({} bytes)", chunk.getChunkId(), chunk.getSizeBytes());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
         log.info("File decomposed into {} chunks", chunks.size());
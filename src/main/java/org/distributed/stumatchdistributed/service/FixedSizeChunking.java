@@ -0,0 +1,35 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cuts a file every {@code chunkSizeBytes} bytes.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class FixedSizeChunking implements ChunkingStrategy {
+    private final int chunkSizeBytes;
+
+    public FixedSizeChunking(int chunkSizeBytes) {
+        if (chunkSizeBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSizeBytes);
+        }
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    @Override
+    public int maxChunkSize() {
+        return chunkSizeBytes;
+    }
+
+    @Override
+    public int nextChunkLength(ByteBuffer window) {
+        return Math.min(chunkSizeBytes, window.remaining());
+    }
+
+    @Override
+    public String toString() {
+        return "FixedSizeChunking{" + chunkSizeBytes + " bytes}";
+    }
+}
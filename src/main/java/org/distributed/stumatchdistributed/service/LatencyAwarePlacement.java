@@ -0,0 +1,68 @@
+package org.distributed.stumatchdistributed.service;
+
+import org.distributed.stumatchdistributed.model.NodeLoad;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two random candidates and picks the one a new chunk would wait on least.
+ *
+ * Expected wait = (transfers in flight + 1) x EWMA transfer latency, so a node
+ * that answers slowly (busy disk, congested link) receives fewer chunks even
+ * when its queue is short. Nodes without a latency sample yet are assumed to
+ * be as fast as the average of the others, so they get traffic and a sample.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class LatencyAwarePlacement implements PlacementStrategy {
+    private final StorageMetricsService metricsService;
+
+    public LatencyAwarePlacement(StorageMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public String selectNode(List<String> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        String a = candidates.get(first);
+        String b = candidates.get(second);
+
+        double defaultLatency = averageLatency(candidates);
+        return expectedWait(a, defaultLatency) <= expectedWait(b, defaultLatency) ? a : b;
+    }
+
+    private double expectedWait(String nodeId, double defaultLatency) {
+        NodeLoad load = metricsService.getNodeLoad(nodeId);
+        double latency = load.getEwmaLatencyMs();
+        // Floor of 1 ms so in-flight counts still matter when transfers are near instant
+        return (load.getInFlight() + 1) * Math.max(1.0, Double.isNaN(latency) ? defaultLatency : latency);
+    }
+
+    private double averageLatency(List<String> candidates) {
+        double sum = 0;
+        int known = 0;
+        for (String nodeId : candidates) {
+            double latency = metricsService.getNodeLoad(nodeId).getEwmaLatencyMs();
+            if (!Double.isNaN(latency)) {
+                sum += latency;
+                known++;
+            }
+        }
+        return known > 0 ? sum / known : 1.0;
+    }
+
+    @Override
+    public String toString() {
+        return "latency-aware";
+    }
+}
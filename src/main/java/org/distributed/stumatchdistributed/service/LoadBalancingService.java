@@ -1,29 +1,60 @@
 package org.distributed.stumatchdistributed.service;
 
+import org.distributed.stumatchdistributed.config.StorageProperties;
+import org.distributed.stumatchdistributed.model.NodeStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Set;
 
 /**
  * Service responsible for load balancing decisions.
- * Strategy Pattern: Can be extended to support different load balancing algorithms.
+ * Strategy Pattern: the placement algorithm is a {@link PlacementStrategy}
+ * chosen by storage.placement.strategy.
  *
- * Current implementation: Round-robin distribution
+ * Every placement:
+ * 1. Drops nodes that already hold the chunk (or failed to store it)
+ * 2. Drops nodes at or above the full threshold, unless no other node is left
+ * 3. Lets the strategy pick among the rest, using the capacity, in-flight and
+ *    latency data in StorageMetricsService
  *
  * @author Your Name
- * @version 1.0
+ * @version 2.0
  */
 @Service
 public class LoadBalancingService {
     private static final Logger log = LoggerFactory.getLogger(LoadBalancingService.class);
-    private final AtomicInteger nextNodeIndex = new AtomicInteger(0);
+
+    private final StorageMetricsService metricsService;
+    private final PlacementStrategy strategy;
+    private final double fullThresholdPercent;
+
+    public LoadBalancingService(StorageProperties storageProperties, StorageMetricsService metricsService) {
+        this.metricsService = metricsService;
+        StorageProperties.Placement placement = storageProperties.getPlacement();
+        this.strategy = resolveStrategy(placement.getStrategy(), placement.getVirtualNodes(), metricsService);
+        this.fullThresholdPercent = placement.getFullThresholdPercent();
+        log.info("Placement strategy: {} (nodes at {}% utilization are skipped)", strategy, fullThresholdPercent);
+    }
+
+    private static PlacementStrategy resolveStrategy(StorageProperties.Placement.Strategy strategy,
+                                                     int virtualNodes,
+                                                     StorageMetricsService metricsService) {
+        return switch (strategy) {
+            case ROUND_ROBIN -> new RoundRobinPlacement();
+            case CAPACITY_WEIGHTED -> new CapacityWeightedPlacement(metricsService);
+            case POWER_OF_TWO_CHOICES -> new PowerOfTwoChoicesPlacement(metricsService);
+            case LATENCY_AWARE -> new LatencyAwarePlacement(metricsService);
+            case CONSISTENT_HASH -> new ConsistentHashPlacement(metricsService, virtualNodes);
+        };
+    }
 
     /**
-     * Selects the next node to store a chunk using round-robin algorithm.
-     * Thread-safe implementation using AtomicInteger.
+     * Selects a node to store a chunk.
      *
      * @param availableNodes List of available node IDs
      * @return Selected node ID
@@ -33,20 +64,56 @@ public class LoadBalancingService {
         if (availableNodes.isEmpty()) {
             throw new IllegalArgumentException("No nodes available for chunk storage");
         }
+        return strategy.selectNode(availableNodes);
+    }
 
-        int index = nextNodeIndex.getAndIncrement() % availableNodes.size();
-        String selectedNode = availableNodes.get(index);
+    /**
+     * Selects a node for the next replica of a chunk.
+     *
+     * @param chunkId Chunk (or shard) being placed
+     * @param nodes Registered node IDs
+     * @param excludedNodes Nodes that already hold the chunk or failed to store it
+     * @return Selected node ID, or null if every node is excluded
+     */
+    public String selectNodeForReplica(String chunkId, Collection<String> nodes, Set<String> excludedNodes) {
+        List<String> candidates = new ArrayList<>(nodes.size());
+        List<String> full = new ArrayList<>();
+        for (String nodeId : nodes) {
+            if (excludedNodes.contains(nodeId)) {
+                continue;
+            }
+            if (isNearlyFull(nodeId)) {
+                full.add(nodeId);
+            } else {
+                candidates.add(nodeId);
+            }
+        }
+        if (candidates.isEmpty()) {
+            if (full.isEmpty()) {
+                return null;
+            }
+            log.warn("⚠️ All candidate nodes are above {}% utilization, placing on them anyway", fullThresholdPercent);
+            candidates = full;
+        }
 
-        log.debug("Selected node {} for chunk storage (round-robin)", selectedNode);
+        String selectedNode = strategy.selectNode(chunkId, nodes, candidates);
+        log.debug("Selected node {} for chunk storage ({})", selectedNode, strategy);
         return selectedNode;
     }
 
+    private boolean isNearlyFull(String nodeId) {
+        NodeStatus status = metricsService.getNodeStatus(nodeId);
+        return status != null && status.getUtilizationPercent() >= fullThresholdPercent;
+    }
+
     /**
      * Resets the load balancer state.
      * Useful for testing or when restarting distribution.
      */
     public void reset() {
-        nextNodeIndex.set(0);
+        if (strategy instanceof RoundRobinPlacement roundRobin) {
+            roundRobin.reset();
+        }
         log.info("Load balancer reset");
     }
 }
@@ -1,5 +1,6 @@
 package org.distributed.stumatchdistributed.service;
 
+import org.distributed.stumatchdistributed.config.StorageProperties;
 import org.distributed.stumatchdistributed.network.NetworkController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,9 +24,11 @@ public class NodeManagementService {
     
     private final Map<String, Process> runningNodeProcesses = new ConcurrentHashMap<>();
     private final NetworkController networkController;
+    private final StorageProperties storageProperties;
     
-    public NodeManagementService(NetworkController networkController) {
+    public NodeManagementService(NetworkController networkController, StorageProperties storageProperties) {
         this.networkController = networkController;
+        this.storageProperties = storageProperties;
     }
     
     /**
@@ -66,6 +69,9 @@ public class NodeManagementService {
             // Build the command
             ProcessBuilder processBuilder = new ProcessBuilder(
                 javaExec,
+                "-Dnode.throttle.mbps=" + storageProperties.getNodeThrottleMbps(),
+                "-Dnode.durability=" + storageProperties.getNodeDurability().name(),
+                "-Dnode.group-commit.window-us=" + storageProperties.getNodeGroupCommitWindowUs(),
                 "-cp", fullClasspath,
                 "org.distributed.stumatchdistributed.node.EnhancedStorageNode",
                 nodeId,
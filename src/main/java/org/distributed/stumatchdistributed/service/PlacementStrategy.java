@@ -0,0 +1,45 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Decides which node receives the next chunk or replica.
+ * Strategy Pattern: LoadBalancingService asks the configured strategy for every placement.
+ *
+ * Implementations:
+ * - {@link RoundRobinPlacement}: next node in turn (original behaviour)
+ * - {@link CapacityWeightedPlacement}: random node, weighted by free space
+ * - {@link PowerOfTwoChoicesPlacement}: fewer in-flight transfers of two random nodes
+ * - {@link LatencyAwarePlacement}: lower expected wait (in-flight x EWMA latency) of two random nodes
+ * - {@link ConsistentHashPlacement}: next node clockwise from the chunk ID on a hash ring
+ *
+ * Implementations must be thread-safe: chunks of a file are placed in parallel.
+ *
+ * @author Your Name
+ * @version 1.1
+ */
+public interface PlacementStrategy {
+
+    /**
+     * Picks a node for a chunk.
+     *
+     * @param candidates Eligible node IDs, never empty. Nodes that already hold the
+     *                   chunk or are nearly full were removed by the caller.
+     * @return One of the candidates
+     */
+    String selectNode(List<String> candidates);
+
+    /**
+     * Picks a node for a known chunk. Strategies that place by chunk ID override
+     * this; the others ignore the ID and the full membership.
+     *
+     * @param chunkId Chunk (or shard) being placed
+     * @param nodes All registered nodes, including the ones removed from candidates
+     * @param candidates Eligible node IDs, never empty
+     * @return One of the candidates
+     */
+    default String selectNode(String chunkId, Collection<String> nodes, List<String> candidates) {
+        return selectNode(candidates);
+    }
+}
@@ -0,0 +1,50 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two random candidates and picks the one with fewer transfers in flight.
+ *
+ * Comparing two random nodes instead of scanning for the least loaded one keeps
+ * concurrent placements from all piling onto the same "best" node, while still
+ * steering chunks away from a node whose queue is backing up. Ties go to the
+ * node with more free space.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class PowerOfTwoChoicesPlacement implements PlacementStrategy {
+    private final StorageMetricsService metricsService;
+
+    public PowerOfTwoChoicesPlacement(StorageMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public String selectNode(List<String> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        String a = candidates.get(first);
+        String b = candidates.get(second);
+
+        int loadA = metricsService.getNodeLoad(a).getInFlight();
+        int loadB = metricsService.getNodeLoad(b).getInFlight();
+        if (loadA != loadB) {
+            return loadA < loadB ? a : b;
+        }
+        return metricsService.getFreeStorageBytes(a) >= metricsService.getFreeStorageBytes(b) ? a : b;
+    }
+
+    @Override
+    public String toString() {
+        return "power-of-two-choices";
+    }
+}
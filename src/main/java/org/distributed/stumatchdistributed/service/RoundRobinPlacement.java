@@ -0,0 +1,33 @@
+package org.distributed.stumatchdistributed.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places chunks on candidates in turn, ignoring load.
+ * Even spread when nodes are alike; a slow or nearly full node gets its full share.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+public class RoundRobinPlacement implements PlacementStrategy {
+    private final AtomicInteger nextNodeIndex = new AtomicInteger(0);
+
+    @Override
+    public String selectNode(List<String> candidates) {
+        int index = Math.floorMod(nextNodeIndex.getAndIncrement(), candidates.size());
+        return candidates.get(index);
+    }
+
+    /**
+     * Starts the next round at the first candidate again.
+     */
+    public void reset() {
+        nextNodeIndex.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "round-robin";
+    }
+}
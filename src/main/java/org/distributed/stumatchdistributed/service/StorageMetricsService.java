@@ -1,6 +1,8 @@
 package org.distributed.stumatchdistributed.service;
 
-
+import org.distributed.stumatchdistributed.buffer.DirectBufferPool;
+import org.distributed.stumatchdistributed.model.GroupCommitMetrics;
+import org.distributed.stumatchdistributed.model.NodeLoad;
 import org.distributed.stumatchdistributed.model.NodeStatus;
 import org.springframework.stereotype.Service;
 
@@ -12,12 +14,19 @@ import java.util.concurrent.ConcurrentHashMap;
  * Service for tracking and aggregating storage metrics across the network.
  * Observer Pattern: Collects and monitors node statistics.
  *
+ * Two sources feed it:
+ * - Node status polls: capacity, usage and group commit statistics
+ * - Chunk transfers: in-flight count and smoothed latency per node ({@link NodeLoad}),
+ *   which placement strategies read on every chunk
+ *
  * @author Your Name
- * @version 1.0
+ * @version 1.1
  */
 @Service
 public class StorageMetricsService {
     private final Map<String, NodeStatus> nodeStatuses = new ConcurrentHashMap<>();
+    private final Map<String, GroupCommitMetrics> groupCommitMetrics = new ConcurrentHashMap<>();
+    private final Map<String, NodeLoad> nodeLoads = new ConcurrentHashMap<>();
 
     /**
      * Updates the cached status for a node.
@@ -26,6 +35,42 @@ public class StorageMetricsService {
         nodeStatuses.put(status.getNodeId(), status);
     }
 
+    /**
+     * Updates the group commit statistics a node reported with its status.
+     */
+    public void updateGroupCommitMetrics(String nodeId, GroupCommitMetrics metrics) {
+        groupCommitMetrics.put(nodeId, metrics);
+    }
+
+    /**
+     * Records the start of a chunk transfer to a node.
+     */
+    public void transferStarted(String nodeId) {
+        getNodeLoad(nodeId).transferStarted();
+    }
+
+    /**
+     * Records the end of a chunk transfer started with {@link #transferStarted(String)}.
+     */
+    public void transferFinished(String nodeId, long latencyMs, boolean success) {
+        getNodeLoad(nodeId).transferFinished(latencyMs, success);
+    }
+
+    /**
+     * Live transfer load of a node (empty load if nothing was sent to it yet).
+     */
+    public NodeLoad getNodeLoad(String nodeId) {
+        return nodeLoads.computeIfAbsent(nodeId, id -> new NodeLoad());
+    }
+
+    /**
+     * Free bytes a node reported in its last status, or -1 if it has not reported yet.
+     */
+    public long getFreeStorageBytes(String nodeId) {
+        NodeStatus status = nodeStatuses.get(nodeId);
+        return status != null ? Math.max(0, status.getTotalStorageBytes() - status.getUsedStorageBytes()) : -1;
+    }
+
     /**
      * Calculates aggregate network statistics.
      *
@@ -53,6 +98,19 @@ public class StorageMetricsService {
         metrics.put("usedStorageBytes", usedStorage);
         metrics.put("utilizationPercent", utilizationPercent);
         metrics.put("totalChunks", totalChunks);
+        metrics.put("groupCommit", new HashMap<>(groupCommitMetrics));
+        metrics.put("bufferPool", DirectBufferPool.shared().stats());
+
+        Map<String, Object> loads = new HashMap<>();
+        nodeLoads.forEach((nodeId, load) -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("inFlight", load.getInFlight());
+            entry.put("ewmaLatencyMs", Double.isNaN(load.getEwmaLatencyMs()) ? null : load.getEwmaLatencyMs());
+            entry.put("completed", load.getCompleted());
+            entry.put("failed", load.getFailed());
+            loads.put(nodeId, entry);
+        });
+        metrics.put("nodeLoad", loads);
 
         return metrics;
     }
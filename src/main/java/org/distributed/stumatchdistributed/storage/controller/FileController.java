@@ -2,14 +2,21 @@ package org.distributed.stumatchdistributed.storage.controller;
 
 import org.distributed.stumatchdistributed.auth.entity.UserAccount;
 import org.distributed.stumatchdistributed.auth.service.UserContextService;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
 import org.distributed.stumatchdistributed.storage.dto.FileMetadataDTO;
+import org.distributed.stumatchdistributed.storage.dto.UploadSessionDTO;
 import org.distributed.stumatchdistributed.storage.entity.FileMetadata;
+import org.distributed.stumatchdistributed.storage.entity.ResumableUpload;
 import org.distributed.stumatchdistributed.storage.service.FileService;
+import org.distributed.stumatchdistributed.storage.service.ResumableUploadService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,11 +29,14 @@ import java.util.stream.Collectors;
 public class FileController {
 
     private final FileService fileService;
+    private final ResumableUploadService resumableUploadService;
     private final UserContextService userContextService;
 
     public FileController(FileService fileService,
+                          ResumableUploadService resumableUploadService,
                           UserContextService userContextService) {
         this.fileService = fileService;
+        this.resumableUploadService = resumableUploadService;
         this.userContextService = userContextService;
     }
 
@@ -39,16 +49,69 @@ public class FileController {
     }
 
     @PostMapping("/upload")
-    public FileMetadataDTO upload(@RequestParam("file") MultipartFile file) {
+    public FileMetadataDTO upload(@RequestParam("file") MultipartFile file,
+                                  @RequestParam(value = "redundancy", required = false) RedundancyScheme.Mode redundancy) {
         UserAccount user = userContextService.getCurrentUser();
-        FileMetadata metadata = fileService.upload(user, file);
+        FileMetadata metadata = fileService.upload(user, file, redundancy);
         return FileMetadataDTO.from(metadata);
     }
 
+    /**
+     * Starts a resumable upload; the file is then sent with PUT .../parts/{n}
+     * and finished with POST .../complete.
+     */
+    @PostMapping("/uploads")
+    public UploadSessionDTO initiateUpload(@RequestParam("fileName") String fileName,
+                                           @RequestParam("size") long size,
+                                           @RequestParam(value = "contentType", required = false) String contentType,
+                                           @RequestParam(value = "partSize", required = false) Long partSize,
+                                           @RequestParam(value = "redundancy", required = false) RedundancyScheme.Mode redundancy) {
+        UserAccount user = userContextService.getCurrentUser();
+        ResumableUpload upload = resumableUploadService.initiate(user, fileName, contentType, size, partSize, redundancy);
+        return UploadSessionDTO.from(upload, List.of());
+    }
+
+    /**
+     * State of a resumable upload, e.g. after a reconnect: only parts missing
+     * from completedParts need to be sent.
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public UploadSessionDTO getUpload(@PathVariable UUID uploadId) {
+        UserAccount user = userContextService.getCurrentUser();
+        ResumableUpload upload = resumableUploadService.getSession(user, uploadId);
+        return UploadSessionDTO.from(upload, resumableUploadService.completedParts(upload));
+    }
+
+    /**
+     * Receives one part as the raw request body (not multipart).
+     */
+    @PutMapping("/uploads/{uploadId}/parts/{partNumber}")
+    public Map<String, Object> uploadPart(@PathVariable UUID uploadId,
+                                          @PathVariable int partNumber,
+                                          InputStream body) {
+        UserAccount user = userContextService.getCurrentUser();
+        long size = resumableUploadService.putPart(user, uploadId, partNumber, body);
+        return Map.of("success", true, "partNumber", partNumber, "sizeBytes", size);
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public FileMetadataDTO completeUpload(@PathVariable UUID uploadId) {
+        UserAccount user = userContextService.getCurrentUser();
+        return FileMetadataDTO.from(resumableUploadService.complete(user, uploadId));
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public Map<String, Object> abortUpload(@PathVariable UUID uploadId) {
+        UserAccount user = userContextService.getCurrentUser();
+        resumableUploadService.abort(user, uploadId);
+        return Map.of("success", true, "message", "Upload aborted");
+    }
+
     @GetMapping("/{fileId}")
-    public ResponseEntity<byte[]> download(@PathVariable UUID fileId) {
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable UUID fileId,
+                                                          @RequestHeader HttpHeaders headers) {
         UserAccount user = userContextService.getCurrentUser();
-        return fileService.download(user, fileId);
+        return fileService.download(user, fileId, headers);
     }
 
     @DeleteMapping("/{fileId}")
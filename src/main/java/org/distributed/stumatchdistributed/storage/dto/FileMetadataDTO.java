@@ -1,5 +1,7 @@
 package org.distributed.stumatchdistributed.storage.dto;
 
+import org.distributed.stumatchdistributed.storage.entity.DistributionStatus;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -14,6 +16,8 @@ public record FileMetadataDTO(
         String contentType,
         String storagePath,
         String storageNodeHint,
+        String redundancy,
+        DistributionStatus distributionStatus,
         boolean deleted,
         LocalDateTime createdAt,
         LocalDateTime updatedAt
@@ -27,6 +31,8 @@ public record FileMetadataDTO(
                 metadata.getContentType(),
                 metadata.getStoragePath(),
                 metadata.getStorageNodeHint(),
+                metadata.getRedundancy(),
+                metadata.getDistributionStatus(),
                 metadata.isDeleted(),
                 metadata.getCreatedAt(),
                 metadata.getUpdatedAt()
@@ -0,0 +1,35 @@
+package org.distributed.stumatchdistributed.storage.dto;
+
+import org.distributed.stumatchdistributed.storage.entity.ResumableUpload;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * State of a resumable upload: which parts the server already holds, so a
+ * client that reconnects only sends the rest.
+ */
+public record UploadSessionDTO(
+        UUID uploadId,
+        String fileName,
+        long sizeBytes,
+        long partSizeBytes,
+        int partCount,
+        List<Integer> completedParts,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public static UploadSessionDTO from(ResumableUpload upload, List<Integer> completedParts) {
+        return new UploadSessionDTO(
+                upload.getId(),
+                upload.getFileName(),
+                upload.getSizeBytes(),
+                upload.getPartSizeBytes(),
+                upload.getPartCount(),
+                completedParts,
+                upload.getCreatedAt(),
+                upload.getUpdatedAt()
+        );
+    }
+}
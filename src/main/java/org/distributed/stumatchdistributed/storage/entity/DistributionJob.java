@@ -0,0 +1,55 @@
+package org.distributed.stumatchdistributed.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A staged file waiting to be distributed to the storage nodes. Saved in the
+ * same transaction as the file's metadata, so an upload that returned is never
+ * lost from the queue; the row is removed once the file is distributed or given up on.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "distribution_job",
+        indexes = @Index(name = "idx_distribution_job_next_attempt", columnList = "next_attempt_at"))
+public class DistributionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id", nullable = false, unique = true)
+    private FileMetadata file;
+
+    /**
+     * Redundancy mode to distribute the file with.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RedundancyScheme.Mode redundancy;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package org.distributed.stumatchdistributed.storage.entity;
+
+/**
+ * Where a file is in its distribution to the storage nodes.
+ */
+public enum DistributionStatus {
+    /** Saved on the coordinator and queued for distribution; served from the local copy. */
+    STAGED,
+    /** Chunks are being transferred to the nodes. */
+    DISTRIBUTING,
+    /** Every chunk is stored with the requested protection. */
+    DISTRIBUTED,
+    /**
+     * Distributed, but with less protection than requested (missing replicas,
+     * fewer nodes than the scheme needs).
+     */
+    DEGRADED,
+    /** Not distributed at all after repeated failures; only the coordinator's copy exists. */
+    LOCAL_ONLY
+}
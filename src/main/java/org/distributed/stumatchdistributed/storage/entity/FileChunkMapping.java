@@ -0,0 +1,46 @@
+package org.distributed.stumatchdistributed.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Position of one chunk inside a file: chunk {@code chunkIndex} of the file holds
+ * bytes [offsetBytes, offsetBytes + sizeBytes) and has content {@code chunkHash}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "file_chunk_mapping",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"file_id", "chunk_index"}),
+        indexes = @Index(name = "idx_file_chunk_mapping_hash", columnList = "chunk_hash"))
+public class FileChunkMapping {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id", nullable = false)
+    private FileMetadata file;
+
+    @Column(name = "chunk_index", nullable = false)
+    private int chunkIndex;
+
+    @Column(name = "chunk_hash", nullable = false, length = 64)
+    private String chunkHash;
+
+    @Column(nullable = false)
+    private long offsetBytes;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+}
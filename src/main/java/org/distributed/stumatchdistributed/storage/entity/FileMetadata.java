@@ -52,6 +52,19 @@ public class FileMetadata {
     @Column(length = 120)
     private String storageNodeHint;
 
+    /**
+     * Protection the file was distributed with, e.g. "2x replication" or "RS(4+2)".
+     */
+    @Column(length = 40)
+    private String redundancy;
+
+    /**
+     * Progress of the background distribution; null for files stored before it was tracked.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private DistributionStatus distributionStatus;
+
     @Column(nullable = false, length = 512)
     private String storagePath;
 
@@ -0,0 +1,97 @@
+package org.distributed.stumatchdistributed.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.distributed.stumatchdistributed.auth.entity.UserAccount;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An upload in progress that the client sends in numbered parts. Part N covers
+ * bytes [(N - 1) * partSizeBytes, N * partSizeBytes) of the file and is written
+ * straight to the staging file; received parts are recorded as {@link UploadPart}s.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "resumable_upload")
+public class ResumableUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserAccount owner;
+
+    @Column(nullable = false, length = 255)
+    private String fileName;
+
+    @Column(length = 120)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column(nullable = false)
+    private long partSizeBytes;
+
+    /**
+     * Redundancy mode requested for the file, or null for the user's tier default.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private RedundancyScheme.Mode redundancy;
+
+    /**
+     * Object key the file is stored under once complete.
+     */
+    @Column(nullable = false, unique = true, length = 120)
+    private String objectKey;
+
+    @Column(nullable = false, length = 512)
+    private String stagingPath;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public int getPartCount() {
+        return (int) ((sizeBytes + partSizeBytes - 1) / partSizeBytes);
+    }
+
+    /**
+     * Size of a part; every part but the last is {@code partSizeBytes} long.
+     */
+    public long partSize(int partNumber) {
+        return Math.min(partSizeBytes, sizeBytes - partOffset(partNumber));
+    }
+
+    public long partOffset(int partNumber) {
+        return (partNumber - 1) * partSizeBytes;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    public void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
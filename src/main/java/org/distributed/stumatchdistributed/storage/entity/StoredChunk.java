@@ -0,0 +1,115 @@
+package org.distributed.stumatchdistributed.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A unique chunk of content stored in the cluster (dedup index entry).
+ * Identified by the SHA-256 of its data; shared by every file containing it.
+ *
+ * A chunk is stored as whole replicas ({@code replicaNodes}), as erasure-coded
+ * shards ({@code dataShards} + {@code parityShards}, placed in {@code shardNodes}),
+ * or both when files with different redundancy stored the same content.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "stored_chunk")
+public class StoredChunk {
+
+    @Id
+    @Column(length = 64)
+    private String chunkHash;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    /**
+     * Number of files referencing this chunk. Garbage-collected at zero.
+     */
+    @Column(nullable = false)
+    @Default
+    private long refCount = 0L;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stored_chunk_replica", joinColumns = @JoinColumn(name = "chunk_hash"))
+    @Column(name = "node_id", length = 120)
+    @Default
+    private Set<String> replicaNodes = new LinkedHashSet<>();
+
+    /**
+     * Reed-Solomon shard counts; null when the chunk is not erasure-coded.
+     */
+    private Integer dataShards;
+    private Integer parityShards;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stored_chunk_shard", joinColumns = @JoinColumn(name = "chunk_hash"))
+    @MapKeyColumn(name = "shard_index")
+    @Column(name = "node_id", length = 120)
+    @Default
+    private Map<Integer, String> shardNodes = new LinkedHashMap<>();
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public boolean isErasureCoded() {
+        return dataShards != null && !shardNodes.isEmpty();
+    }
+
+    /**
+     * Erasure coding of the stored shards, or null if the chunk is only replicated.
+     */
+    public RedundancyScheme erasureCoding() {
+        return isErasureCoded() ? RedundancyScheme.erasureCoded(dataShards, parityShards) : null;
+    }
+
+    /**
+     * Every node-side object of this chunk: node chunk ID (the hash for replicas,
+     * a shard ID for shards) to the nodes holding it.
+     */
+    public Map<String, Set<String>> placements() {
+        Map<String, Set<String>> placements = new LinkedHashMap<>();
+        if (!replicaNodes.isEmpty()) {
+            placements.put(chunkHash, new LinkedHashSet<>(replicaNodes));
+        }
+        RedundancyScheme coding = erasureCoding();
+        if (coding != null) {
+            shardNodes.forEach((index, nodeId) -> placements
+                    .computeIfAbsent(coding.shardId(chunkHash, index), id -> new LinkedHashSet<>())
+                    .add(nodeId));
+        }
+        return placements;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    public void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,43 @@
+package org.distributed.stumatchdistributed.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A part of a {@link ResumableUpload} that was received in full and flushed to
+ * the staging file. Parts without a row are (re)sent by the client.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "upload_part",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"upload_id", "part_number"}))
+public class UploadPart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "upload_id", nullable = false)
+    private ResumableUpload upload;
+
+    @Column(name = "part_number", nullable = false)
+    private int partNumber;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,16 @@
+package org.distributed.stumatchdistributed.storage.repository;
+
+import org.distributed.stumatchdistributed.storage.entity.DistributionJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface DistributionJobRepository extends JpaRepository<DistributionJob, UUID> {
+
+    List<DistributionJob> findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(LocalDateTime now, Pageable page);
+
+    void deleteByFileId(UUID fileId);
+}
@@ -0,0 +1,12 @@
+package org.distributed.stumatchdistributed.storage.repository;
+
+import org.distributed.stumatchdistributed.storage.entity.FileChunkMapping;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface FileChunkMappingRepository extends JpaRepository<FileChunkMapping, UUID> {
+
+    List<FileChunkMapping> findByFileIdOrderByChunkIndexAsc(UUID fileId);
+}
@@ -1,7 +1,9 @@
 package org.distributed.stumatchdistributed.storage.repository;
 
+import jakarta.persistence.LockModeType;
 import org.distributed.stumatchdistributed.storage.entity.FileMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -24,5 +26,13 @@ public interface FileMetadataRepository extends JpaRepository<FileMetadata, UUID
               and f.deleted = false
             """)
     long sumActiveSizeBytesByOwner(@Param("ownerId") UUID ownerId);
+
+    /**
+     * Reads a file's metadata and locks its row until the transaction ends, so a
+     * delete and the distribution worker's status updates do not overwrite each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from FileMetadata f where f.id = :id")
+    Optional<FileMetadata> findForUpdate(@Param("id") UUID id);
 }
 
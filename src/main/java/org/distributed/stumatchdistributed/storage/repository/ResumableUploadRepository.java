@@ -0,0 +1,13 @@
+package org.distributed.stumatchdistributed.storage.repository;
+
+import org.distributed.stumatchdistributed.storage.entity.ResumableUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ResumableUploadRepository extends JpaRepository<ResumableUpload, UUID> {
+
+    List<ResumableUpload> findByOwnerIdAndUpdatedAtBefore(UUID ownerId, LocalDateTime cutoff);
+}
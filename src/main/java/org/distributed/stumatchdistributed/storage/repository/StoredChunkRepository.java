@@ -0,0 +1,21 @@
+package org.distributed.stumatchdistributed.storage.repository;
+
+import jakarta.persistence.LockModeType;
+import org.distributed.stumatchdistributed.storage.entity.StoredChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StoredChunkRepository extends JpaRepository<StoredChunk, String> {
+
+    /**
+     * Reads a chunk's index entry and locks its row until the transaction ends,
+     * so concurrent reference count changes do not overwrite each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from StoredChunk c where c.chunkHash = :chunkHash")
+    Optional<StoredChunk> findForUpdate(@Param("chunkHash") String chunkHash);
+}
@@ -0,0 +1,16 @@
+package org.distributed.stumatchdistributed.storage.repository;
+
+import org.distributed.stumatchdistributed.storage.entity.UploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadPartRepository extends JpaRepository<UploadPart, UUID> {
+
+    List<UploadPart> findByUploadIdOrderByPartNumberAsc(UUID uploadId);
+
+    boolean existsByUploadIdAndPartNumber(UUID uploadId, int partNumber);
+
+    void deleteByUploadId(UUID uploadId);
+}
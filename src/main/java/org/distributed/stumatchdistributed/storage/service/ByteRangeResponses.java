@@ -0,0 +1,219 @@
+package org.distributed.stumatchdistributed.storage.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds streamed download responses with HTTP conditional and range support (RFC 9110).
+ *
+ * - {@code If-None-Match} matching the ETag: 304 Not Modified
+ * - {@code Range} with one range: 206 with that slice of the file
+ * - {@code Range} with several ranges: overlapping and adjacent ranges are merged;
+ *   what remains is sent as 206 multipart/byteranges, one part per range
+ * - Ranges adding up to more than the file (e.g. {@code bytes=0-,0-}): 416, as
+ *   Spring's {@code HttpRange.toResourceRegions} does, so a request cannot make
+ *   the cluster read the file many times over
+ * - {@code If-Range} not matching the current ETag / Last-Modified: the range is
+ *   ignored and the whole file is sent, so a client never stitches two versions
+ * - No satisfiable range: 416 with the file size in Content-Range
+ * - Malformed Range headers are ignored (200 with the whole file)
+ *
+ * Bodies are written by a {@link RangeWriter}, so only the requested bytes are
+ * read, from the cluster or the local copy.
+ *
+ * @author Your Name
+ * @version 1.1
+ */
+final class ByteRangeResponses {
+
+    /**
+     * Writes a byte range of a file to a stream.
+     */
+    @FunctionalInterface
+    interface RangeWriter {
+        void write(long start, long length, OutputStream out) throws IOException;
+    }
+
+    /**
+     * A satisfiable range, inclusive at both ends as in Content-Range.
+     */
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+
+        String contentRange(long size) {
+            return "bytes " + start + "-" + end + "/" + size;
+        }
+    }
+
+    private ByteRangeResponses() {
+    }
+
+    /**
+     * @param request Headers of the download request
+     * @param size File size in bytes
+     * @param etag Strong entity tag (quoted), or null if the file has none
+     * @param lastModified Last modification time of the file
+     * @param contentType Media type of the file
+     * @param fileName Name offered to the client for saving
+     * @param writer Source of the file's bytes
+     */
+    static ResponseEntity<StreamingResponseBody> respond(HttpHeaders request, long size, String etag,
+                                                         Instant lastModified, MediaType contentType,
+                                                         String fileName, RangeWriter writer) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        headers.setLastModified(lastModified);
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+
+        if (etag != null && matchesAny(request.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        List<HttpRange> requested = parseRanges(request);
+        if (requested.isEmpty() || !ifRangeMatches(request, etag, lastModified)) {
+            headers.setContentType(contentType);
+            headers.setContentLength(size);
+            return ResponseEntity.ok().headers(headers).body(out -> writer.write(0, size, out));
+        }
+
+        List<ByteRange> ranges = satisfiable(requested, size);
+        if (ranges.isEmpty()) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            headers.setContentType(contentType);
+            headers.setContentLength(range.length());
+            headers.set(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+                    .body(out -> writer.write(range.start(), range.length(), out));
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + range.contentRange(size) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        headers.setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        headers.setContentLength(contentLength);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(out -> {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                writer.write(ranges.get(i).start(), ranges.get(i).length(), out);
+            }
+            out.write(closing);
+        });
+    }
+
+    /**
+     * Requested ranges; empty if there is no Range header or it is malformed.
+     */
+    private static List<HttpRange> parseRanges(HttpHeaders request) {
+        try {
+            return request.getRange();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Whether the file is still the version an If-Range validator refers to
+     * (true without If-Range). Entity tags must match strongly, dates exactly.
+     */
+    private static boolean ifRangeMatches(HttpHeaders request, String etag, Instant lastModified) {
+        String validator = request.getFirst(HttpHeaders.IF_RANGE);
+        if (validator == null) {
+            return true;
+        }
+        if (validator.startsWith("\"") || validator.startsWith("W/")) {
+            return etag != null && validator.equals(etag);
+        }
+        try {
+            long date = request.getFirstDate(HttpHeaders.IF_RANGE);
+            return date / 1000 == lastModified.getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Satisfiable ranges in file order, with overlapping and adjacent ranges merged.
+     * Empty if no range is satisfiable, or if the ranges add up to more than the file.
+     */
+    private static List<ByteRange> satisfiable(List<HttpRange> requested, long size) {
+        List<ByteRange> ranges = new ArrayList<>(requested.size());
+        for (HttpRange range : requested) {
+            try {
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                if (start < size && start <= end) {
+                    ranges.add(new ByteRange(start, end));
+                }
+            } catch (IllegalArgumentException e) {
+                // Unsatisfiable range (e.g. starts past the end): skipped
+            }
+        }
+        if (totalLength(ranges) > size) {
+            return List.of();
+        }
+
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        for (ByteRange range : ranges) {
+            ByteRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range.start() <= last.end() + 1) {
+                merged.set(merged.size() - 1, new ByteRange(last.start(), Math.max(last.end(), range.end())));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    private static long totalLength(List<ByteRange> ranges) {
+        long total = 0;
+        for (ByteRange range : ranges) {
+            total += range.length();
+        }
+        return total;
+    }
+
+    private static boolean matchesAny(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            // Weak comparison, as If-None-Match uses
+            if (candidate.equals("*") || candidate.replaceFirst("^W/", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,403 @@
+package org.distributed.stumatchdistributed.storage.service;
+
+import org.distributed.stumatchdistributed.model.ChunkDistribution;
+import org.distributed.stumatchdistributed.model.ChunkLocation;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+import org.distributed.stumatchdistributed.network.ChunkIndex;
+import org.distributed.stumatchdistributed.network.NetworkController;
+import org.distributed.stumatchdistributed.storage.entity.FileChunkMapping;
+import org.distributed.stumatchdistributed.storage.entity.FileMetadata;
+import org.distributed.stumatchdistributed.storage.entity.StoredChunk;
+import org.distributed.stumatchdistributed.storage.repository.FileChunkMappingRepository;
+import org.distributed.stumatchdistributed.storage.repository.StoredChunkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Cluster-wide chunk deduplication.
+ *
+ * Keeps an index from chunk content hash to the nodes holding it, with the number
+ * of files referencing each chunk:
+ * - Uploads look chunks up through an {@link UploadSession} and skip transfers of
+ *   chunks that are already stored
+ * - Every stored file records its chunk layout and adds one reference per distinct chunk
+ * - Deleting a file drops its references; chunks that reach zero are deleted from
+ *   their nodes (replicas and erasure-coded shards) and removed from the index
+ * - Reads look up where a chunk's replicas or shards are ({@link #locateForRead})
+ *
+ * Concurrency: index lookups and reference count changes happen under one lock,
+ * and count changes lock the chunk's row, so concurrent uploads and deletes see a
+ * consistent index. A chunk that an in-flight upload found in the index is pinned
+ * until that upload has recorded its references, so it cannot be collected in between.
+ * This assumes a single coordinator process, as the rest of the control plane does.
+ *
+ * Collection: a chunk whose last reference is dropped is removed from the index
+ * in the deleting transaction and tombstoned; its replicas and shards are deleted
+ * from the nodes only once that transaction committed, outside the lock (a
+ * rollback keeps the chunk). Uploads that look up a tombstoned chunk wait until it
+ * is either restored or gone, so they never skip a chunk that is being deleted.
+ *
+ * If the upload transaction rolls back after its references were recorded, the
+ * references leak and the chunks are kept; content is never collected too early.
+ *
+ * Failed uploads: the chunks an attempt did store are recorded as the file's
+ * partial layout ({@link #recordPartial}), so they stay collectable and a retry
+ * finds them instead of sending them again. Recording the next layout replaces it;
+ * a file that is deleted or given up on is discarded with them ({@link #discardFile}).
+ */
+@Service
+public class ChunkDedupService {
+    private static final Logger log = LoggerFactory.getLogger(ChunkDedupService.class);
+
+    private final StoredChunkRepository storedChunkRepository;
+    private final FileChunkMappingRepository fileChunkMappingRepository;
+    private final NetworkController networkController;
+    private final TransactionTemplate indexTransaction;
+
+    private final Object indexLock = new Object();
+    // chunk hash -> number of in-flight uploads relying on the stored copy (guarded by indexLock)
+    private final Map<String, Integer> pins = new HashMap<>();
+    // chunks removed from the index whose node copies are not deleted yet (guarded by indexLock)
+    private final Set<String> tombstones = new HashSet<>();
+
+    public ChunkDedupService(StoredChunkRepository storedChunkRepository,
+                             FileChunkMappingRepository fileChunkMappingRepository,
+                             NetworkController networkController,
+                             PlatformTransactionManager transactionManager) {
+        this.storedChunkRepository = storedChunkRepository;
+        this.fileChunkMappingRepository = fileChunkMappingRepository;
+        this.networkController = networkController;
+        this.indexTransaction = new TransactionTemplate(transactionManager);
+        this.indexTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Starts an upload. The session is the {@link ChunkIndex} passed to
+     * {@link NetworkController#distributeFile(java.nio.file.Path, int, ChunkIndex)}
+     * and must be closed once the file's references were recorded (or the upload failed).
+     */
+    public UploadSession beginUpload() {
+        return new UploadSession();
+    }
+
+    /**
+     * Records the chunk layout of a stored file and adds one reference to each
+     * distinct chunk, with the replicas it was distributed to. A layout recorded
+     * earlier (by a failed attempt) is replaced: its chunks keep their reference if
+     * still used and lose it otherwise.
+     * The layout is saved in the caller's transaction.
+     */
+    public void recordFile(FileMetadata file, ChunkDistribution distribution) {
+        record(file, distribution.getLayout(), distribution, true);
+    }
+
+    /**
+     * Records the chunks a failed distribution did store as the file's layout so
+     * far, with one reference each, replacing the layout of an earlier attempt.
+     * Chunks without a stored replica or shard are left out.
+     * The layout is saved in the caller's transaction.
+     */
+    public void recordPartial(FileMetadata file, ChunkDistribution distribution) {
+        record(file, storedLayout(distribution), distribution, true);
+    }
+
+    /**
+     * Drops a file that is not kept (deleted, or given up on) together with what a
+     * distribution of it stored: the earlier layout's references are dropped, and
+     * stored chunks no other file references are deleted from the nodes once the
+     * caller's transaction commits.
+     */
+    public void discardFile(FileMetadata file, ChunkDistribution distribution) {
+        record(file, storedLayout(distribution), distribution, false);
+    }
+
+    /**
+     * The part of a distribution's layout that has a stored replica or shard.
+     */
+    private static List<ChunkDistribution.ChunkRef> storedLayout(ChunkDistribution distribution) {
+        return distribution.getLayout().stream()
+                .filter(ref -> !distribution.getReplicaNodes(ref.chunkId()).isEmpty()
+                        || !distribution.getShardNodes(ref.chunkId()).isEmpty())
+                .toList();
+    }
+
+    /**
+     * Indexes the chunks of a layout and replaces the file's earlier layout.
+     *
+     * @param keep false to drop the file's references right away (nothing is left mapped)
+     */
+    private void record(FileMetadata file, List<ChunkDistribution.ChunkRef> layout, ChunkDistribution distribution,
+                        boolean keep) {
+        List<FileChunkMapping> previous = fileChunkMappingRepository.findByFileIdOrderByChunkIndexAsc(file.getId());
+        Set<String> previousChunks = new LinkedHashSet<>();
+        previous.forEach(mapping -> previousChunks.add(mapping.getChunkHash()));
+        if (!previous.isEmpty()) {
+            fileChunkMappingRepository.deleteAll(previous);
+            // Deletes are flushed after inserts, which would collide on (file, chunk index)
+            fileChunkMappingRepository.flush();
+        }
+
+        List<FileChunkMapping> mappings = new ArrayList<>();
+        Map<String, Long> distinctChunks = new LinkedHashMap<>();
+        for (ChunkDistribution.ChunkRef ref : layout) {
+            mappings.add(FileChunkMapping.builder()
+                    .file(file)
+                    .chunkIndex(ref.index())
+                    .chunkHash(ref.chunkId())
+                    .offsetBytes(ref.offset())
+                    .sizeBytes(ref.sizeBytes())
+                    .build());
+            distinctChunks.putIfAbsent(ref.chunkId(), ref.sizeBytes());
+        }
+        if (keep) {
+            fileChunkMappingRepository.saveAll(mappings);
+        }
+
+        synchronized (indexLock) {
+            indexTransaction.executeWithoutResult(status -> distinctChunks.forEach((hash, size) -> {
+                StoredChunk chunk = storedChunkRepository.findForUpdate(hash)
+                        .orElseGet(() -> StoredChunk.builder().chunkHash(hash).sizeBytes(size).build());
+                if (!previousChunks.contains(hash)) {
+                    chunk.setRefCount(chunk.getRefCount() + 1);
+                }
+                chunk.getReplicaNodes().addAll(distribution.getReplicaNodes(hash));
+                RedundancyScheme coding = distribution.getErasureCoding(hash);
+                // Same coding: shards sent again (after a partial attempt) join the stored ones
+                if (coding != null && (!chunk.isErasureCoded() || coding.equals(chunk.erasureCoding()))) {
+                    chunk.setDataShards(coding.dataShards());
+                    chunk.setParityShards(coding.parityShards());
+                    chunk.getShardNodes().putAll(distribution.getShardNodes(hash));
+                }
+                storedChunkRepository.save(chunk);
+            }));
+        }
+        // Every reference to drop is released in one pass: releasing locks rows until the caller commits
+        Set<String> dropped = new LinkedHashSet<>(previousChunks);
+        if (keep) {
+            dropped.removeAll(distinctChunks.keySet());
+        } else {
+            dropped.addAll(distinctChunks.keySet());
+        }
+        release(dropped);
+
+        if (keep) {
+            log.info("♻️ File {} references {} chunk(s), {} deduplicated",
+                    file.getId(), distinctChunks.size(), distribution.getDeduplicatedChunks().size());
+        }
+    }
+
+    /**
+     * Drops the references of a deleted file and garbage-collects chunks no file references.
+     * The file's layout and the reference counts change in the caller's transaction;
+     * unreferenced chunks are deleted from the nodes after it commits.
+     */
+    public void releaseFile(FileMetadata file) {
+        List<FileChunkMapping> mappings = fileChunkMappingRepository.findByFileIdOrderByChunkIndexAsc(file.getId());
+        if (mappings.isEmpty()) {
+            return;
+        }
+        Set<String> distinctChunks = new LinkedHashSet<>();
+        mappings.forEach(mapping -> distinctChunks.add(mapping.getChunkHash()));
+        fileChunkMappingRepository.deleteAll(mappings);
+        release(distinctChunks);
+    }
+
+    /**
+     * Drops one reference from each chunk, in the caller's transaction; chunks no
+     * file references any more are deleted from the nodes after it commits.
+     */
+    private void release(Set<String> distinctChunks) {
+        if (distinctChunks.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> unreferenced = new LinkedHashMap<>();
+        Set<String> collected = new LinkedHashSet<>();
+        synchronized (indexLock) {
+            for (String hash : distinctChunks) {
+                storedChunkRepository.findForUpdate(hash).ifPresent(chunk -> {
+                    chunk.setRefCount(Math.max(0, chunk.getRefCount() - 1));
+                    if (chunk.getRefCount() == 0 && !pins.containsKey(hash)) {
+                        unreferenced.putAll(chunk.placements());
+                        collected.add(hash);
+                        storedChunkRepository.delete(chunk);
+                    } else {
+                        storedChunkRepository.save(chunk);
+                    }
+                });
+            }
+            tombstones.addAll(collected);
+        }
+        afterCompletion(collected, unreferenced);
+    }
+
+    /**
+     * Where chunks' replicas and shards are, for reading them back. One query
+     * for all chunks of a file.
+     *
+     * @return Chunk hash to location; chunks not in the index are missing from the map
+     */
+    public Map<String, ChunkLocation> locateForRead(Collection<String> chunkHashes) {
+        return indexTransaction.execute(status -> {
+            Map<String, ChunkLocation> locations = new HashMap<>();
+            for (StoredChunk chunk : storedChunkRepository.findAllById(new HashSet<>(chunkHashes))) {
+                locations.put(chunk.getChunkHash(), new ChunkLocation(chunk.getChunkHash(), chunk.getSizeBytes(),
+                        new LinkedHashSet<>(chunk.getReplicaNodes()), chunk.erasureCoding(),
+                        new LinkedHashMap<>(chunk.getShardNodes())));
+            }
+            return locations;
+        });
+    }
+
+    /**
+     * Runs {@link #collect} once the caller's transaction completed: after a commit
+     * the chunks are deleted from the nodes, after a rollback they are still
+     * indexed and only their tombstones are cleared.
+     */
+    private void afterCompletion(Set<String> collected, Map<String, Set<String>> unreferenced) {
+        if (collected.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            collect(collected, unreferenced);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                collect(collected, status == STATUS_COMMITTED ? unreferenced : Map.of());
+            }
+        });
+    }
+
+    /**
+     * Deletes chunks that were removed from the index from their nodes, outside
+     * indexLock, then clears their tombstones and wakes uploads waiting on them.
+     */
+    private void collect(Set<String> collected, Map<String, Set<String>> unreferenced) {
+        try {
+            deleteFromNodes(unreferenced);
+        } finally {
+            synchronized (indexLock) {
+                tombstones.removeAll(collected);
+                indexLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Deletes unreferenced chunks from their nodes. The chunks are tombstoned
+     * meanwhile, so no upload can find (and skip) a chunk while its replicas are
+     * being removed.
+     *
+     * @param unreferenced Node chunk ID (chunk hash or shard ID) to the nodes holding it
+     */
+    private void deleteFromNodes(Map<String, Set<String>> unreferenced) {
+        unreferenced.forEach((objectId, nodeIds) -> {
+            for (String nodeId : nodeIds) {
+                try {
+                    networkController.deleteChunk(nodeId, objectId);
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ Failed to delete chunk {} from {}: {}", objectId, nodeId, e.getMessage());
+                }
+            }
+        });
+        if (!unreferenced.isEmpty()) {
+            log.info("🗑️ Garbage-collected {} unreferenced chunk replica set(s)/shard(s)", unreferenced.size());
+        }
+    }
+
+    /**
+     * Index view for one upload. Pins every chunk it reports as stored until closed.
+     */
+    public class UploadSession implements ChunkIndex, AutoCloseable {
+        private final Set<String> pinned = new HashSet<>();
+        // chunk hash -> shards needed to read it, for chunks only stored erasure-coded
+        private final Map<String, Integer> shardQuorums = new HashMap<>();
+
+        private UploadSession() {
+        }
+
+        /**
+         * Replica nodes of a chunk, or its shard nodes if it has no replicas.
+         */
+        @Override
+        public Set<String> locate(String chunkId) {
+            synchronized (indexLock) {
+                // Being collected: wait until it is restored (rollback) or gone from the nodes
+                while (tombstones.contains(chunkId)) {
+                    try {
+                        indexLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while chunk " + chunkId + " was collected", e);
+                    }
+                }
+                Set<String> holders = indexTransaction.execute(status -> storedChunkRepository.findById(chunkId)
+                        .map(chunk -> {
+                            if (chunk.getReplicaNodes().isEmpty() && chunk.isErasureCoded()) {
+                                shardQuorums.put(chunkId, chunk.getDataShards());
+                                return (Set<String>) new LinkedHashSet<>(chunk.getShardNodes().values());
+                            }
+                            return (Set<String>) new LinkedHashSet<>(chunk.getReplicaNodes());
+                        })
+                        .orElse(Set.of()));
+                if (!holders.isEmpty() && pinned.add(chunkId)) {
+                    pins.merge(chunkId, 1, Integer::sum);
+                }
+                return holders;
+            }
+        }
+
+        @Override
+        public int readQuorum(String chunkId) {
+            synchronized (indexLock) {
+                return shardQuorums.getOrDefault(chunkId, 1);
+            }
+        }
+
+        /**
+         * Releases the pins; collects pinned chunks whose last reference was dropped meanwhile
+         * and that this upload did not end up referencing.
+         */
+        @Override
+        public void close() {
+            Map<String, Set<String>> unreferenced = new LinkedHashMap<>();
+            Set<String> collected = new LinkedHashSet<>();
+            synchronized (indexLock) {
+                List<String> released = new ArrayList<>();
+                for (String hash : pinned) {
+                    if (pins.merge(hash, -1, Integer::sum) <= 0) {
+                        pins.remove(hash);
+                        released.add(hash);
+                    }
+                }
+                pinned.clear();
+                if (released.isEmpty()) {
+                    return;
+                }
+
+                indexTransaction.executeWithoutResult(status -> {
+                    for (String hash : released) {
+                        storedChunkRepository.findForUpdate(hash).ifPresent(chunk -> {
+                            if (chunk.getRefCount() == 0) {
+                                unreferenced.putAll(chunk.placements());
+                                collected.add(hash);
+                                storedChunkRepository.delete(chunk);
+                            }
+                        });
+                    }
+                });
+                tombstones.addAll(collected);
+            }
+            collect(collected, unreferenced);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package org.distributed.stumatchdistributed.storage.service;
+
+import jakarta.annotation.PreDestroy;
+import org.distributed.stumatchdistributed.config.StorageProperties;
+import org.distributed.stumatchdistributed.model.ChunkDistribution;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+import org.distributed.stumatchdistributed.network.NetworkController;
+import org.distributed.stumatchdistributed.storage.entity.DistributionJob;
+import org.distributed.stumatchdistributed.storage.entity.DistributionStatus;
+import org.distributed.stumatchdistributed.storage.entity.FileMetadata;
+import org.distributed.stumatchdistributed.storage.repository.DistributionJobRepository;
+import org.distributed.stumatchdistributed.storage.repository.FileMetadataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distributes staged files to the storage nodes in the background, so uploads
+ * return once the file is saved on the coordinator and no request or database
+ * transaction stays open during the transfer.
+ *
+ * Queue: {@link DistributionJob} rows, written in the upload's transaction.
+ * The worker polls for due jobs (and is woken right after an upload commits),
+ * so jobs left over from a restart are picked up again.
+ *
+ * Per job:
+ * 1. File is marked DISTRIBUTING (short transaction)
+ * 2. Chunks are transferred, outside any transaction
+ * 3. Chunk references are recorded and the file is marked DISTRIBUTED, or
+ *    DEGRADED if it got less protection than requested (short transaction)
+ *
+ * Failures are retried with exponential backoff; chunks a failed attempt stored
+ * are recorded, so the retry does not send them again. After {@code MAX_ATTEMPTS}
+ * those chunks are released, the file stays local only and is marked LOCAL_ONLY.
+ * Without registered nodes a job waits without using up attempts.
+ *
+ * Assumes a single coordinator process, as the rest of the control plane does.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+@Service
+public class DistributionWorker {
+    private static final Logger log = LoggerFactory.getLogger(DistributionWorker.class);
+
+    static final int DEFAULT_CHUNK_SIZE_MB = 2; // 2MB chunks for distribution
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration RETRY_BASE_DELAY = Duration.ofSeconds(5);
+    private static final Duration RETRY_MAX_DELAY = Duration.ofMinutes(10);
+    private static final Duration NO_NODES_DELAY = Duration.ofSeconds(30);
+
+    private final DistributionJobRepository jobRepository;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final ChunkDedupService chunkDedupService;
+    private final NetworkController networkController;
+    private final StorageProperties storageProperties;
+    private final TransactionTemplate jobTransaction;
+
+    private final ScheduledExecutorService poller;
+    private final ExecutorService workers;
+    // Files distributed at once (storage.distribution-concurrency)
+    private final int maxConcurrentJobs;
+    // Jobs submitted to the workers and not finished yet (only modified by the poller and workers)
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    public DistributionWorker(DistributionJobRepository jobRepository,
+                              FileMetadataRepository fileMetadataRepository,
+                              ChunkDedupService chunkDedupService,
+                              NetworkController networkController,
+                              StorageProperties storageProperties,
+                              PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.chunkDedupService = chunkDedupService;
+        this.networkController = networkController;
+        this.storageProperties = storageProperties;
+        this.jobTransaction = new TransactionTemplate(transactionManager);
+        this.maxConcurrentJobs = Math.max(1, storageProperties.getDistributionConcurrency());
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "distribution-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "distribution-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, POLL_INTERVAL.toMillis(), POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a staged file for distribution, in the caller's transaction. The
+     * worker starts on it as soon as that transaction commits.
+     *
+     * @param mode Redundancy mode to distribute the file with
+     */
+    public void enqueue(FileMetadata file, RedundancyScheme.Mode mode) {
+        jobRepository.save(DistributionJob.builder()
+                .file(file)
+                .redundancy(mode)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    /**
+     * Drops the queued job of a deleted file, in the caller's transaction. A job
+     * already running notices the deletion when it finishes.
+     */
+    public void cancel(UUID fileId) {
+        jobRepository.deleteByFileId(fileId);
+    }
+
+    /**
+     * Polls for due jobs now instead of at the next interval.
+     */
+    public void wake() {
+        try {
+            poller.execute(this::poll);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Hands due jobs to free workers. Runs on the poller thread only.
+     */
+    private void poll() {
+        try {
+            int free = maxConcurrentJobs - running.size();
+            if (free <= 0) {
+                return;
+            }
+            List<DistributionJob> due = jobTransaction.execute(status -> jobRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                    LocalDateTime.now(), PageRequest.of(0, maxConcurrentJobs * 2)));
+            for (DistributionJob job : due) {
+                if (free == 0) {
+                    break;
+                }
+                if (running.add(job.getId())) {
+                    free--;
+                    workers.execute(() -> {
+                        try {
+                            run(job.getId());
+                        } finally {
+                            running.remove(job.getId());
+                            wake();
+                        }
+                    });
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to poll the distribution queue", e);
+        }
+    }
+
+    /**
+     * What a job distributes, read in its first transaction.
+     */
+    private record Target(UUID fileId, String fileName, Path path, RedundancyScheme scheme, int attempt) {}
+
+    private void run(UUID jobId) {
+        Target target = jobTransaction.execute(status -> start(jobId));
+        if (target == null) {
+            return;
+        }
+
+        ChunkDedupService.UploadSession dedupSession = chunkDedupService.beginUpload();
+        // Still holds what was stored if the distribution fails
+        ChunkDistribution distribution = new ChunkDistribution(target.path().getFileName().toString(), -1);
+        try {
+            log.info("Distributing file '{}' across {} nodes (attempt {})",
+                    target.fileName(), networkController.getRegisteredNodes().size(), target.attempt());
+            networkController.distributeFile(
+                    target.path(), DEFAULT_CHUNK_SIZE_MB, dedupSession, target.scheme(), distribution);
+            DistributionStatus outcome = jobTransaction.execute(status -> finish(jobId, target, distribution));
+            log.info("✅ File distributed: {} chunks across {} nodes ({}, {})",
+                    distribution.getTotalChunks(), distribution.getDistribution().size(),
+                    distribution.getRedundancy(), outcome);
+        } catch (Exception e) {
+            log.error("Failed to distribute file '{}' (attempt {})", target.fileName(), target.attempt(), e);
+            jobTransaction.executeWithoutResult(status -> fail(jobId, target, distribution, e));
+        } finally {
+            dedupSession.close();
+        }
+    }
+
+    /**
+     * Marks the job's file DISTRIBUTING. Like every status change of the worker,
+     * this locks the file row.
+     *
+     * @return the file to distribute, or null if the job is gone, its file was
+     *         deleted, or no node is registered (the job is postponed)
+     */
+    private Target start(UUID jobId) {
+        DistributionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        // A delete locks the file row first and removes the job: re-check the job under the lock
+        FileMetadata file = fileMetadataRepository.findForUpdate(job.getFile().getId()).orElse(null);
+        if (file == null || !jobRepository.existsById(jobId)) {
+            return null;
+        }
+        if (file.isDeleted()) {
+            jobRepository.delete(job);
+            return null;
+        }
+        if (networkController.getRegisteredNodes().isEmpty()) {
+            log.info("No distributed nodes available. '{}' stays local until nodes register.", file.getFileName());
+            job.setNextAttemptAt(LocalDateTime.now().plus(NO_NODES_DELAY));
+            return null;
+        }
+
+        file.setDistributionStatus(DistributionStatus.DISTRIBUTING);
+        job.setAttempts(job.getAttempts() + 1);
+        return new Target(file.getId(), file.getFileName(), Path.of(file.getStoragePath()),
+                storageProperties.getRedundancy().schemeFor(job.getRedundancy()), job.getAttempts());
+    }
+
+    /**
+     * Records the file's chunks and final status, and removes the job. The file
+     * row is locked, so a concurrent delete either sees the recorded chunks or
+     * is seen here.
+     */
+    private DistributionStatus finish(UUID jobId, Target target, ChunkDistribution distribution) {
+        FileMetadata file = fileMetadataRepository.findForUpdate(target.fileId()).orElseThrow();
+        jobRepository.deleteById(jobId);
+        if (file.isDeleted()) {
+            // Deleted while its chunks were in transfer: release them again
+            chunkDedupService.discardFile(file, distribution);
+            return DistributionStatus.DISTRIBUTED;
+        }
+        chunkDedupService.recordFile(file, distribution);
+
+        boolean fullyProtected = distribution.getUnderReplicatedChunks().isEmpty()
+                && target.scheme().equals(distribution.getRedundancy());
+        file.setDistributionStatus(fullyProtected ? DistributionStatus.DISTRIBUTED : DistributionStatus.DEGRADED);
+        file.setStorageNodeHint(formatDistributionInfo(distribution));
+        file.setRedundancy(distribution.getRedundancy() != null ? distribution.getRedundancy().toString() : null);
+        return file.getDistributionStatus();
+    }
+
+    /**
+     * Schedules a retry, or gives up after {@code MAX_ATTEMPTS} (the file stays local only).
+     *
+     * The chunks the attempt did store are recorded as the file's partial layout,
+     * so a retry skips them and nothing is left on the nodes unreferenced. When
+     * the file was deleted or is given up on, they are released instead.
+     *
+     * @param distribution What the failed attempt stored
+     */
+    private void fail(UUID jobId, Target target, ChunkDistribution distribution, Exception error) {
+        FileMetadata file = fileMetadataRepository.findForUpdate(target.fileId()).orElse(null);
+        if (file == null) {
+            return;
+        }
+        DistributionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || file.isDeleted()) {
+            chunkDedupService.discardFile(file, distribution);
+            return;
+        }
+        if (job.getAttempts() >= MAX_ATTEMPTS) {
+            log.warn("⚠️ Giving up on distributing '{}' after {} attempts (stored locally only)",
+                    file.getFileName(), job.getAttempts());
+            chunkDedupService.discardFile(file, distribution);
+            file.setDistributionStatus(DistributionStatus.LOCAL_ONLY);
+            jobRepository.delete(job);
+            return;
+        }
+        chunkDedupService.recordPartial(file, distribution);
+        Duration delay = RETRY_BASE_DELAY.multipliedBy(1L << Math.min(job.getAttempts() - 1, 20));
+        job.setNextAttemptAt(LocalDateTime.now().plus(delay.compareTo(RETRY_MAX_DELAY) > 0 ? RETRY_MAX_DELAY : delay));
+        job.setLastError(truncate(String.valueOf(error.getMessage()), 500));
+        file.setDistributionStatus(DistributionStatus.STAGED);
+    }
+
+    private static String formatDistributionInfo(ChunkDistribution distribution) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Chunks: ").append(distribution.getTotalChunks()).append(" | ");
+        if (!distribution.getDeduplicatedChunks().isEmpty()) {
+            sb.append("Dedup: ").append(distribution.getDeduplicatedChunks().size()).append(" | ");
+        }
+        distribution.getDistribution().forEach((nodeId, chunks) -> {
+            sb.append(nodeId).append(":").append(chunks.size()).append(" ");
+        });
+        return sb.toString().trim();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -1,11 +1,17 @@
 package org.distributed.stumatchdistributed.storage.service;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import org.distributed.stumatchdistributed.auth.entity.UserAccount;
 import org.distributed.stumatchdistributed.config.StorageProperties;
-import org.distributed.stumatchdistributed.model.ChunkDistribution;
+import org.distributed.stumatchdistributed.model.ChunkLocation;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
 import org.distributed.stumatchdistributed.network.NetworkController;
+import org.distributed.stumatchdistributed.storage.entity.DistributionStatus;
+import org.distributed.stumatchdistributed.storage.entity.FileChunkMapping;
 import org.distributed.stumatchdistributed.storage.entity.FileMetadata;
 import org.distributed.stumatchdistributed.storage.entity.UserStorage;
+import org.distributed.stumatchdistributed.storage.repository.FileChunkMappingRepository;
 import org.distributed.stumatchdistributed.storage.repository.FileMetadataRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,144 +19,305 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.IntFunction;
 
 @Service
 public class FileService {
     private static final Logger log = LoggerFactory.getLogger(FileService.class);
-    private static final int DEFAULT_CHUNK_SIZE_MB = 2; // 2MB chunks for distribution
 
     private final FileMetadataRepository fileMetadataRepository;
     private final UserStorageService userStorageService;
     private final StorageProperties storageProperties;
     private final NetworkController networkController;
+    private final ChunkDedupService chunkDedupService;
+    private final FileChunkMappingRepository fileChunkMappingRepository;
+    private final DistributionWorker distributionWorker;
+    private final TransactionTemplate stagingTransaction;
 
     public FileService(FileMetadataRepository fileMetadataRepository,
                        UserStorageService userStorageService,
                        StorageProperties storageProperties,
-                       NetworkController networkController) {
+                       NetworkController networkController,
+                       ChunkDedupService chunkDedupService,
+                       FileChunkMappingRepository fileChunkMappingRepository,
+                       DistributionWorker distributionWorker,
+                       PlatformTransactionManager transactionManager) {
         this.fileMetadataRepository = fileMetadataRepository;
         this.userStorageService = userStorageService;
         this.storageProperties = storageProperties;
         this.networkController = networkController;
+        this.chunkDedupService = chunkDedupService;
+        this.fileChunkMappingRepository = fileChunkMappingRepository;
+        this.distributionWorker = distributionWorker;
+        this.stagingTransaction = new TransactionTemplate(transactionManager);
     }
 
     public List<FileMetadata> listFiles(UserAccount user) {
         return fileMetadataRepository.findByOwnerIdAndDeletedFalseOrderByCreatedAtDesc(user.getId());
     }
 
-    @Transactional
-    public FileMetadata upload(UserAccount user, MultipartFile file) {
+    /**
+     * Stores a file locally and queues it for distribution across the nodes.
+     * Returns once the local copy is on disk; see {@link DistributionWorker}.
+     *
+     * @param requested Redundancy mode for this file, or null for the user's tier default
+     */
+    public FileMetadata upload(UserAccount user, MultipartFile file, RedundancyScheme.Mode requested) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
-
         long size = file.getSize();
         userStorageService.assertHasCapacity(user, size);
 
-        UserStorage storage = userStorageService.getStorage(user);
-        Path fileDir = resolveUserFileDirectory(storage);
-
+        Path fileDir = userFileDirectory(user);
+        String objectKey = UUID.randomUUID().toString();
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file.bin";
+        Path targetPath = fileDir.resolve(objectKey);
+        boolean stored = false;
         try {
             Files.createDirectories(fileDir);
-            String objectKey = UUID.randomUUID().toString();
-            String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file.bin";
-            
-            // Step 1: Save to user's virtual disk (for quota tracking and local backup)
-            Path targetPath = fileDir.resolve(objectKey);
-            Files.copy(file.getInputStream(), targetPath);
-            
-            // Step 2: Distribute file chunks across distributed storage nodes via gRPC
-            String distributionInfo = null;
-            try {
-                if (networkController.getRegisteredNodes().isEmpty()) {
-                    log.warn("No distributed nodes available. File stored locally only.");
-                } else {
-                    log.info("Distributing file '{}' across {} nodes", fileName, networkController.getRegisteredNodes().size());
-                    ChunkDistribution distribution = networkController.distributeFile(targetPath, DEFAULT_CHUNK_SIZE_MB);
-                    distributionInfo = formatDistributionInfo(distribution);
-                    log.info("✅ File distributed: {} chunks across {} nodes", 
-                            distribution.getTotalChunks(), distribution.getDistribution().size());
-                }
-            } catch (Exception e) {
-                log.error("Failed to distribute file across nodes (stored locally only)", e);
-                // Continue - file is still saved locally
+
+            // Save to user's virtual disk (for quota tracking and local backup),
+            // hashing on the way for the file's checksum (download ETag).
+            // Until distributed, this is the only copy: flush it before reporting success
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, targetPath);
+            }
+            try (FileChannel channel = FileChannel.open(targetPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            String checksum = HexFormat.of().formatHex(digest.digest());
+
+            FileMetadata metadata = storeLocalFile(user, targetPath, objectKey, fileName, file.getContentType(),
+                    size, checksum, requested);
+            stored = true;
+            return metadata;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to store file", e);
+        } finally {
+            if (!stored) {
+                // Nothing refers to a partially staged copy
+                try {
+                    Files.deleteIfExists(targetPath);
+                } catch (IOException ignored) {}
             }
+        }
+    }
+
+    /**
+     * Registers a file already saved in the user's file directory as STAGED and
+     * queues its distribution, in one short transaction (joining the caller's,
+     * if any). Shared by single-request and resumable uploads.
+     *
+     * @param targetPath Local copy of the file, in the user's file directory
+     * @param checksum SHA-256 of the content (hex)
+     * @param requested Redundancy mode for this file, or null for the user's tier default
+     */
+    public FileMetadata storeLocalFile(UserAccount user, Path targetPath, String objectKey, String fileName,
+                                       String contentType, long size, String checksum,
+                                       RedundancyScheme.Mode requested) {
+        StorageProperties.Redundancy redundancy = storageProperties.getRedundancy();
+        RedundancyScheme.Mode mode = requested != null ? requested : redundancy.modeForTier(user.getStorageTier());
 
+        return stagingTransaction.execute(status -> {
             FileMetadata metadata = FileMetadata.builder()
                     .owner(user)
                     .fileName(fileName)
                     .objectKey(objectKey)
                     .sizeBytes(size)
-                    .contentType(file.getContentType())
+                    .contentType(contentType)
+                    .checksum(checksum)
                     .storagePath(targetPath.toString())
-                    .storageNodeHint(distributionInfo) // Store distribution info
+                    .distributionStatus(DistributionStatus.STAGED)
                     .createdAt(LocalDateTime.now())
                     .updatedAt(LocalDateTime.now())
                     .build();
 
             FileMetadata saved = fileMetadataRepository.save(metadata);
+            distributionWorker.enqueue(saved, mode);
             userStorageService.incrementUsage(user, size);
+            log.info("📥 File '{}' staged ({} bytes), distribution queued ({})", fileName, size, mode);
             return saved;
-
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to store file", e);
-        }
-    }
-    
-    private String formatDistributionInfo(ChunkDistribution distribution) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Chunks: ").append(distribution.getTotalChunks()).append(" | ");
-        distribution.getDistribution().forEach((nodeId, chunks) -> {
-            sb.append(nodeId).append(":").append(chunks.size()).append(" ");
         });
-        return sb.toString().trim();
     }
 
-    public ResponseEntity<byte[]> download(UserAccount user, UUID fileId) {
+    /**
+     * Streams a file, or the byte ranges the request asks for, to the client.
+     *
+     * Distributed files are reassembled from their chunks on the nodes, fetched in
+     * parallel (see {@link NetworkController#readRange}); the coordinator's local
+     * copy, if still present, only serves chunks the cluster cannot. Files that were
+     * never distributed are streamed from the local copy.
+     *
+     * Range, If-Range and If-None-Match are honoured (see {@link ByteRangeResponses});
+     * the ETag is the file's SHA-256, so media players can seek and resume.
+     *
+     * @param request Headers of the HTTP request
+     */
+    public ResponseEntity<StreamingResponseBody> download(UserAccount user, UUID fileId, HttpHeaders request) {
         FileMetadata metadata = fileMetadataRepository.findById(fileId)
                 .filter(file -> file.getOwner().getId().equals(user.getId()) && !file.isDeleted())
                 .orElseThrow(() -> new IllegalArgumentException("File not found"));
 
-        try {
-            Path path = Path.of(metadata.getStoragePath());
-            byte[] bytes = Files.readAllBytes(path);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + metadata.getFileName() + "\"")
-                    .contentType(MediaType.parseMediaType(
-                            metadata.getContentType() != null ? metadata.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE))
-                    .body(bytes);
+        Path localCopy = Path.of(metadata.getStoragePath());
+        boolean hasLocalCopy = Files.isReadable(localCopy);
+        // Until distributed, the mappings are only a failed attempt's partial layout
+        // (no status: stored before distribution was tracked, mapped only if distributed)
+        DistributionStatus status = metadata.getDistributionStatus();
+        boolean distributed = status == null
+                || status == DistributionStatus.DISTRIBUTED || status == DistributionStatus.DEGRADED;
+        List<FileChunkMapping> mappings = distributed
+                ? fileChunkMappingRepository.findByFileIdOrderByChunkIndexAsc(metadata.getId())
+                : List.of();
+        List<ChunkLocation> locations = locateChunks(mappings);
+
+        ByteRangeResponses.RangeWriter writer;
+        if (locations != null) {
+            IntFunction<ByteString> fallback = hasLocalCopy ? index -> readLocalChunk(localCopy, mappings.get(index)) : null;
+            writer = (start, length, out) -> networkController.readRange(locations, start, length, fallback, out);
+        } else if (hasLocalCopy) {
+            writer = (start, length, out) -> transferLocalRange(localCopy, start, length, out);
+        } else {
+            throw new IllegalStateException("File is neither stored locally nor fully indexed in the cluster");
+        }
+
+        return ByteRangeResponses.respond(request, metadata.getSizeBytes(),
+                metadata.getChecksum() != null ? "\"" + metadata.getChecksum() + "\"" : null,
+                metadata.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant(),
+                MediaType.parseMediaType(
+                        metadata.getContentType() != null ? metadata.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE),
+                metadata.getFileName(), writer);
+    }
+
+    /**
+     * Cluster locations of a file's chunks, in file order.
+     *
+     * @return the locations, or null if the file was not distributed or a chunk is missing from the index
+     */
+    private List<ChunkLocation> locateChunks(List<FileChunkMapping> mappings) {
+        if (mappings.isEmpty() || networkController.getRegisteredNodes().isEmpty()) {
+            return null;
+        }
+        Map<String, ChunkLocation> byHash = chunkDedupService.locateForRead(
+                mappings.stream().map(FileChunkMapping::getChunkHash).toList());
+        List<ChunkLocation> locations = new ArrayList<>(mappings.size());
+        for (FileChunkMapping mapping : mappings) {
+            ChunkLocation location = byHash.get(mapping.getChunkHash());
+            if (location == null) {
+                log.warn("Chunk {} is not in the chunk index", mapping.getChunkHash());
+                return null;
+            }
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * Copies a byte range of the coordinator's local copy of a file to a stream.
+     */
+    private static void transferLocalRange(Path localCopy, long start, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(localCopy, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException("Local copy ends at " + position + " of " + end + " bytes");
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * Reads one chunk's bytes from the coordinator's local copy of a file.
+     */
+    private static ByteString readLocalChunk(Path localCopy, FileChunkMapping mapping) {
+        try (FileChannel channel = FileChannel.open(localCopy, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) mapping.getSizeBytes());
+            long position = mapping.getOffsetBytes();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Local copy ends before chunk " + mapping.getChunkIndex());
+                }
+                position += read;
+            }
+            buffer.flip();
+            return UnsafeByteOperations.unsafeWrap(buffer);
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to read file", e);
+            throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Deletes a file. Its row is locked first, so a distribution finishing at the
+     * same time either records its chunks before (and they are released here) or
+     * sees the file deleted.
+     */
     @Transactional
     public void delete(UserAccount user, UUID fileId) {
-        FileMetadata metadata = fileMetadataRepository.findById(fileId)
+        FileMetadata metadata = fileMetadataRepository.findForUpdate(fileId)
                 .filter(file -> file.getOwner().getId().equals(user.getId()) && !file.isDeleted())
                 .orElseThrow(() -> new IllegalArgumentException("File not found"));
 
         metadata.setDeleted(true);
         metadata.setDeletedAt(LocalDateTime.now());
         fileMetadataRepository.save(metadata);
+        distributionWorker.cancel(metadata.getId());
 
         try {
             Files.deleteIfExists(Path.of(metadata.getStoragePath()));
         } catch (IOException ignored) {}
 
+        // Drop this file's chunk references; chunks no other file uses are deleted from the nodes
+        chunkDedupService.releaseFile(metadata);
+
         userStorageService.decrementUsage(user, metadata.getSizeBytes());
     }
 
-    private Path resolveUserFileDirectory(UserStorage storage) {
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Directory holding the local copies of a user's files.
+     */
+    Path userFileDirectory(UserAccount user) {
+        UserStorage storage = userStorageService.getStorage(user);
         Path usersDir = storageProperties.userDisksPath();
         return usersDir.resolve(storage.getDiskId() + "_files");
     }
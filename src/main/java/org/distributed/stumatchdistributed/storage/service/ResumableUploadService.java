@@ -0,0 +1,297 @@
+package org.distributed.stumatchdistributed.storage.service;
+
+import org.distributed.stumatchdistributed.auth.entity.UserAccount;
+import org.distributed.stumatchdistributed.model.RedundancyScheme;
+import org.distributed.stumatchdistributed.storage.entity.FileMetadata;
+import org.distributed.stumatchdistributed.storage.entity.ResumableUpload;
+import org.distributed.stumatchdistributed.storage.entity.UploadPart;
+import org.distributed.stumatchdistributed.storage.repository.ResumableUploadRepository;
+import org.distributed.stumatchdistributed.storage.repository.UploadPartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resumable uploads: initiate, PUT numbered parts (in any order, retried as
+ * often as needed), complete.
+ *
+ * - Each part's request body is written straight to its offset in a staging file
+ *   next to the user's files, without a multipart temp file in between
+ * - A part counts as received once all its bytes are flushed to disk; a part cut
+ *   off by a dropped connection is simply sent again, and only missing parts are
+ *   re-sent after a reconnect (see {@link #getSession})
+ * - Complete hashes the staged file, moves it into place and hands it to
+ *   {@link FileService#storeLocalFile} like a single-request upload, which
+ *   queues it for background distribution
+ *
+ * Sessions untouched for {@code SESSION_TTL} are discarded when the same user
+ * starts a new upload.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+@Service
+public class ResumableUploadService {
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    static final long MIN_PART_SIZE = 1024L * 1024;          // 1MB (the last part may be smaller)
+    static final long MAX_PART_SIZE = 64L * 1024 * 1024;     // 64MB
+    static final long DEFAULT_PART_SIZE = 8L * 1024 * 1024;  // 8MB: a few seconds on a mobile link
+    static final int MAX_PARTS = 10_000;
+    private static final Duration SESSION_TTL = Duration.ofHours(24);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ResumableUploadRepository uploadRepository;
+    private final UploadPartRepository partRepository;
+    private final UserStorageService userStorageService;
+    private final FileService fileService;
+    private final TransactionTemplate sessionTransaction;
+
+    public ResumableUploadService(ResumableUploadRepository uploadRepository,
+                                  UploadPartRepository partRepository,
+                                  UserStorageService userStorageService,
+                                  FileService fileService,
+                                  PlatformTransactionManager transactionManager) {
+        this.uploadRepository = uploadRepository;
+        this.partRepository = partRepository;
+        this.userStorageService = userStorageService;
+        this.fileService = fileService;
+        this.sessionTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts an upload of a file of known size.
+     *
+     * @param partSize Bytes per part, or null for the default
+     * @param requested Redundancy mode for the file, or null for the user's tier default
+     */
+    @Transactional
+    public ResumableUpload initiate(UserAccount user, String fileName, String contentType, long size,
+                                    Long partSize, RedundancyScheme.Mode requested) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        long partSizeBytes = partSize != null ? partSize : DEFAULT_PART_SIZE;
+        if (partSizeBytes < MIN_PART_SIZE || partSizeBytes > MAX_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be between " + MIN_PART_SIZE + " and " + MAX_PART_SIZE + " bytes");
+        }
+        if ((size + partSizeBytes - 1) / partSizeBytes > MAX_PARTS) {
+            throw new IllegalArgumentException("File needs more than " + MAX_PARTS + " parts; use a larger part size");
+        }
+        userStorageService.assertHasCapacity(user, size);
+        discardStaleSessions(user);
+
+        Path fileDir = fileService.userFileDirectory(user);
+        String objectKey = UUID.randomUUID().toString();
+        Path stagingPath = fileDir.resolve(objectKey + ".partial");
+        try {
+            Files.createDirectories(fileDir);
+            Files.createFile(stagingPath);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create staging file", e);
+        }
+
+        ResumableUpload upload = uploadRepository.save(ResumableUpload.builder()
+                .owner(user)
+                .fileName(fileName != null && !fileName.isBlank() ? fileName : "file.bin")
+                .contentType(contentType)
+                .sizeBytes(size)
+                .partSizeBytes(partSizeBytes)
+                .redundancy(requested)
+                .objectKey(objectKey)
+                .stagingPath(stagingPath.toString())
+                .build());
+        log.info("📤 Upload {} started: '{}' ({} bytes in {} parts)",
+                upload.getId(), upload.getFileName(), size, upload.getPartCount());
+        return upload;
+    }
+
+    public ResumableUpload getSession(UserAccount user, UUID uploadId) {
+        return uploadRepository.findById(uploadId)
+                .filter(upload -> upload.getOwner().getId().equals(user.getId()))
+                .orElseThrow(() -> new IllegalArgumentException("Upload not found"));
+    }
+
+    /**
+     * Numbers of the parts received so far, ascending.
+     */
+    public List<Integer> completedParts(ResumableUpload upload) {
+        return partRepository.findByUploadIdOrderByPartNumberAsc(upload.getId()).stream()
+                .map(UploadPart::getPartNumber)
+                .toList();
+    }
+
+    /**
+     * Writes one part from the request body to the staging file. Sending a part
+     * again overwrites it, so retries are safe.
+     *
+     * @param partNumber Part number, from 1
+     * @param body Request body; must hold exactly the part's bytes
+     * @return Size of the part in bytes
+     */
+    public long putPart(UserAccount user, UUID uploadId, int partNumber, InputStream body) {
+        ResumableUpload upload = getSession(user, uploadId);
+        if (partNumber < 1 || partNumber > upload.getPartCount()) {
+            throw new IllegalArgumentException("Part number must be between 1 and " + upload.getPartCount());
+        }
+        long offset = upload.partOffset(partNumber);
+        long expected = upload.partSize(partNumber);
+
+        try (FileChannel channel = FileChannel.open(Path.of(upload.getStagingPath()), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long received = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (received + read > expected) {
+                    throw new IllegalArgumentException("Part " + partNumber + " is longer than " + expected + " bytes");
+                }
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                while (data.hasRemaining()) {
+                    channel.write(data, offset + received + data.position());
+                }
+                received += read;
+            }
+            if (received != expected) {
+                throw new IllegalArgumentException("Part " + partNumber + " has " + received + " of " + expected + " bytes");
+            }
+            // Durable before it is reported as received
+            channel.force(false);
+        } catch (IOException e) {
+            // Typically the client hung up mid-part; it is not recorded and gets sent again
+            throw new IllegalStateException("Failed to receive part " + partNumber + ": " + e.getMessage(), e);
+        }
+
+        recordPart(upload, partNumber, expected);
+        return expected;
+    }
+
+    /**
+     * Assembles the uploaded parts into a file and stores it. The file is
+     * hashed and moved outside any transaction; registering it and dropping
+     * the session is one short transaction.
+     *
+     * @throws IllegalStateException if parts are missing
+     */
+    public FileMetadata complete(UserAccount user, UUID uploadId) {
+        ResumableUpload upload = getSession(user, uploadId);
+        List<Integer> received = completedParts(upload);
+        if (received.size() != upload.getPartCount()) {
+            throw new IllegalStateException("Upload is missing parts: " + missingParts(received, upload.getPartCount()));
+        }
+        userStorageService.assertHasCapacity(user, upload.getSizeBytes());
+
+        Path stagingPath = Path.of(upload.getStagingPath());
+        Path targetPath = stagingPath.resolveSibling(upload.getObjectKey());
+        try {
+            String checksum = checksum(stagingPath);
+            Files.move(stagingPath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+            FileMetadata metadata;
+            try {
+                metadata = sessionTransaction.execute(status -> {
+                    FileMetadata stored = fileService.storeLocalFile(user, targetPath, upload.getObjectKey(),
+                            upload.getFileName(), upload.getContentType(), upload.getSizeBytes(), checksum,
+                            upload.getRedundancy());
+                    partRepository.deleteByUploadId(upload.getId());
+                    uploadRepository.delete(upload);
+                    return stored;
+                });
+            } catch (RuntimeException e) {
+                // Keep the parts, so complete can be retried
+                Files.move(targetPath, stagingPath, StandardCopyOption.ATOMIC_MOVE);
+                throw e;
+            }
+            log.info("✅ Upload {} completed: '{}' ({} parts)", upload.getId(), upload.getFileName(), upload.getPartCount());
+            return metadata;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to assemble upload", e);
+        }
+    }
+
+    /**
+     * Cancels an upload and deletes its parts.
+     */
+    @Transactional
+    public void abort(UserAccount user, UUID uploadId) {
+        discard(getSession(user, uploadId));
+    }
+
+    private void recordPart(ResumableUpload upload, int partNumber, long size) {
+        if (partRepository.existsByUploadIdAndPartNumber(upload.getId(), partNumber)) {
+            return;
+        }
+        try {
+            partRepository.save(UploadPart.builder()
+                    .upload(upload)
+                    .partNumber(partNumber)
+                    .sizeBytes(size)
+                    .receivedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // The same part arrived twice concurrently; the other request recorded it
+            return;
+        }
+        upload.setUpdatedAt(LocalDateTime.now());
+        uploadRepository.save(upload);
+    }
+
+    private void discardStaleSessions(UserAccount user) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(SESSION_TTL);
+        for (ResumableUpload stale : uploadRepository.findByOwnerIdAndUpdatedAtBefore(user.getId(), cutoff)) {
+            log.info("🗑️ Discarding abandoned upload {} ('{}')", stale.getId(), stale.getFileName());
+            discard(stale);
+        }
+    }
+
+    private void discard(ResumableUpload upload) {
+        partRepository.deleteByUploadId(upload.getId());
+        uploadRepository.delete(upload);
+        try {
+            Files.deleteIfExists(Path.of(upload.getStagingPath()));
+        } catch (IOException ignored) {}
+    }
+
+    private static String checksum(Path file) throws IOException {
+        MessageDigest digest = FileService.sha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE * 16);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static List<Integer> missingParts(List<Integer> received, int partCount) {
+        List<Integer> missing = new ArrayList<>();
+        for (int part = 1, next = 0; part <= partCount && missing.size() < 20; part++) {
+            if (next < received.size() && received.get(next) == part) {
+                next++;
+            } else {
+                missing.add(part);
+            }
+        }
+        return missing;
+    }
+}
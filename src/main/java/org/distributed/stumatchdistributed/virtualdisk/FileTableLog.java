@@ -0,0 +1,290 @@
+package org.distributed.stumatchdistributed.virtualdisk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk index of a VirtualDisk's file table: a checkpoint plus a write-ahead log.
+ *
+ * Files (next to the .vdisk file):
+ * - {@code <disk>.ckpt}: full table snapshot, replaced atomically
+ * - {@code <disk>.wal}: every table change since that snapshot, appended in order
+ *
+ * Record format (both files), little framing and no Java serialization:
+ * <pre>
+ *   int length | int crc32c(payload) | payload
+ *   payload = byte type | short nameLength | name (UTF-8) | [long offset | long size | long createdTime]
+ * </pre>
+ * The checkpoint starts with {@code int magic | int version} and ends with an END record.
+ *
+ * Recovery loads the checkpoint and replays the log. Replaying is idempotent
+ * (PUT sets an entry, DELETE removes it), so a crash between writing a
+ * checkpoint and truncating the log is harmless. A torn record at the end of the
+ * log (crash mid-append) fails its CRC, ends the replay and is cut off.
+ *
+ * Records reach the OS page cache on append, so they survive a process crash;
+ * {@link #sync()} forces them to the device.
+ *
+ * @author Your Name
+ * @version 1.0
+ */
+final class FileTableLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(FileTableLog.class);
+
+    private static final int CHECKPOINT_MAGIC = 0x5644_434B; // "VDCK"
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte END = 3;
+
+    private final Path walPath;
+    private final Path checkpointPath;
+    private FileChannel wal;
+    private int recordsSinceCheckpoint;
+
+    /**
+     * Result of {@link #recover()}.
+     */
+    static final class Recovered {
+        final boolean formatted;
+        final Map<String, VirtualFile> files;
+        final int replayedRecords;
+
+        Recovered(boolean formatted, Map<String, VirtualFile> files, int replayedRecords) {
+            this.formatted = formatted;
+            this.files = files;
+            this.replayedRecords = replayedRecords;
+        }
+    }
+
+    FileTableLog(Path diskFilePath) {
+        String name = diskFilePath.getFileName().toString();
+        this.walPath = diskFilePath.resolveSibling(name + ".wal");
+        this.checkpointPath = diskFilePath.resolveSibling(name + ".ckpt");
+    }
+
+    /**
+     * Removes the checkpoint and log of a previous disk with the same name.
+     */
+    void discard() throws IOException {
+        Files.deleteIfExists(checkpointPath);
+        Files.deleteIfExists(walPath);
+    }
+
+    /**
+     * Rebuilds the file table from the checkpoint and the log tail, and opens the
+     * log for appending. A disk without checkpoint was never formatted.
+     */
+    Recovered recover() throws IOException {
+        Map<String, VirtualFile> files = new LinkedHashMap<>();
+        boolean formatted = Files.exists(checkpointPath);
+
+        if (formatted) {
+            readCheckpoint(files);
+        }
+
+        wal = FileChannel.open(walPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int replayed = 0;
+        long validEnd = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (true) {
+            ByteBuffer payload = readRecord(wal, validEnd, header);
+            if (payload == null) {
+                break;
+            }
+            apply(payload, files);
+            validEnd += RECORD_HEADER_BYTES + payload.capacity();
+            replayed++;
+        }
+
+        if (validEnd < wal.size()) {
+            log.warn("⚠️ Discarding {} bytes of torn write-ahead log tail: {}", wal.size() - validEnd, walPath);
+            wal.truncate(validEnd);
+        }
+        wal.position(validEnd);
+        recordsSinceCheckpoint = replayed;
+
+        return new Recovered(formatted, files, replayed);
+    }
+
+    void logPut(VirtualFile file) throws IOException {
+        append(encode(PUT, file.getName(), file));
+    }
+
+    void logDelete(String fileName) throws IOException {
+        append(encode(DELETE, fileName, null));
+    }
+
+    int getRecordsSinceCheckpoint() {
+        return recordsSinceCheckpoint;
+    }
+
+    /**
+     * Writes a full snapshot of the table and empties the log.
+     * The snapshot is forced to the device and renamed over the previous one.
+     */
+    void checkpoint(Collection<VirtualFile> files) throws IOException {
+        Path tmp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer magic = ByteBuffer.allocate(8).putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_VERSION).flip();
+            writeFully(out, magic);
+            for (VirtualFile file : files) {
+                if (!file.isDirectory()) {
+                    writeFully(out, encode(PUT, file.getName(), file));
+                }
+            }
+            writeFully(out, encode(END, "", null));
+            out.force(true);
+        }
+        Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        wal.truncate(0);
+        wal.position(0);
+        wal.force(true);
+        recordsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Forces appended log records to the device.
+     */
+    void sync() throws IOException {
+        wal.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    private void readCheckpoint(Map<String, VirtualFile> files) throws IOException {
+        try (FileChannel in = FileChannel.open(checkpointPath, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(8);
+            readFully(in, magic, 0);
+            magic.flip();
+            if (magic.remaining() < 8 || magic.getInt() != CHECKPOINT_MAGIC || magic.getInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Not a file table checkpoint: " + checkpointPath);
+            }
+
+            long position = 8;
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            while (true) {
+                ByteBuffer payload = readRecord(in, position, header);
+                if (payload == null) {
+                    // The checkpoint is renamed into place only once complete
+                    throw new IOException("Corrupt file table checkpoint: " + checkpointPath);
+                }
+                position += RECORD_HEADER_BYTES + payload.capacity();
+                if (payload.get(0) == END) {
+                    return;
+                }
+                apply(payload, files);
+            }
+        }
+    }
+
+    /**
+     * Reads one record at {@code position}.
+     *
+     * @return the payload, or null at the end of the data or on a torn/corrupt record
+     */
+    private static ByteBuffer readRecord(FileChannel channel, long position, ByteBuffer header) throws IOException {
+        header.clear();
+        readFully(channel, header, position);
+        if (header.position() < RECORD_HEADER_BYTES) {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+            return null;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, position + RECORD_HEADER_BYTES);
+        if (payload.hasRemaining()) {
+            return null;
+        }
+        payload.flip();
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload.duplicate());
+        return (int) checksum.getValue() == crc ? payload : null;
+    }
+
+    private static void apply(ByteBuffer payload, Map<String, VirtualFile> files) throws IOException {
+        byte type = payload.get();
+        byte[] nameBytes = new byte[payload.getShort() & 0xFFFF];
+        payload.get(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+        switch (type) {
+            case PUT -> {
+                long offset = payload.getLong();
+                long size = payload.getLong();
+                long createdTime = payload.getLong();
+                VirtualFile file = new VirtualFile(name, false, size, createdTime);
+                file.setOffset(offset);
+                files.put(name, file);
+            }
+            case DELETE -> files.remove(name);
+            default -> throw new IOException("Unknown file table record type " + type);
+        }
+    }
+
+    private static ByteBuffer encode(byte type, String name, VirtualFile file) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + nameBytes.length + (file != null ? 24 : 0);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+        record.position(RECORD_HEADER_BYTES);
+        record.put(type).putShort((short) nameBytes.length).put(nameBytes);
+        if (file != null) {
+            record.putLong(file.getOffset()).putLong(file.getSize()).putLong(file.getCreatedTime());
+        }
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(record.array(), RECORD_HEADER_BYTES, length);
+        record.putInt(0, length).putInt(4, (int) checksum.getValue());
+        return record.flip();
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        writeFully(wal, record);
+        recordsSinceCheckpoint++;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return;
+            }
+        }
+    }
+}
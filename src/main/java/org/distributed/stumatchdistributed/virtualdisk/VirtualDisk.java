@@ -1,8 +1,12 @@
 package org.distributed.stumatchdistributed.virtualdisk;
+import org.distributed.stumatchdistributed.buffer.DirectBufferPool;
+import org.distributed.stumatchdistributed.buffer.PooledBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -19,12 +23,40 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * Similar to VirtualBox VDI or VMware VMDK files.
  *
+ * Storage layout (log-structured):
+ * - The pre-allocated .vdisk file holds everything; no per-file host files
+ * - [0, 4 KB): disk header (magic, size, disk ID, creation time)
+ * - [4 KB, size): append-only data log. Every write appends the file's bytes at
+ *   the log head through one shared FileChannel (sequential I/O)
+ * - The file table maps each file name to its (offset, length) extent in the log
+ * - Overwritten and deleted extents become dead space, reclaimed by
+ *   {@link #compact()}, which slides live extents down to the start of the log.
+ *   Compaction runs automatically when an append does not fit but the live data does.
+ *
+ * Concurrency: readers and writers do positional I/O on the shared channel
+ * outside the disk monitor. A reader pins its file's extent and a writer owns
+ * its reserved extent; compaction moves one extent at a time and never moves
+ * a pinned or reserved one.
+ *
+ * Persistence: every file table change is appended to a write-ahead log before it
+ * becomes visible, and the table is checkpointed every
+ * {@value #CHECKPOINT_INTERVAL_RECORDS} changes, after compaction and on unmount
+ * (see {@link FileTableLog}). A restarted disk reloads checkpoint + log tail and
+ * comes back formatted with all its files, without scanning the data log.
+ *
  * @author Your Name
- * @version 1.0
+ * @version 1.3
  */
 public class VirtualDisk {
     private static final Logger log = LoggerFactory.getLogger(VirtualDisk.class);
 
+    /** Bytes reserved for the disk header; the data log starts right after. */
+    static final int HEADER_REGION_BYTES = 4096;
+    private static final int COPY_BUFFER_BYTES = 1024 * 1024;
+    private static final int DISK_MAGIC = 0xD15CD15C;
+    private static final int CHECKPOINT_INTERVAL_RECORDS = 10_000;
+    private static final int MAX_COMPACTION_ROUNDS = 8;
+
     private final String diskId;
     private final Path diskFilePath;
     private final long totalSizeBytes;
@@ -34,8 +66,23 @@ public class VirtualDisk {
     private boolean mounted;
     private DiskState state;
 
-    // Virtual file system (simplified)
+    // Virtual file system: file name -> extent in the data log
     private final Map<String, VirtualFile> fileTable;
+    // On-disk copy of the file table (checkpoint + write-ahead log)
+    private final FileTableLog tableLog;
+
+    // Shared channel on the .vdisk file; positional reads/writes are thread-safe
+    private FileChannel diskChannel;
+    // Next free byte of the data log
+    private long logHead = HEADER_REGION_BYTES;
+    // Bytes between HEADER_REGION_BYTES and logHead not belonging to any live file
+    private long deadBytes;
+    // Open read regions per file; pinned extents must not move (guarded by this)
+    private final Map<VirtualFile, Integer> pins = new IdentityHashMap<>();
+    // Writers whose reserved extents are not in the file table yet (guarded by this)
+    private final Set<ChunkOutput> openWriters = new HashSet<>();
+    // A compaction pass is running (guarded by this)
+    private boolean compacting;
 
     public enum DiskState {
         CREATED,      // Disk created but not formatted
@@ -63,7 +110,10 @@ public class VirtualDisk {
 
         // Create the virtual disk file
         this.diskFilePath = baseDir.resolve(diskId + ".vdisk");
+        this.tableLog = new FileTableLog(diskFilePath);
         createDiskFile();
+        this.diskChannel = FileChannel.open(diskFilePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recoverFileTable();
 
         log.info("🖴 Virtual Disk Created: {}", diskId);
         log.info("   Size: {} GB", sizeGB);
@@ -96,7 +146,7 @@ public class VirtualDisk {
                 DiskMetadata metadata = new DiskMetadata(diskId, totalSizeBytes);
                 
                 // Write magic number for verification
-                raf.writeInt(0xD15CD15C); // "DISC DISC" magic number
+                raf.writeInt(DISK_MAGIC); // "DISC DISC" magic number
                 raf.writeLong(totalSizeBytes);
                 raf.writeUTF(diskId);
                 raf.writeLong(System.currentTimeMillis()); // Creation timestamp
@@ -110,6 +160,9 @@ public class VirtualDisk {
                 throw new RuntimeException("Cannot create virtual disk", e);
             }
             
+            // A file table left behind by an earlier disk of the same name does not apply
+            tableLog.discard();
+
             log.info("📝 Disk file created: {}", diskFilePath);
         } else {
             log.info("📝 Using existing disk file: {}", diskFilePath);
@@ -125,9 +178,12 @@ public class VirtualDisk {
         log.info("🔧 Formatting disk: {}", diskId);
 
         try {
-            // Clear file table
+            // Clear file table and start an empty data log
             fileTable.clear();
             usedBytes.set(0);
+            logHead = HEADER_REGION_BYTES;
+            deadBytes = 0;
+            tableLog.checkpoint(fileTable.values());
 
             // Create root directory entry
             VirtualFile root = new VirtualFile("/", true, 0);
@@ -172,109 +228,549 @@ public class VirtualDisk {
 
         mounted = false;
         state = DiskState.UNMOUNTED;
+        try {
+            // Data first: the checkpoint must not point at extents still in the page cache
+            diskChannel.force(false);
+        } catch (IOException e) {
+            log.error("Failed to force disk data on unmount: {}", diskId, e);
+        }
+        checkpoint();
 
         log.info("📁 Disk unmounted: {}", diskId);
         return true;
     }
 
     /**
-     * Writes data to the virtual disk.
+     * Writes data to the virtual disk by appending it to the data log.
+     * Replacing an existing file leaves its old extent as dead space.
      *
      * @param fileName File name
      * @param data Data to write
      * @return true if successful
      */
-    public synchronized boolean writeFile(String fileName, byte[] data) {
-        if (!mounted) {
-            log.warn("⚠️ Disk not mounted: {}", diskId);
+    public boolean writeFile(String fileName, byte[] data) {
+        return writeFile(fileName, ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer as a file (e.g. a received message's
+     * buffer, without copying it into an array first). The bytes are written
+     * outside the disk monitor, like a streamed file.
+     */
+    public boolean writeFile(String fileName, ByteBuffer data) {
+        long dataSize = data.remaining();
+        try {
+            ChunkOutput output = openWriter(fileName, dataSize);
+            if (output == null) {
+                return false;
+            }
+            try {
+                output.write(data);
+            } catch (IOException e) {
+                output.abort();
+                throw e;
+            }
+            return output.commit();
+
+        } catch (IOException e) {
+            log.error("❌ Failed to write file", e);
             return false;
         }
+    }
 
-        long dataSize = data.length;
+    /**
+     * Opens an incremental writer for a file of known size.
+     * The extent is reserved in the data log up front; the file only becomes
+     * visible in the file table when {@link ChunkOutput#commit()} succeeds.
+     *
+     * @param fileName File name
+     * @param size Total size of the file in bytes
+     * @return writer, or null if the disk is not mounted or full
+     */
+    public ChunkOutput openWriter(String fileName, long size) throws IOException {
+        synchronized (this) {
+            if (!mounted) {
+                log.warn("⚠️ Disk not mounted: {}", diskId);
+                return null;
+            }
+        }
 
-        // Check available space
-        if (usedBytes.get() + dataSize > totalSizeBytes) {
+        ChunkOutput output = reserveExtent(fileName, size);
+        if (output == null) {
             log.warn("❌ Insufficient space on disk: {}", diskId);
+        }
+        return output;
+    }
+
+    /**
+     * Registers a fully streamed extent in the file table.
+     */
+    private synchronized boolean commitStreamedFile(ChunkOutput output) throws IOException {
+        openWriters.remove(output);
+        if (!mounted) {
+            deadBytes += output.size;
             return false;
         }
 
         try {
-            // Write to actual file on host
-            Path filePath = diskFilePath.getParent().resolve(diskId + "_" + fileName);
-            Files.write(filePath, data);
+            registerFile(output.fileName, output.offset, output.size);
+        } catch (IOException e) {
+            deadBytes += output.size;
+            throw e;
+        }
 
-            // Update file table
-            VirtualFile vFile = new VirtualFile(fileName, false, dataSize);
-            vFile.setPhysicalPath(filePath.toString());
-            fileTable.put(fileName, vFile);
+        log.info("💾 File written to disk: {} ({} bytes at offset {})", output.fileName, output.size, output.offset);
+        return true;
+    }
 
-            usedBytes.addAndGet(dataSize);
+    private synchronized void abortStreamedFile(ChunkOutput output) {
+        openWriters.remove(output);
+        deadBytes += output.size;
+    }
 
-            log.info("💾 File written to disk: {} ({} bytes)", fileName, dataSize);
-            return true;
+    /**
+     * Streaming writer for a single file on this disk.
+     * Writes go straight to the reserved extent of the data log.
+     */
+    public final class ChunkOutput {
+        private final String fileName;
+        private final long offset;
+        private final long size;
+        private long written;
+        private boolean closed;
+
+        private ChunkOutput(String fileName, long offset, long size) {
+            this.fileName = fileName;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        public void write(ByteBuffer data) throws IOException {
+            if (written + data.remaining() > size) {
+                throw new IOException("Write past the reserved extent of " + fileName);
+            }
+            int length = data.remaining();
+            writeFully(data, offset + written);
+            written += length;
+        }
+
+        public boolean commit() throws IOException {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            if (written != size) {
+                abortStreamedFile(this);
+                throw new IOException("Incomplete file " + fileName + ": " + written + " of " + size + " bytes");
+            }
+            return commitStreamedFile(this);
+        }
+
+        public void abort() {
+            if (!closed) {
+                closed = true;
+                abortStreamedFile(this);
+            }
+        }
+    }
+
+    /**
+     * Reads data from the virtual disk. The file is pinned while its bytes are
+     * read outside the disk monitor.
+     */
+    public byte[] readFile(String fileName) {
+        try (ReadRegion region = openReadRegion(fileName)) {
+            if (region == null) {
+                return null;
+            }
+
+            // Not pooled: the array is handed to the caller (typically a gRPC response)
+            byte[] data = new byte[(int) region.getSize()];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                if (diskChannel.read(buffer, region.getPosition() + buffer.position()) < 0) {
+                    throw new EOFException("Extent of " + fileName + " past end of disk");
+                }
+            }
+
+            log.info("📤 File read from disk: {} ({} bytes)", fileName, data.length);
+            return data;
 
         } catch (IOException e) {
-            log.error("❌ Failed to write file", e);
-            return false;
+            log.error("❌ Failed to read file", e);
+            return null;
         }
     }
 
     /**
-     * Reads data from the virtual disk.
+     * Opens a file for ranged reads without loading it into memory.
+     * The extent stays in place until the region is closed.
+     *
+     * @param fileName File name
+     * @return open region, or null if the file does not exist
      */
-    public synchronized byte[] readFile(String fileName) {
+    public synchronized ReadRegion openReadRegion(String fileName) {
         if (!mounted) {
             log.warn("⚠️ Disk not mounted: {}", diskId);
             return null;
         }
 
         VirtualFile vFile = fileTable.get(fileName);
-        if (vFile == null) {
+        if (vFile == null || vFile.isDirectory()) {
             log.warn("❌ File not found: {}", fileName);
             return null;
         }
 
-        try {
-            Path filePath = Paths.get(vFile.getPhysicalPath());
-            byte[] data = Files.readAllBytes(filePath);
+        pins.merge(vFile, 1, Integer::sum);
+        return new ReadRegion(vFile, vFile.getOffset(), vFile.getSize());
+    }
 
-            log.info("📤 File read from disk: {} ({} bytes)", fileName, data.length);
-            return data;
+    private synchronized void unpin(VirtualFile vFile) {
+        pins.computeIfPresent(vFile, (file, count) -> count > 1 ? count - 1 : null);
+    }
 
-        } catch (IOException e) {
-            log.error("❌ Failed to read file", e);
-            return null;
+    /**
+     * A file's extent in the shared disk channel, readable with positional reads.
+     * The channel is shared: close the region, never the channel.
+     */
+    public final class ReadRegion implements Closeable {
+        private final VirtualFile file;
+        private final long position;
+        private final long size;
+        private boolean closed;
+
+        private ReadRegion(VirtualFile file, long position, long size) {
+            this.file = file;
+            this.position = position;
+            this.size = size;
+        }
+
+        public FileChannel getChannel() { return diskChannel; }
+        public long getPosition() { return position; }
+        public long getSize() { return size; }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                unpin(file);
+            }
         }
     }
 
     /**
      * Deletes a file from the virtual disk.
+     * Its extent becomes dead space until the next compaction.
      */
     public synchronized boolean deleteFile(String fileName) {
         if (!mounted) {
             return false;
         }
 
-        VirtualFile vFile = fileTable.remove(fileName);
-        if (vFile == null) {
+        VirtualFile vFile = fileTable.get(fileName);
+        if (vFile == null || vFile.isDirectory()) {
             return false;
         }
 
         try {
-            Path filePath = Paths.get(vFile.getPhysicalPath());
-            Files.deleteIfExists(filePath);
+            tableLog.logDelete(fileName);
+        } catch (IOException e) {
+            log.error("❌ Failed to delete file", e);
+            return false;
+        }
+        fileTable.remove(fileName);
+
+        usedBytes.addAndGet(-vFile.getSize());
+        deadBytes += vFile.getSize();
+        maybeCheckpoint();
+
+        log.info("🗑️ File deleted from disk: {}", fileName);
+        return true;
+    }
+
+    /**
+     * Reclaims dead space by sliding every live extent down to the start of the
+     * data log, in log order, and moving the log head behind the last one.
+     *
+     * Extents move one at a time, and the disk monitor is only held to pick and
+     * to apply a move, never while bytes are copied, so reads, writes and deletes
+     * continue during a pass:
+     * - An extent that is being read (see {@link #openReadRegion}) stays where it
+     *   is; if a read starts while it is being copied, the copy is abandoned
+     * - Extents reserved by open writers stay where they are
+     * - An extent deleted or replaced while it is being copied is not moved
+     * - Files appended during the pass are swept in a further round, up to
+     *   {@value #MAX_COMPACTION_ROUNDS} rounds; the log head only drops once a round
+     *   ends with nothing appended, otherwise the freed space waits for the next pass
+     *
+     * Crash safety (including power loss), per move:
+     * 1. The extent is copied to a lower place that does not overlap its old one
+     * 2. The copy is forced to the device, and only then the move is logged, so a
+     *    durable table record never points at bytes still in the page cache
+     * 3. The old place is only overwritten by a later move after the log was
+     *    forced, so the recovered table never points at bytes already overwritten
+     * Until its record is durable, the recovered table points at the old extent,
+     * which is still intact. An extent with too little dead space below it stays
+     * where it is this pass.
+     *
+     * @return true if compaction ran, false if another pass is running or it failed
+     */
+    public boolean compact() {
+        long passEnd;
+        List<Slot> slots = new ArrayList<>();
+        synchronized (this) {
+            if (compacting) {
+                log.info("⏳ Compaction of {} already running", diskId);
+                return false;
+            }
+            compacting = true;
+            passEnd = logHead;
+            collectSlots(HEADER_REGION_BYTES, slots);
+        }
+
+        int moved = 0;
+        try (PooledBuffer copyBuffer = DirectBufferPool.shared().acquire(COPY_BUFFER_BYTES)) {
+            ByteBuffer buffer = copyBuffer.buffer();
+            // Old places of extents whose move is logged but not yet forced: not reusable yet
+            List<long[]> vacated = new ArrayList<>();
+            long target = HEADER_REGION_BYTES;
+            for (int round = 1; ; round++) {
+                for (Slot slot : slots) {
+                    if (!movable(slot, target)) {
+                        if (slot.file() == null || isCurrentOrPinned(slot.file())) {
+                            // Stays in place this pass
+                            target = Math.max(target, slot.offset() + slot.size());
+                        }
+                        continue;
+                    }
+
+                    if (overlaps(vacated, target, slot.size())) {
+                        tableLog.sync();
+                        vacated.clear();
+                    }
+                    moveExtent(slot.offset(), target, slot.size(), buffer);
+                    diskChannel.force(false);
+
+                    synchronized (this) {
+                        VirtualFile vFile = slot.file();
+                        if (fileTable.get(vFile.getName()) == vFile && !pins.containsKey(vFile)) {
+                            vFile.setOffset(target);
+                            tableLog.logPut(vFile);
+                            vacated.add(new long[] {slot.offset(), slot.offset() + slot.size()});
+                            target += slot.size();
+                            moved++;
+                        } else if (pins.containsKey(vFile)) {
+                            // A read started meanwhile: the copy is dead space, the extent stays
+                            target = Math.max(target, slot.offset() + slot.size());
+                        }
+                        // Otherwise deleted or replaced meanwhile: both places are dead space
+                    }
+                }
+
+                synchronized (this) {
+                    if (logHead == passEnd || round == MAX_COMPACTION_ROUNDS) {
+                        break;
+                    }
+                    // Files were appended during this round: sweep them too
+                    slots.clear();
+                    collectSlots(passEnd, slots);
+                    passEnd = logHead;
+                }
+            }
 
-            usedBytes.addAndGet(-vFile.getSize());
+            // The log head may now drop below vacated places: make the moves durable
+            // before appends can reuse them
+            tableLog.sync();
+            long reclaimed = 0;
+            synchronized (this) {
+                if (logHead == passEnd) {
+                    reclaimed = logHead - target;
+                    logHead = target;
+                }
+                long reserved = 0;
+                for (ChunkOutput output : openWriters) {
+                    reserved += output.size;
+                }
+                deadBytes = logHead - HEADER_REGION_BYTES - usedBytes.get() - reserved;
+                checkpoint();
+            }
 
-            log.info("🗑️ File deleted from disk: {}", fileName);
+            log.info("🧹 Disk {} compacted: {} bytes reclaimed, {} files moved", diskId, reclaimed, moved);
             return true;
 
         } catch (IOException e) {
-            log.error("❌ Failed to delete file", e);
+            log.error("❌ Compaction failed", e);
+            synchronized (this) {
+                state = DiskState.ERROR;
+            }
             return false;
+
+        } finally {
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Collects the extents at or above {@code from}, in log order. Must be called
+     * holding the disk monitor.
+     */
+    private void collectSlots(long from, List<Slot> slots) {
+        for (VirtualFile vFile : fileTable.values()) {
+            if (!vFile.isDirectory() && vFile.getOffset() >= from) {
+                slots.add(new Slot(vFile, vFile.getOffset(), vFile.getSize()));
+            }
+        }
+        // Extents in use but not in the table: replaced files still being read, open writers
+        for (VirtualFile vFile : pins.keySet()) {
+            if (fileTable.get(vFile.getName()) != vFile && vFile.getOffset() >= from) {
+                slots.add(new Slot(null, vFile.getOffset(), vFile.getSize()));
+            }
+        }
+        for (ChunkOutput output : openWriters) {
+            if (output.offset >= from) {
+                slots.add(new Slot(null, output.offset, output.size));
+            }
+        }
+        slots.sort(Comparator.comparingLong(Slot::offset));
+    }
+
+    /**
+     * An extent seen at the start of a compaction pass; {@code file} is null for
+     * extents that must not move (open writers, replaced files still being read).
+     */
+    private record Slot(VirtualFile file, long offset, long size) {}
+
+    /**
+     * Whether a slot's file is still in place, unread, and fits below its old place.
+     */
+    private synchronized boolean movable(Slot slot, long target) {
+        VirtualFile vFile = slot.file();
+        return vFile != null
+                && fileTable.get(vFile.getName()) == vFile
+                && !pins.containsKey(vFile)
+                && target + slot.size() <= slot.offset();
+    }
+
+    private synchronized boolean isCurrentOrPinned(VirtualFile vFile) {
+        return fileTable.get(vFile.getName()) == vFile || pins.containsKey(vFile);
+    }
+
+    /**
+     * Whether [start, start + length) overlaps any of the given [from, to) regions.
+     */
+    private static boolean overlaps(List<long[]> regions, long start, long length) {
+        for (long[] region : regions) {
+            if (start < region[1] && start + length > region[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies an extent to a lower, non-overlapping offset.
+     */
+    private void moveExtent(long from, long to, long length, ByteBuffer buffer) throws IOException {
+        long copied = 0;
+        while (copied < length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), length - copied));
+            while (buffer.hasRemaining()) {
+                if (diskChannel.read(buffer, from + copied + buffer.position()) < 0) {
+                    throw new EOFException("Extent past end of disk " + diskId);
+                }
+            }
+            buffer.flip();
+            writeFully(buffer, to + copied);
+            copied += buffer.limit();
         }
     }
 
+    /**
+     * Reserves {@code size} bytes at the log head for a writer, compacting first
+     * (outside the disk monitor) if the log is full but the live data would fit.
+     * If a compaction is already running, waits for it instead.
+     *
+     * @return writer on the reserved extent, or null if there is no space
+     */
+    private ChunkOutput reserveExtent(String fileName, long size) {
+        synchronized (this) {
+            while (logHead + size > totalSizeBytes) {
+                if (logHead - deadBytes + size > totalSizeBytes) {
+                    return null;
+                }
+                if (!compacting) {
+                    break;
+                }
+                // Another writer's compaction is running; its result may be enough
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (logHead + size <= totalSizeBytes) {
+                return openExtent(fileName, size);
+            }
+        }
+        compact();
+        synchronized (this) {
+            return logHead + size <= totalSizeBytes ? openExtent(fileName, size) : null;
+        }
+    }
+
+    private ChunkOutput openExtent(String fileName, long size) {
+        ChunkOutput output = new ChunkOutput(fileName, logHead, size);
+        logHead += size;
+        openWriters.add(output);
+        return output;
+    }
+
+    /**
+     * Adds a file to the table; a replaced version becomes dead space.
+     * The change is logged before it becomes visible.
+     */
+    private void registerFile(String fileName, long offset, long size) throws IOException {
+        VirtualFile vFile = new VirtualFile(fileName, false, size);
+        vFile.setOffset(offset);
+        tableLog.logPut(vFile);
+
+        VirtualFile previous = fileTable.put(fileName, vFile);
+        if (previous != null) {
+            usedBytes.addAndGet(-previous.getSize());
+            deadBytes += previous.getSize();
+        }
+        usedBytes.addAndGet(size);
+        maybeCheckpoint();
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        long pos = position;
+        while (data.hasRemaining()) {
+            pos += diskChannel.write(data, pos);
+        }
+    }
+
+    /**
+     * Forces written chunk data, then the file table records pointing to it,
+     * to the device. Runs outside the disk lock, so reads and writes continue meanwhile.
+     */
+    public void sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            if (!mounted) {
+                throw new IOException("Disk not mounted: " + diskId);
+            }
+            channel = diskChannel;
+        }
+        channel.force(false);
+        tableLog.sync();
+    }
+
     /**
      * Lists all files on the virtual disk.
      */
@@ -298,13 +794,76 @@ public class VirtualDisk {
         );
     }
 
+    /**
+     * Reads and validates the disk header written by {@link #createDiskFile()}.
+     */
     private void loadMetadata() throws IOException {
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(diskFilePath.toFile()))) {
-            DiskMetadata metadata = (DiskMetadata) ois.readObject();
-            // Load existing disk state
-        } catch (ClassNotFoundException e) {
-            log.error("Failed to load metadata", e);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(diskFilePath)))) {
+            if (in.readInt() != DISK_MAGIC) {
+                throw new IOException("Not a virtual disk file: " + diskFilePath);
+            }
+            long storedSize = in.readLong();
+            String storedId = in.readUTF();
+            long createdTime = in.readLong();
+
+            if (!storedId.equals(diskId)) {
+                log.warn("⚠️ Disk file {} belongs to disk {}", diskFilePath, storedId);
+            }
+            if (storedSize != totalSizeBytes) {
+                log.warn("⚠️ Disk {} was created with {} bytes, opened with {} bytes", diskId, storedSize, totalSizeBytes);
+            }
+            log.info("📝 Disk header OK: {} (created {})", storedId, new Date(createdTime));
+        }
+    }
+
+    /**
+     * Rebuilds the file table from its checkpoint and write-ahead log.
+     * The log head goes behind the last live extent; everything below it that no
+     * file uses is dead space for the next compaction.
+     */
+    private void recoverFileTable() throws IOException {
+        long start = System.nanoTime();
+        FileTableLog.Recovered recovered = tableLog.recover();
+        if (!recovered.formatted) {
+            return;
+        }
+
+        fileTable.putAll(recovered.files);
+        fileTable.put("/", new VirtualFile("/", true, 0));
+
+        long live = 0;
+        long head = HEADER_REGION_BYTES;
+        for (VirtualFile vFile : recovered.files.values()) {
+            live += vFile.getSize();
+            head = Math.max(head, vFile.getOffset() + vFile.getSize());
+        }
+        usedBytes.set(live);
+        logHead = head;
+        deadBytes = head - HEADER_REGION_BYTES - live;
+        formatted = true;
+        state = DiskState.FORMATTED;
+
+        log.info("♻️ Disk {} recovered {} files ({} bytes) in {} ms, replayed {} log records",
+                diskId, recovered.files.size(), live, (System.nanoTime() - start) / 1_000_000,
+                recovered.replayedRecords);
+    }
+
+    /**
+     * Writes a checkpoint once enough changes have accumulated in the log.
+     */
+    private void maybeCheckpoint() {
+        if (tableLog.getRecordsSinceCheckpoint() >= CHECKPOINT_INTERVAL_RECORDS) {
+            checkpoint();
+        }
+    }
+
+    private void checkpoint() {
+        try {
+            tableLog.checkpoint(fileTable.values());
+        } catch (IOException e) {
+            // The write-ahead log still holds every change; only restart gets slower
+            log.warn("⚠️ File table checkpoint failed for disk {}", diskId, e);
         }
     }
 
@@ -315,27 +874,32 @@ public class VirtualDisk {
     public boolean isFormatted() { return formatted; }
     public boolean isMounted() { return mounted; }
     public DiskState getState() { return state; }
+    public synchronized long getReclaimableBytes() { return deadBytes; }
 }
 
 class VirtualFile implements Serializable {
     private final String name;
     private final boolean isDirectory;
     private final long size;
-    private String physicalPath;
+    private long offset;
     private final long createdTime;
 
     public VirtualFile(String name, boolean isDirectory, long size) {
+        this(name, isDirectory, size, System.currentTimeMillis());
+    }
+
+    VirtualFile(String name, boolean isDirectory, long size, long createdTime) {
         this.name = name;
         this.isDirectory = isDirectory;
         this.size = size;
-        this.createdTime = System.currentTimeMillis();
+        this.createdTime = createdTime;
     }
 
     public String getName() { return name; }
     public boolean isDirectory() { return isDirectory; }
     public long getSize() { return size; }
-    public String getPhysicalPath() { return physicalPath; }
-    public void setPhysicalPath(String path) { this.physicalPath = path; }
+    public long getOffset() { return offset; }
+    public void setOffset(long offset) { this.offset = offset; }
     public long getCreatedTime() { return createdTime; }
 }
 
@@ -0,0 +1,125 @@
+package org.distributed.stumatchdistributed.erasure;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Correctness of the Reed-Solomon codec, plus an encode/decode throughput
+ * benchmark (printed, not asserted, so slow CI machines do not fail it).
+ */
+class ReedSolomonCodecTest {
+
+    @Test
+    void anyDataShardCountOfShardsRebuildsTheChunk() {
+        ReedSolomonCodec codec = new ReedSolomonCodec(4, 2);
+        ByteString chunk = randomChunk(1_000_003, 1);
+        byte[][] encoded = codec.encode(chunk);
+
+        assertEquals(6, encoded.length);
+        assertEquals(codec.shardSize(chunk.size()), encoded[0].length);
+
+        // Every combination of at most two lost shards
+        for (int lostA = 0; lostA < 6; lostA++) {
+            for (int lostB = lostA; lostB < 6; lostB++) {
+                byte[][] shards = copy(encoded);
+                shards[lostA] = null;
+                shards[lostB] = null;
+                assertEquals(chunk, codec.decode(shards, chunk.size()), "lost shards " + lostA + ", " + lostB);
+            }
+        }
+    }
+
+    @Test
+    void dataShardsAreTheChunkItself() {
+        ReedSolomonCodec codec = new ReedSolomonCodec(3, 2);
+        ByteString chunk = randomChunk(10, 2);
+        byte[][] shards = codec.encode(chunk);
+
+        // 10 bytes in shards of 4: the last data shard is zero-padded
+        assertEquals(chunk.substring(0, 4), ByteString.copyFrom(shards[0]));
+        assertEquals(chunk.substring(8, 10), ByteString.copyFrom(shards[2], 0, 2));
+        assertEquals(0, shards[2][2]);
+        assertEquals(chunk, codec.decode(copy(shards), chunk.size()));
+    }
+
+    @Test
+    void wideCodesRecoverFromTheMaximumNumberOfLosses() {
+        ReedSolomonCodec codec = new ReedSolomonCodec(10, 4);
+        ByteString chunk = randomChunk(64 * 1024 + 7, 3);
+        byte[][] shards = codec.encode(chunk);
+        shards[0] = null;
+        shards[3] = null;
+        shards[9] = null;
+        shards[12] = null;
+
+        assertEquals(chunk, codec.decode(shards, chunk.size()));
+    }
+
+    @Test
+    void tooFewShardsAreRejected() {
+        ReedSolomonCodec codec = new ReedSolomonCodec(4, 2);
+        ByteString chunk = randomChunk(4096, 4);
+        byte[][] shards = codec.encode(chunk);
+        shards[1] = null;
+        shards[2] = null;
+        shards[5] = null;
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(shards, chunk.size()));
+        assertThrows(IllegalArgumentException.class, () -> new ReedSolomonCodec(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ReedSolomonCodec(200, 57));
+    }
+
+    @Test
+    void encodeDecodeThroughput() {
+        ReedSolomonCodec codec = new ReedSolomonCodec(4, 2);
+        ByteString chunk = randomChunk(2 * 1024 * 1024, 5);
+        int rounds = 40;
+
+        // Warm-up, so the JIT has compiled the inner loops before timing
+        for (int i = 0; i < 10; i++) {
+            byte[][] shards = codec.encode(chunk);
+            shards[0] = null;
+            codec.decode(shards, chunk.size());
+        }
+
+        long start = System.nanoTime();
+        byte[][] shards = null;
+        for (int i = 0; i < rounds; i++) {
+            shards = codec.encode(chunk);
+        }
+        double encodeSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        ByteString decoded = null;
+        for (int i = 0; i < rounds; i++) {
+            byte[][] degraded = copy(shards);
+            degraded[0] = null;
+            degraded[2] = null;
+            decoded = codec.decode(degraded, chunk.size());
+        }
+        double decodeSeconds = (System.nanoTime() - start) / 1e9;
+
+        double megabytes = rounds * (double) chunk.size() / (1024 * 1024);
+        System.out.printf("RS(4+2) on 2 MB chunks: encode %.0f MB/s, decode with 2 lost data shards %.0f MB/s%n",
+                megabytes / encodeSeconds, megabytes / decodeSeconds);
+        assertEquals(chunk, decoded);
+    }
+
+    private static ByteString randomChunk(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return ByteString.copyFrom(data);
+    }
+
+    private static byte[][] copy(byte[][] shards) {
+        byte[][] copy = new byte[shards.length][];
+        for (int i = 0; i < shards.length; i++) {
+            copy[i] = shards[i].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,125 @@
+package org.distributed.stumatchdistributed.network;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hedged reads keep a slow replica out of the read latency, within the hedge budget.
+ * Nodes are simulated by a fetch function that sleeps, or that stalls until its
+ * request is cancelled: a read that returns at all was then served by another
+ * replica, so the tests need no latency thresholds. The timeouts only stop a
+ * broken reader from hanging the build.
+ */
+class HedgedChunkReaderTest {
+
+    private static final ByteString CHUNK = ByteString.copyFromUtf8("chunk-data");
+
+    private HedgedChunkReader reader;
+
+    @AfterEach
+    void shutdown() {
+        reader.shutdown();
+    }
+
+    @Test
+    @Timeout(10)
+    void slowPrimaryIsOvertakenByTheHedge() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        reader = new HedgedChunkReader((node, chunk) -> {
+            if (node.equals("slow")) {
+                stall();
+                cancelled.countDown();
+                return null;
+            }
+            return CHUNK;
+        }, 8, 50, 5, 2000, 0.1);
+
+        ByteString data = reader.read(List.of("slow", "fast"), "c1", CHUNK.size());
+
+        assertEquals(CHUNK, data);
+        assertEquals(1L, reader.stats().get("hedgeWins"));
+        // The losing request is cancelled, not left running
+        cancelled.await();
+    }
+
+    @Test
+    @Timeout(30)
+    void stallingReplicaNeverHoldsUpARead() {
+        // node-a stalls on every 20th read, node-b answers in a few milliseconds
+        AtomicInteger fetches = new AtomicInteger();
+        reader = reader(node -> node.equals("node-a") && fetches.incrementAndGet() % 20 == 0 ? -1L : 3L);
+
+        for (int i = 0; i < 300; i++) {
+            assertEquals(CHUNK, reader.read(List.of("node-a", "node-b"), "c" + i, CHUNK.size()));
+        }
+        assertTrue((Long) reader.stats().get("hedgeWins") >= 15, reader.stats().toString());
+    }
+
+    @Test
+    void hedgesStayWithinTheBudgetWhenEveryNodeIsSlow() {
+        reader = reader(node -> 30L);
+        for (int i = 0; i < 100; i++) {
+            reader.read(List.of("node-a", "node-b"), "c" + i, CHUNK.size());
+        }
+
+        long hedges = (Long) reader.stats().get("hedges");
+        assertTrue(hedges <= 10 + 100 * 0.1, "hedges " + hedges);
+    }
+
+    @Test
+    @Timeout(10)
+    void failedReplicaIsReplacedWithoutWaitingForTheHedgeDelay() {
+        AtomicInteger calls = new AtomicInteger();
+        // A hedge delay of a minute: the read only finishes in time if the replacement skips it
+        reader = new HedgedChunkReader((node, chunk) -> {
+            calls.incrementAndGet();
+            return node.equals("down") ? null : CHUNK;
+        }, 4, 60_000, 5, 60_000, 0.1);
+
+        assertEquals(CHUNK, reader.read(List.of("down", "up"), "c1", CHUNK.size()));
+        assertEquals(2, calls.get());
+        assertEquals(0L, reader.stats().get("hedges"));
+        assertNull(reader.read(List.of("down"), "c2", CHUNK.size()));
+    }
+
+    /**
+     * @param delayMs Per node: how long a fetch sleeps, or -1 to stall until cancelled
+     */
+    private static HedgedChunkReader reader(Function<String, Long> delayMs) {
+        BiFunction<String, String, ByteString> fetch = (node, chunk) -> {
+            try {
+                long delay = delayMs.apply(node);
+                if (delay < 0) {
+                    new CountDownLatch(1).await();
+                }
+                Thread.sleep(delay);
+                return CHUNK;
+            } catch (InterruptedException e) {
+                // Cancelled hedge loser
+                return null;
+            }
+        };
+        return new HedgedChunkReader(fetch, 8, 50, 5, 2000, 0.1);
+    }
+
+    /**
+     * Blocks until the calling request is cancelled.
+     */
+    private static void stall() {
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            // Cancelled
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.distributed.stumatchdistributed.node;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-threaded behaviour of StorageNode's per-chunk locking and write throttle.
+ *
+ * Where a store has to be slow, the node is throttled to 1 Mbps (~0.5 s per
+ * 64 KB chunk), and the test waits until the store thread is parked in the
+ * throttle, so the assertions depend on ordering rather than on timings.
+ */
+class StorageNodeConcurrencyTest {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    @TempDir
+    Path baseDir;
+
+    private StorageNode newNode(String nodeId, int throttleMbps) {
+        return new StorageNode.Builder()
+                .nodeId(nodeId)
+                .port(50051)
+                .storageGB(1)
+                .throttleMbps(throttleMbps)
+                .storageBaseDir(baseDir)
+                .build();
+    }
+
+    @Test
+    void readsAreNotBlockedByInFlightStore() throws Exception {
+        StorageNode node = newNode("node-read", 1);
+        byte[] stored = randomData(1);
+        assertTrue(node.storeChunk("existing", stored));
+
+        AtomicReference<Thread> storeThread = new AtomicReference<>();
+        ExecutorService pool = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task);
+            storeThread.set(thread);
+            return thread;
+        });
+        try {
+            Future<Boolean> slowStore = pool.submit(() -> node.storeChunk("incoming", randomData(2)));
+            awaitParked(storeThread);
+
+            ByteString read = node.retrieveChunkData("existing");
+            node.getStatus();
+
+            // Had the read queued behind the store, the store would have finished first
+            assertFalse(slowStore.isDone(), "read waited for the in-flight store");
+            assertArrayEquals(stored, read.toByteArray());
+            assertTrue(slowStore.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void unthrottledConcurrentStoresAllSucceed() throws Exception {
+        StorageNode node = newNode("node-parallel", 0);
+        int writers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                byte[] data = randomData(i);
+                String chunkId = "chunk-" + i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return node.storeChunk(chunkId, data);
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+
+            assertEquals(writers, node.listStoredChunks().length);
+            for (int i = 0; i < writers; i++) {
+                assertArrayEquals(randomData(i), node.retrieveChunk("chunk-" + i));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void throttleBudgetIsSharedByConcurrentStores() throws Exception {
+        int throttleMbps = 8;
+        StorageNode node = newNode("node-throttled", throttleMbps);
+        int writers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < writers; i++) {
+                byte[] data = randomData(i);
+                String chunkId = "chunk-" + i;
+                results.add(pool.submit(() -> node.storeChunk(chunkId, data)));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // A lower bound only: a slow machine makes the stores take longer, never shorter.
+            // The first chunk and a 100 ms burst go out at once, the rest wait for the shared budget
+            long bytesPerSecond = throttleMbps * 1_000_000L / 8;
+            long budgetMs = ((writers - 1) * (long) CHUNK_BYTES - bytesPerSecond / 10) * 1000 / bytesPerSecond;
+            assertTrue(elapsedMs >= budgetMs * 8 / 10, "stores exceeded the budget: " + elapsedMs + " ms");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void storageAccountingStaysConsistentUnderConcurrency() throws Exception {
+        StorageNode node = newNode("node-accounting", 0);
+        int threads = 8;
+        int chunksPerThread = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < chunksPerThread; i++) {
+                        // Threads overlap on chunk IDs, so the same chunk is overwritten and deleted concurrently
+                        String chunkId = "shared-" + ((thread + i) % chunksPerThread);
+                        assertTrue(node.storeChunk(chunkId, randomData(thread * 100 + i)));
+                        if ((thread + i) % 3 == 0) {
+                            node.deleteChunk(chunkId);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long onDisk = 0;
+        int chunksOnDisk = 0;
+        try (var files = Files.list(baseDir.resolve("node-accounting"))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                assertTrue(file.toString().endsWith(".dat"), "leftover temporary file " + file);
+                onDisk += Files.size(file);
+                chunksOnDisk++;
+            }
+        }
+        assertEquals(onDisk, node.getUsedStorageBytes());
+        assertEquals(onDisk, node.getStatus().getUsedStorageBytes());
+        assertEquals(chunksOnDisk, node.getStatus().getNumChunks());
+        assertTrue(node.reconcileStorage());
+        assertEquals(onDisk, node.getUsedStorageBytes());
+    }
+
+    /**
+     * Waits until the thread is parked (e.g. sleeping in the write throttle).
+     */
+    private static void awaitParked(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(System.nanoTime() < deadline, "store never reached the throttle");
+            Thread.sleep(1);
+        }
+    }
+
+    private static byte[] randomData(long seed) {
+        byte[] data = new byte[CHUNK_BYTES];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,102 @@
+package org.distributed.stumatchdistributed.service;
+
+import org.distributed.stumatchdistributed.config.StorageProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The hash ring places chunks deterministically, in proportion to capacity,
+ * and moves only the joining node's share of the chunks when a node joins.
+ */
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 50_000;
+    private static final long GB = 1024L * 1024 * 1024;
+
+    @Test
+    void addingANodeMovesAboutOneNthOfTheChunks() {
+        Map<String, Long> four = Map.of("node-1", 100 * GB, "node-2", 100 * GB, "node-3", 100 * GB, "node-4", 100 * GB);
+
+        double fraction = movedToNewNode(four, "node-5", 100 * GB);
+
+        assertTrue(fraction > 0.14 && fraction < 0.26, "moved " + fraction);
+    }
+
+    @Test
+    void joiningNodeWithTwiceTheCapacityOnlyTakesChunksForItself() {
+        Map<String, Long> four = Map.of("node-1", 100 * GB, "node-2", 100 * GB, "node-3", 100 * GB, "node-4", 100 * GB);
+
+        double fraction = movedToNewNode(four, "node-big", 200 * GB);
+
+        // Ideal: 200 of 600 GB
+        assertTrue(fraction > 0.27 && fraction < 0.39, "moved " + fraction);
+    }
+
+    @Test
+    void sharesFollowCapacity() {
+        ConsistentHashRing ring = ring(Map.of("small", 10 * GB, "medium", 20 * GB, "large", 40 * GB));
+
+        Map<String, Integer> shares = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            shares.merge(ring.nodeFor("chunk-" + i, id -> true), 1, Integer::sum);
+        }
+
+        // Ideal: 1/7, 2/7, 4/7
+        assertEquals(KEYS / 7.0, shares.get("small"), KEYS * 0.04, shares.toString());
+        assertEquals(KEYS * 4 / 7.0, shares.get("large"), KEYS * 0.06, shares.toString());
+    }
+
+    @Test
+    void replicasAreTheNextDistinctNodesClockwise() {
+        List<String> nodes = List.of("node-1", "node-2", "node-3", "node-4");
+        StorageProperties properties = new StorageProperties();
+        properties.getPlacement().setStrategy(StorageProperties.Placement.Strategy.CONSISTENT_HASH);
+        StorageMetricsService metrics = new StorageMetricsService();
+        LoadBalancingService balancer = new LoadBalancingService(properties, metrics);
+        ConsistentHashPlacement placement = new ConsistentHashPlacement(metrics, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+
+        for (int i = 0; i < 100; i++) {
+            String chunkId = "chunk-" + i;
+            List<String> expected = placement.locate(chunkId, nodes, 3);
+            String first = balancer.selectNodeForReplica(chunkId, nodes, Set.of());
+            String second = balancer.selectNodeForReplica(chunkId, nodes, Set.of(first));
+            String third = balancer.selectNodeForReplica(chunkId, nodes, Set.of(first, second));
+
+            assertEquals(expected, List.of(first, second, third));
+        }
+    }
+
+    /**
+     * Joins a node to the ring and checks that every chunk that moved went to
+     * it, never between the existing nodes.
+     *
+     * @return Fraction of the chunks that moved
+     */
+    private static double movedToNewNode(Map<String, Long> nodes, String newNode, long capacity) {
+        Map<String, Long> joined = new HashMap<>(nodes);
+        joined.put(newNode, capacity);
+        ConsistentHashRing before = ring(nodes);
+        ConsistentHashRing after = ring(joined);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String from = before.nodeFor("chunk-" + i, id -> true);
+            String to = after.nodeFor("chunk-" + i, id -> true);
+            if (!from.equals(to)) {
+                assertEquals(newNode, to, "chunk-" + i + " moved between existing nodes");
+                moved++;
+            }
+        }
+        return moved / (double) KEYS;
+    }
+
+    private static ConsistentHashRing ring(Map<String, Long> weights) {
+        return new ConsistentHashRing(weights, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+    }
+}
@@ -0,0 +1,114 @@
+package org.distributed.stumatchdistributed.service;
+
+import org.distributed.stumatchdistributed.config.StorageProperties;
+import org.distributed.stumatchdistributed.model.NodeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Placement strategies keep bulk uploads off nearly full and slow nodes.
+ * Shares are checked over many placements with generous bounds, since the
+ * strategies are randomized.
+ */
+class LoadBalancingServiceTest {
+
+    private static final long GB = 1024L * 1024 * 1024;
+    private static final List<String> NODES = List.of("node-1", "node-2", "node-3", "node-4");
+    private static final int PLACEMENTS = 20_000;
+
+    private final StorageMetricsService metrics = new StorageMetricsService();
+
+    @Test
+    void nearlyFullNodesAreSkippedUntilNoOtherNodeIsLeft() {
+        LoadBalancingService balancer = balancer(StorageProperties.Placement.Strategy.ROUND_ROBIN);
+        report("node-1", 95 * GB / 100, GB);
+        report("node-2", GB / 10, GB);
+
+        for (int i = 0; i < 100; i++) {
+            assertNotEquals("node-1", balancer.selectNodeForReplica("chunk-" + i, NODES, Set.of()));
+        }
+        assertEquals("node-1", balancer.selectNodeForReplica("chunk-x", NODES, Set.of("node-2", "node-3", "node-4")));
+        assertNull(balancer.selectNodeForReplica("chunk-x", NODES, Set.copyOf(NODES)));
+    }
+
+    @Test
+    void capacityWeightedPlacementFollowsFreeSpace() {
+        LoadBalancingService balancer = balancer(StorageProperties.Placement.Strategy.CAPACITY_WEIGHTED);
+        report("node-1", 0, 4 * GB);
+        report("node-2", 3 * GB, 4 * GB);
+        report("node-3", 0, 4 * GB);
+        report("node-4", 0, 4 * GB);
+
+        Map<String, Integer> shares = place(balancer);
+
+        // node-2 has 1 GB free against 4 GB on the others: about 1/13 of the chunks
+        assertTrue(shares.get("node-2") < PLACEMENTS / 10, shares.toString());
+        assertTrue(shares.get("node-1") > PLACEMENTS / 4, shares.toString());
+    }
+
+    @Test
+    void powerOfTwoChoicesAvoidsNodesWithDeepQueues() {
+        LoadBalancingService balancer = balancer(StorageProperties.Placement.Strategy.POWER_OF_TWO_CHOICES);
+        for (int i = 0; i < 8; i++) {
+            metrics.transferStarted("node-3");
+        }
+
+        Map<String, Integer> shares = place(balancer);
+
+        assertEquals(0, shares.getOrDefault("node-3", 0), shares.toString());
+    }
+
+    @Test
+    void latencyAwarePlacementAvoidsSlowNodes() {
+        LoadBalancingService balancer = balancer(StorageProperties.Placement.Strategy.LATENCY_AWARE);
+        for (String nodeId : NODES) {
+            metrics.transferStarted(nodeId);
+            metrics.transferFinished(nodeId, nodeId.equals("node-4") ? 400 : 20, true);
+        }
+        // A short queue on a fast node still beats an idle slow one
+        metrics.transferStarted("node-1");
+
+        Map<String, Integer> shares = place(balancer);
+
+        assertEquals(0, shares.getOrDefault("node-4", 0), shares.toString());
+        assertTrue(shares.get("node-1") > PLACEMENTS / 10, shares.toString());
+    }
+
+    @Test
+    void slowTransfersRaiseTheSmoothedLatency() {
+        metrics.transferStarted("node-1");
+        metrics.transferFinished("node-1", 10, true);
+        for (int i = 0; i < 10; i++) {
+            metrics.transferStarted("node-1");
+            metrics.transferFinished("node-1", 1000, false);
+        }
+
+        assertTrue(metrics.getNodeLoad("node-1").getEwmaLatencyMs() > 800);
+        assertEquals(0, metrics.getNodeLoad("node-1").getInFlight());
+        assertEquals(10, metrics.getNodeLoad("node-1").getFailed());
+    }
+
+    private LoadBalancingService balancer(StorageProperties.Placement.Strategy strategy) {
+        StorageProperties properties = new StorageProperties();
+        properties.getPlacement().setStrategy(strategy);
+        return new LoadBalancingService(properties, metrics);
+    }
+
+    private void report(String nodeId, long usedBytes, long totalBytes) {
+        metrics.updateNodeStatus(new NodeStatus(nodeId, usedBytes, totalBytes, 0, usedBytes * 100.0 / totalBytes));
+    }
+
+    private static Map<String, Integer> place(LoadBalancingService balancer) {
+        Map<String, Integer> shares = new HashMap<>();
+        for (int i = 0; i < PLACEMENTS; i++) {
+            shares.merge(balancer.selectNodeForReplica("chunk-" + i, NODES, Set.of()), 1, Integer::sum);
+        }
+        return shares;
+    }
+}
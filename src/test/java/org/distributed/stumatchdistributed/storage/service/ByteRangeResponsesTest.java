@@ -0,0 +1,161 @@
+package org.distributed.stumatchdistributed.storage.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Range, If-Range and If-None-Match handling of streamed downloads.
+ */
+class ByteRangeResponsesTest {
+
+    private static final byte[] FILE = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"5f2b\"";
+    private static final Instant MODIFIED = Instant.parse("2026-01-02T03:04:05Z");
+
+    @Test
+    void noRangeSendsTheWholeFile() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = respond(new HttpHeaders());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals(FILE.length, response.getHeaders().getContentLength());
+        assertEquals(new String(FILE, StandardCharsets.US_ASCII), body(response));
+    }
+
+    @Test
+    void singleRangeIsAPartialResponse() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = respond(range("bytes=5-9"));
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 5-9/20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, response.getHeaders().getContentLength());
+        assertEquals("56789", body(response));
+    }
+
+    @Test
+    void openAndSuffixRangesAreClampedToTheFile() throws IOException {
+        assertEquals("ij", body(respond(range("bytes=18-"))));
+        assertEquals("hij", body(respond(range("bytes=-3"))));
+        assertEquals("fghij", body(respond(range("bytes=15-100"))));
+    }
+
+    @Test
+    void multipleRangesAreSentAsMultipartByteranges() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = respond(range("bytes=0-1,10-12"));
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        MediaType type = response.getHeaders().getContentType();
+        assertEquals("multipart/byteranges", type.getType() + "/" + type.getSubtype());
+        String boundary = type.getParameter("boundary");
+
+        String body = body(response);
+        assertEquals(response.getHeaders().getContentLength(), body.length());
+        assertEquals("\r\n--" + boundary + "\r\nContent-Type: video/mp4\r\nContent-Range: bytes 0-1/20\r\n\r\n01"
+                + "\r\n--" + boundary + "\r\nContent-Type: video/mp4\r\nContent-Range: bytes 10-12/20\r\n\r\nabc"
+                + "\r\n--" + boundary + "--\r\n", body);
+    }
+
+    @Test
+    void overlappingAndAdjacentRangesAreMerged() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = respond(range("bytes=10-12,0-3,2-5,6-7"));
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        MediaType type = response.getHeaders().getContentType();
+        String boundary = type.getParameter("boundary");
+        assertEquals("\r\n--" + boundary + "\r\nContent-Type: video/mp4\r\nContent-Range: bytes 0-7/20\r\n\r\n01234567"
+                + "\r\n--" + boundary + "\r\nContent-Type: video/mp4\r\nContent-Range: bytes 10-12/20\r\n\r\nabc"
+                + "\r\n--" + boundary + "--\r\n", body(response));
+
+        ResponseEntity<StreamingResponseBody> single = respond(range("bytes=0-4,5-9"));
+        assertEquals("bytes 0-9/20", single.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("0123456789", body(single));
+    }
+
+    @Test
+    void rangesAddingUpToMoreThanTheFileAre416() {
+        ResponseEntity<StreamingResponseBody> response = respond(range("bytes=0-,0-,0-"));
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void unsatisfiableRangeIs416() {
+        ResponseEntity<StreamingResponseBody> response = respond(range("bytes=50-60"));
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void malformedRangeIsIgnored() {
+        assertEquals(HttpStatus.OK, respond(range("items=1-2")).getStatusCode());
+    }
+
+    @Test
+    void ifRangeOnlyAppliesToTheSameVersion() {
+        HttpHeaders sameTag = range("bytes=0-3");
+        sameTag.set(HttpHeaders.IF_RANGE, ETAG);
+        assertEquals(HttpStatus.PARTIAL_CONTENT, respond(sameTag).getStatusCode());
+
+        HttpHeaders otherTag = range("bytes=0-3");
+        otherTag.set(HttpHeaders.IF_RANGE, "\"other\"");
+        assertEquals(HttpStatus.OK, respond(otherTag).getStatusCode());
+
+        HttpHeaders sameDate = range("bytes=0-3");
+        sameDate.set(HttpHeaders.IF_RANGE, httpDate(MODIFIED));
+        assertEquals(HttpStatus.PARTIAL_CONTENT, respond(sameDate).getStatusCode());
+
+        HttpHeaders olderDate = range("bytes=0-3");
+        olderDate.set(HttpHeaders.IF_RANGE, httpDate(MODIFIED.minusSeconds(60)));
+        assertEquals(HttpStatus.OK, respond(olderDate).getStatusCode());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() {
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch("W/" + ETAG);
+
+        ResponseEntity<StreamingResponseBody> response = respond(request);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    private static ResponseEntity<StreamingResponseBody> respond(HttpHeaders request) {
+        return ByteRangeResponses.respond(request, FILE.length, ETAG, MODIFIED,
+                MediaType.parseMediaType("video/mp4"), "clip.mp4",
+                (start, length, out) -> out.write(FILE, (int) start, (int) length));
+    }
+
+    private static HttpHeaders range(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, value);
+        return headers;
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}